@@ -1,62 +1,117 @@
 package data_processing.com.flink;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.influxdb.client.DeleteApi;
-import com.influxdb.client.InfluxDBClient;
-import com.influxdb.client.InfluxDBClientFactory;
-import com.influxdb.client.WriteApiBlocking;
-import com.influxdb.client.domain.WritePrecision;
-import com.influxdb.client.write.Point;
+import data_processing.com.flink.influx.AimdConcurrencyLimiter;
+import data_processing.com.flink.influx.CircuitBreaker;
+import data_processing.com.flink.influx.CircuitOpenException;
+import data_processing.com.flink.influx.InfluxBatchOperator;
+import data_processing.com.flink.influx.InfluxHttpDeleter;
+import data_processing.com.flink.influx.InfluxHttpWriter;
+import data_processing.com.flink.influx.InfluxSpillOperator;
+import data_processing.com.flink.influx.JitteredBackoffRetryStrategy;
+import data_processing.com.flink.influx.RollupLineProtocolEncoder;
+import data_processing.com.flink.influx.TelemetryLineProtocolEncoder;
 import data_processing.com.flink.model.DeviceDeleteEvent;
+import data_processing.com.flink.model.DeviceLifecycleEvent;
+import data_processing.com.flink.model.DevicePresenceEvent;
+import data_processing.com.flink.model.DeviceRateLimit;
+import data_processing.com.flink.model.LineProtocolBatch;
+import data_processing.com.flink.model.PresenceStatus;
+import data_processing.com.flink.model.SensorData;
 import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRecord;
+import data_processing.com.flink.model.TelemetryRollup;
+import data_processing.com.flink.ratelimit.TokenBucket;
+import data_processing.com.flink.rollup.TelemetryRollupFunctions;
+import data_processing.com.flink.serialization.DeadLetterSerializationSchema;
+import data_processing.com.flink.serialization.DevicePresenceSerializationSchema;
+import data_processing.com.flink.serialization.TelemetryDeserializationSchema;
+import data_processing.com.flink.serialization.TelemetryEventSerializationSchema;
+import data_processing.com.flink.serialization.TelemetryFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.flink.api.common.eventtime.Watermark;
+import org.apache.flink.api.common.eventtime.WatermarkGenerator;
+import org.apache.flink.api.common.eventtime.WatermarkOutput;
 import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.api.common.functions.RichMapFunction;
 import org.apache.flink.api.common.restartstrategy.RestartStrategies;
+import org.apache.flink.api.common.state.BroadcastState;
+import org.apache.flink.api.common.state.MapState;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.api.common.state.StateTtlConfig;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
 import org.apache.flink.api.common.serialization.SimpleStringSchema;
 import org.apache.flink.api.common.time.Time;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
 import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
 import org.apache.flink.api.java.utils.ParameterTool;
 import org.apache.flink.configuration.Configuration;
-import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
 import org.apache.flink.connector.kafka.sink.KafkaSink;
 import org.apache.flink.connector.kafka.source.KafkaSource;
 import org.apache.flink.connector.kafka.source.enumerator.initializer.OffsetsInitializer;
 import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
 import org.apache.flink.streaming.api.CheckpointingMode;
+import org.apache.flink.streaming.api.TimerService;
 import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamUtils;
+import org.apache.flink.streaming.api.datastream.KeyedStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.CheckpointConfig;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.streaming.api.functions.async.ResultFuture;
 import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
+import org.apache.flink.streaming.api.functions.KeyedProcessFunction;
+import org.apache.flink.streaming.api.functions.co.BroadcastProcessFunction;
+import org.apache.flink.streaming.api.functions.co.KeyedBroadcastProcessFunction;
 import org.apache.flink.streaming.api.functions.ProcessFunction;
+import org.apache.flink.streaming.api.windowing.assigners.TumblingEventTimeWindows;
 import org.apache.flink.util.Collector;
 import org.apache.flink.util.OutputTag;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.annotation.Nullable;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.time.OffsetDateTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 /**
  * Production-ready Flink job for IoT data processing.
- * Clean version: Validation -> InfluxDB -> Kafka Processed.
+ * <p>
+ * Telemetry: validation (rejects to the DLQ) -> revoked device filter -> per-device rate limiter ->
+ * deduplication (late readings to a side output) -> deadband filter -> backfill split, so buffered
+ * history and late readings are written by their own batcher -> batched, concurrency-limited InfluxDB
+ * writes with a disk spill -> Kafka processed topic. 1m / 5m / 15m rollups go to the rollup bucket and
+ * presence transitions to Kafka.
+ * <p>
+ * Deletions: PURGE requests delete a device's data from InfluxDB (GDPR).
  */
 public class DataProcessingJob {
 
@@ -66,18 +121,80 @@ public class DataProcessingJob {
     private static final String KAFKA_BROKERS = "kafka.brokers";
     private static final String KAFKA_TOPIC_RAW = "kafka.topic.raw";
     private static final String KAFKA_TOPIC_PROCESSED = "kafka.topic.processed";
+    private static final String KAFKA_TOPIC_PROCESSED_FORMAT = "kafka.topic.processed.format";
     private static final String KAFKA_TOPIC_DELETIONS = "kafka.topic.deletions";
     private static final String KAFKA_TOPIC_DLQ = "kafka.topic.dlq";
+    private static final String KAFKA_TOPIC_LATE = "kafka.topic.late";
+    private static final String KAFKA_TOPIC_PRESENCE = "kafka.topic.presence";
+    private static final String KAFKA_TOPIC_LIFECYCLE = "kafka.topic.lifecycle";
+    private static final String KAFKA_TOPIC_RATE_LIMITS = "kafka.topic.rate.limits";
+    private static final String KAFKA_TOPIC_RATE_LIMITED = "kafka.topic.rate.limited";
+    private static final String KAFKA_TOPIC_MISROUTED = "kafka.topic.misrouted";
 
     private static final String KAFKA_GROUP_ID_TELEMETRY = "kafka.group.id.telemetry";
     private static final String KAFKA_GROUP_ID_DELETIONS = "kafka.group.id.deletions";
+    private static final String KAFKA_GROUP_ID_LIFECYCLE = "kafka.group.id.lifecycle";
+    private static final String KAFKA_GROUP_ID_RATE_LIMITS = "kafka.group.id.rate.limits";
+
+    private static final String TELEMETRY_MAX_PAYLOAD_BYTES = "telemetry.max.payload.bytes";
+    private static final String TELEMETRY_MAX_FUTURE_SKEW_MS = "telemetry.max.future.skew.ms";
+    private static final String TELEMETRY_SOURCE_PREKEYED = "telemetry.source.prekeyed";
+    private static final String TELEMETRY_OUT_OF_ORDERNESS_MS = "telemetry.watermark.out.of.orderness.ms";
+    private static final String TELEMETRY_SOURCE_IDLENESS_MS = "telemetry.source.idleness.ms";
+    private static final String TELEMETRY_DEDUP_TTL_MS = "telemetry.dedup.ttl.ms";
+    private static final String TELEMETRY_PURGED_REVOCATION_TTL_MS = "telemetry.purged.revocation.ttl.ms";
+    private static final String TELEMETRY_ROLLUP_ENABLED = "telemetry.rollup.enabled";
+    private static final String TELEMETRY_PRESENCE_TIMEOUT_MS = "telemetry.presence.timeout.ms";
+    private static final String TELEMETRY_DEADBAND_ENABLED = "telemetry.deadband.enabled";
+    private static final String TELEMETRY_DEADBAND_TEMPERATURE = "telemetry.deadband.temperature";
+    private static final String TELEMETRY_KEEPALIVE_MS = "telemetry.keepalive.ms";
+    private static final String TELEMETRY_BACKFILL_ENABLED = "telemetry.backfill.enabled";
+    private static final String TELEMETRY_BACKFILL_LAG_MS = "telemetry.backfill.lag.ms";
+    private static final String TELEMETRY_BACKFILL_PARALLELISM = "telemetry.backfill.parallelism";
+    private static final String TELEMETRY_RATELIMIT_EVENTS_PER_SECOND = "telemetry.ratelimit.events.per.second";
+    private static final String TELEMETRY_RATELIMIT_BURST = "telemetry.ratelimit.burst";
+    private static final String TELEMETRY_RATELIMIT_SAMPLE_EVERY = "telemetry.ratelimit.sample.every";
+    private static final String TELEMETRY_RATELIMIT_STATE_TTL_MS = "telemetry.ratelimit.state.ttl.ms";
 
     private static final String INFLUX_URL = "influxdb.url";
     private static final String INFLUX_TOKEN = "influxdb.token";
     private static final String INFLUX_ORG = "influxdb.org";
     private static final String INFLUX_BUCKET = "influxdb.bucket";
+    private static final String INFLUX_ROLLUP_BUCKET = "influxdb.rollup.bucket";
+    private static final String INFLUX_BATCH_SIZE = "influxdb.batch.size";
+    private static final String INFLUX_BATCH_LINGER_MS = "influxdb.batch.linger.ms";
+    private static final String INFLUX_ASYNC_CAPACITY = "influxdb.async.capacity";
+    private static final String INFLUX_ASYNC_TIMEOUT_MS = "influxdb.async.timeout.ms";
+    private static final String INFLUX_ROLLUP_ASYNC_CAPACITY = "influxdb.rollup.async.capacity";
+    private static final String INFLUX_BACKFILL_ASYNC_CAPACITY = "influxdb.backfill.async.capacity";
+    private static final String INFLUX_PURGE_ASYNC_CAPACITY = "influxdb.purge.async.capacity";
+    private static final String INFLUX_PURGE_PARALLELISM = "influxdb.purge.parallelism";
+    private static final String INFLUX_PURGE_COALESCE_MS = "influxdb.purge.coalesce.ms";
+    private static final String INFLUX_PURGE_POLL_MS = "influxdb.purge.poll.ms";
+    private static final String INFLUX_PURGE_REQUEST_TIMEOUT_MS = "influxdb.purge.request.timeout.ms";
+    private static final String INFLUX_PURGE_BACKOFF_INITIAL_MS = "influxdb.purge.backoff.initial.ms";
+    private static final String INFLUX_PURGE_BACKOFF_MAX_MS = "influxdb.purge.backoff.max.ms";
+    private static final String INFLUX_PURGE_STOP_SLACK_MS = "influxdb.purge.stop.slack.ms";
+    private static final String INFLUX_WRITE_REQUEST_TIMEOUT_MS = "influxdb.write.request.timeout.ms";
+    private static final String INFLUX_WRITE_MAX_RETRIES = "influxdb.write.max.retries";
+    private static final String INFLUX_WRITE_BACKOFF_INITIAL_MS = "influxdb.write.backoff.initial.ms";
+    private static final String INFLUX_WRITE_BACKOFF_MAX_MS = "influxdb.write.backoff.max.ms";
+    private static final String INFLUX_WRITE_BACKOFF_JITTER = "influxdb.write.backoff.jitter";
+    private static final String INFLUX_LIMITER_INITIAL = "influxdb.limiter.initial";
+    private static final String INFLUX_LIMITER_MIN = "influxdb.limiter.min";
+    private static final String INFLUX_LIMITER_LATENCY_THRESHOLD_MS = "influxdb.limiter.latency.threshold.ms";
+    private static final String INFLUX_LIMITER_BACKOFF_RATIO = "influxdb.limiter.backoff.ratio";
+    private static final String INFLUX_BREAKER_FAILURE_THRESHOLD = "influxdb.breaker.failure.threshold";
+    private static final String INFLUX_BREAKER_OPEN_MS = "influxdb.breaker.open.ms";
+    private static final String INFLUX_SPILL_ENABLED = "influxdb.spill.enabled";
+    private static final String INFLUX_SPILL_SEGMENT_BYTES = "influxdb.spill.segment.bytes";
+    private static final String INFLUX_SPILL_MAX_BYTES = "influxdb.spill.max.bytes";
+    private static final String INFLUX_SPILL_CHECKPOINT_MAX_BYTES = "influxdb.spill.checkpoint.max.bytes";
+    private static final String INFLUX_SPILL_REPLAY_BATCHES_PER_SECOND = "influxdb.spill.replay.batches.per.second";
+    private static final String INFLUX_SPILL_RETRY_INTERVAL_MS = "influxdb.spill.retry.interval.ms";
 
     private static final String CHECKPOINT_STORAGE = "checkpoint.storage.path";
+    private static final String CHECKPOINT_INTERVAL_MS = "checkpoint.interval.ms";
     private static final String KEY_SECURITY_PROTOCOL = "security.protocol";
     private static final String KEY_SASL_MECHANISM = "sasl.mechanism";
     private static final String KEY_SASL_JAAS_CONFIG = "sasl.jaas.config";
@@ -85,7 +202,20 @@ public class DataProcessingJob {
     //Validation Constant
     private static final Pattern UUID_PATTERN = Pattern.compile("^[0-9a-fA-F-]{36}$");
     // Side output tags
-    private static final OutputTag<String> INVALID_EVENTS_TAG = new OutputTag<String>("invalid-events"){};
+    private static final OutputTag<TelemetryRecord> INVALID_EVENTS_TAG = new OutputTag<TelemetryRecord>("invalid-events"){};
+    static final OutputTag<TelemetryEvent> LATE_EVENTS_TAG = new OutputTag<TelemetryEvent>("late-events"){};
+    static final OutputTag<TelemetryEvent> BACKFILL_EVENTS_TAG = new OutputTag<TelemetryEvent>("backfill-events"){};
+    static final OutputTag<TelemetryEvent> MISROUTED_EVENTS_TAG = new OutputTag<TelemetryEvent>("misrouted-events"){};
+    static final OutputTag<TelemetryEvent> RATE_LIMITED_EVENTS_TAG = new OutputTag<TelemetryEvent>("rate-limited-events"){};
+    // Broadcast state: revoked deviceId -> time of the revoking lifecycle event
+    static final MapStateDescriptor<String, Long> REVOKED_DEVICES =
+            new MapStateDescriptor<>("revoked-devices", Types.STRING, Types.LONG);
+    // Broadcast state: purged deviceId -> time its revocation expires
+    static final MapStateDescriptor<String, Long> PURGED_DEVICES =
+            new MapStateDescriptor<>("purged-devices", Types.STRING, Types.LONG);
+    // Broadcast state: deviceId -> rate limit override
+    static final MapStateDescriptor<String, DeviceRateLimit> RATE_LIMIT_OVERRIDES =
+            new MapStateDescriptor<>("rate-limit-overrides", Types.STRING, TypeInformation.of(DeviceRateLimit.class));
 
     public static void main(String[] args) throws Exception {
 
@@ -96,97 +226,116 @@ public class DataProcessingJob {
             params = ParameterTool.fromPropertiesFile(input).mergeWith(ParameterTool.fromArgs(args));
         }
 
-        LOG.info("=== Starting IoT Data Processing Job (Clean) ===");
+        LOG.info("=== Starting IoT Data Processing Job ===");
 
         final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
 
-        // --- 1. Reliability Settings ---
-        env.getConfig().setGlobalJobParameters(params);
-
-        env.getConfig().enableObjectReuse();
-
-        // Checkpointing
-        env.enableCheckpointing(60000);
-        env.getCheckpointConfig().setCheckpointingMode(CheckpointingMode.EXACTLY_ONCE);
-        env.getCheckpointConfig().setCheckpointStorage(params.get(CHECKPOINT_STORAGE, "file:///tmp/flink-checkpoints"));
-        env.getCheckpointConfig().setExternalizedCheckpointCleanup(CheckpointConfig.ExternalizedCheckpointCleanup.RETAIN_ON_CANCELLATION);
-
-        // Restart Strategy
-        env.setRestartStrategy(RestartStrategies.exponentialDelayRestart(
-                Time.seconds(2), Time.seconds(60), 1.5, Time.minutes(10), 0.1
-        ));
-
-        if (params.has("flink.parallelism")) {
-            env.setParallelism(params.getInt("flink.parallelism"));
-        }
+        configureEnvironment(env, params);
 
         Properties kafkaProps = createKafkaProperties(params);
 
         // ==========================================
-        // PIPELINE 1: TELEMETRY (Validation -> DB -> Kafka)
+        // PIPELINE 1: TELEMETRY (Validation -> Filters -> DB -> Kafka), see buildTelemetryPipeline
         // ==========================================
 
-        KafkaSource<String> telemetrySource = KafkaSource.<String>builder()
+        KafkaSource<TelemetryRecord> telemetrySource = KafkaSource.<TelemetryRecord>builder()
                 .setProperties(kafkaProps)
                 .setTopics(params.getRequired(KAFKA_TOPIC_RAW))
                 .setGroupId(params.get(KAFKA_GROUP_ID_TELEMETRY, "flink-telemetry-group"))
                 .setStartingOffsets(OffsetsInitializer.committedOffsets(OffsetResetStrategy.EARLIEST))
-                .setValueOnlyDeserializer(new SimpleStringSchema())
+                .setDeserializer(new TelemetryDeserializationSchema(
+                        params.getInt(TELEMETRY_MAX_PAYLOAD_BYTES, 16 * 1024),
+                        params.getLong(TELEMETRY_MAX_FUTURE_SKEW_MS, 60_000L)))
                 .build();
 
-        DataStream<String> rawTelemetryStream = env.fromSource(
-                telemetrySource, WatermarkStrategy.noWatermarks(), "Telemetry Source"
+        DataStream<TelemetryRecord> rawTelemetryStream = env.fromSource(
+                telemetrySource, telemetryWatermarks(params), "Telemetry Source"
         );
 
-        // Step 1: Validate JSON
-        SingleOutputStreamOperator<TelemetryEvent> validatedStream = rawTelemetryStream
-                .process(new TelemetryValidator())
-                .name("Validate JSON");
+        // Device lifecycle (compacted): always read from the start, the revoked set is rebuilt from it
+        // on a fresh start and restored with the broadcast state on recovery
+        KafkaSource<String> lifecycleSource = KafkaSource.<String>builder()
+                .setProperties(kafkaProps)
+                .setTopics(params.get(KAFKA_TOPIC_LIFECYCLE, "iot-device-lifecycle"))
+                .setGroupId(params.get(KAFKA_GROUP_ID_LIFECYCLE, "flink-lifecycle-group"))
+                .setStartingOffsets(OffsetsInitializer.earliest())
+                .setValueOnlyDeserializer(new SimpleStringSchema())
+                .build();
 
-        // Step 2: Handle Invalid Data (DLQ)
-        KafkaSink<String> dlqSink = createKafkaSink(params.get(KAFKA_TOPIC_DLQ, "iot-telemetry-dlq"), kafkaProps);
-        validatedStream.getSideOutput(INVALID_EVENTS_TAG).sinkTo(dlqSink).name("DLQ Sink");
+        DataStream<DeviceLifecycleEvent> lifecycleStream = env.fromSource(
+                        lifecycleSource, controlStreamWatermarks(), "Lifecycle Source"
+                )
+                .map(new JsonToPojoMapper<>(DeviceLifecycleEvent.class))
+                .filter(e -> e != null && e.getDeviceId() != null);
 
-        // Step 3: Write to InfluxDB (Async, Non-blocking)
-        AsyncDataStream.unorderedWait(
-                validatedStream,
-                new InfluxDbSinkFunction(params),
-                5000, TimeUnit.MILLISECONDS,
-                20 // Concurrent requests
-        ).name("InfluxDB Writer");
+        // Per-device rate limit overrides (compacted), kept in broadcast state like the revoked set
+        KafkaSource<String> rateLimitSource = KafkaSource.<String>builder()
+                .setProperties(kafkaProps)
+                .setTopics(params.get(KAFKA_TOPIC_RATE_LIMITS, "iot-device-rate-limits"))
+                .setGroupId(params.get(KAFKA_GROUP_ID_RATE_LIMITS, "flink-rate-limits-group"))
+                .setStartingOffsets(OffsetsInitializer.earliest())
+                .setValueOnlyDeserializer(new SimpleStringSchema())
+                .build();
 
-        // Step 4: Forward to Processed Topic (for Frontend/WebSocket)
-        KafkaSink<String> processedSink = KafkaSink.<String>builder()
+        DataStream<DeviceRateLimit> rateLimitStream = env.fromSource(
+                        rateLimitSource, controlStreamWatermarks(), "Rate Limit Source"
+                )
+                .map(new JsonToPojoMapper<>(DeviceRateLimit.class))
+                .filter(e -> e != null && e.getDeviceId() != null);
+
+        TelemetryOutputs outputs = buildTelemetryPipeline(rawTelemetryStream, lifecycleStream, rateLimitStream, params);
+
+        // Invalid Data -> DLQ (original bytes + reject reason headers)
+        KafkaSink<TelemetryRecord> dlqSink = KafkaSink.<TelemetryRecord>builder()
                 .setKafkaProducerConfig(kafkaProps)
-                .setRecordSerializer(new KafkaRecordSerializationSchema<String>() {
-                    @Nullable
-                    @Override
-                    public ProducerRecord<byte[], byte[]> serialize(String element, KafkaSinkContext context, Long timestamp) {
-                        try {
-                            ObjectMapper mapper = new ObjectMapper();
-                            JsonNode node = mapper.readTree(element);
-                            String key = node.get("deviceId").asText();
-
-                            // [Image of Kafka Partition Keying]
-                            return new ProducerRecord<>(
-                                    params.getRequired(KAFKA_TOPIC_PROCESSED),
-                                    null,
-                                    timestamp,
-                                    key.getBytes(StandardCharsets.UTF_8),
-                                    element.getBytes(StandardCharsets.UTF_8)
-                            );
-                        } catch (Exception e) {
-                            LOG.error("Failed to serialize for Kafka: {}", element, e);
-                            return null;
-                        }
-                    }
-                })
+                .setRecordSerializer(new DeadLetterSerializationSchema(params.get(KAFKA_TOPIC_DLQ, "iot-telemetry-dlq")))
+                .build();
+        outputs.getInvalid().sinkTo(dlqSink).name("DLQ Sink");
+
+        TelemetryFormat processedFormat =
+                TelemetryFormat.valueOf(params.get(KAFKA_TOPIC_PROCESSED_FORMAT, "json").toUpperCase(Locale.ROOT));
+
+        // Late readings -> own topic instead of InfluxDB
+        KafkaSink<TelemetryEvent> lateSink = KafkaSink.<TelemetryEvent>builder()
+                .setKafkaProducerConfig(kafkaProps)
+                .setRecordSerializer(new TelemetryEventSerializationSchema(
+                        params.get(KAFKA_TOPIC_LATE, "iot-telemetry-late"), processedFormat))
+                .build();
+        outputs.getLate().sinkTo(lateSink).name("Late Events Sink");
+
+        // Sample of the readings the rate limiter dropped, to see what a noisy device sends
+        KafkaSink<TelemetryEvent> rateLimitedSink = KafkaSink.<TelemetryEvent>builder()
+                .setKafkaProducerConfig(kafkaProps)
+                .setRecordSerializer(new TelemetryEventSerializationSchema(
+                        params.get(KAFKA_TOPIC_RATE_LIMITED, "iot-telemetry-rate-limited"), processedFormat))
+                .build();
+        outputs.getRateLimited().sinkTo(rateLimitedSink).name("Rate Limited Sink");
+
+        // Pre-keyed mode only: readings the bridge put on a partition another subtask owns
+        if (outputs.getMisrouted() != null) {
+            KafkaSink<TelemetryEvent> misroutedSink = KafkaSink.<TelemetryEvent>builder()
+                    .setKafkaProducerConfig(kafkaProps)
+                    .setRecordSerializer(new TelemetryEventSerializationSchema(
+                            params.get(KAFKA_TOPIC_MISROUTED, "iot-telemetry-misrouted"), processedFormat))
+                    .build();
+            outputs.getMisrouted().sinkTo(misroutedSink).name("Misrouted Events Sink");
+        }
+
+        // Processed Topic (for Frontend/WebSocket)
+        KafkaSink<TelemetryEvent> processedSink = KafkaSink.<TelemetryEvent>builder()
+                .setKafkaProducerConfig(kafkaProps)
+                .setRecordSerializer(new TelemetryEventSerializationSchema(
+                        params.getRequired(KAFKA_TOPIC_PROCESSED), processedFormat))
                 .build();
+        outputs.getProcessed().sinkTo(processedSink).name("Kafka Processed Sink (Keyed)");
 
-        validatedStream
-                .map(new PojoToJsonMapper<>())
-                .sinkTo(processedSink)
-                .name("Kafka Processed Sink (Keyed)");
+        // Presence (compacted topic, forwarded to WebSocket)
+        KafkaSink<DevicePresenceEvent> presenceSink = KafkaSink.<DevicePresenceEvent>builder()
+                .setKafkaProducerConfig(kafkaProps)
+                .setRecordSerializer(new DevicePresenceSerializationSchema(
+                        params.get(KAFKA_TOPIC_PRESENCE, "iot-device-presence")))
+                .build();
+        outputs.getPresence().sinkTo(presenceSink).name("Kafka Presence Sink");
 
         // ==========================================
         // PIPELINE 2: DELETIONS (GDPR)
@@ -204,19 +353,295 @@ public class DataProcessingJob {
                         deletionSource, WatermarkStrategy.noWatermarks(), "Deletion Source"
                 )
                 .map(new JsonToPojoMapper<>(DeviceDeleteEvent.class))
-                .filter(e -> e != null && "PURGE".equals(e.getAction()));
+                .filter(e -> e != null && e.getDeviceId() != null && "PURGE".equals(e.getAction()));
 
-        AsyncDataStream.unorderedWait(
-                deletionStream,
-                new InfluxDbDeleteSink(params),
-                10000, TimeUnit.MILLISECONDS,
-                5
-        ).name("InfluxDB Purge");
+        // Deletes share InfluxDB with the telemetry writers, so they get a small, fixed share of it
+        deletionStream
+                .keyBy(DeviceDeleteEvent::getDeviceId)
+                .process(new InfluxDbDeleteSink(params))
+                .setParallelism(params.getInt(INFLUX_PURGE_PARALLELISM, 1))
+                .name("InfluxDB Purge");
 
         env.execute("IoT Data Processing Pipeline");
     }
 
     // --- Helpers ---
+
+    public static void configureEnvironment(StreamExecutionEnvironment env, ParameterTool params) {
+        // --- Reliability Settings ---
+        env.getConfig().setGlobalJobParameters(params);
+
+        env.getConfig().enableObjectReuse();
+
+        // Checkpointing
+        env.enableCheckpointing(params.getLong(CHECKPOINT_INTERVAL_MS, 60000L));
+        env.getCheckpointConfig().setCheckpointingMode(CheckpointingMode.EXACTLY_ONCE);
+        env.getCheckpointConfig().setCheckpointStorage(params.get(CHECKPOINT_STORAGE, "file:///tmp/flink-checkpoints"));
+        env.getCheckpointConfig().setExternalizedCheckpointCleanup(CheckpointConfig.ExternalizedCheckpointCleanup.RETAIN_ON_CANCELLATION);
+
+        // Restart Strategy
+        env.setRestartStrategy(RestartStrategies.exponentialDelayRestart(
+                Time.seconds(2), Time.seconds(60), 1.5, Time.minutes(10), 0.1
+        ));
+
+        if (params.has("flink.parallelism")) {
+            env.setParallelism(params.getInt("flink.parallelism"));
+        }
+        // Pins the key group count, which the bridge has to agree on in pre-keyed mode
+        if (params.has("flink.max.parallelism")) {
+            env.setMaxParallelism(params.getInt("flink.max.parallelism"));
+        }
+    }
+
+    /**
+     * For control streams that are connected to telemetry: always reports the maximum watermark, so
+     * the telemetry input alone decides event time downstream of the connection.
+     */
+    public static <T> WatermarkStrategy<T> controlStreamWatermarks() {
+        return WatermarkStrategy.forGenerator(ctx -> new WatermarkGenerator<T>() {
+            @Override
+            public void onEvent(T event, long eventTimestamp, WatermarkOutput output) {
+            }
+
+            @Override
+            public void onPeriodicEmit(WatermarkOutput output) {
+                output.emitWatermark(new Watermark(Long.MAX_VALUE));
+            }
+        });
+    }
+
+    /**
+     * Event time comes from the reading itself; rejected records, including readings dated more than
+     * {@code telemetry.max.future.skew.ms} ahead, keep their Kafka timestamp.
+     * Per-partition watermarks are generated inside the source, idle partitions stop holding them back.
+     */
+    public static WatermarkStrategy<TelemetryRecord> telemetryWatermarks(ParameterTool params) {
+        return WatermarkStrategy
+                .<TelemetryRecord>forBoundedOutOfOrderness(Duration.ofMillis(params.getLong(TELEMETRY_OUT_OF_ORDERNESS_MS, 30_000L)))
+                .withTimestampAssigner((record, kafkaTimestamp) ->
+                        record.isValid() ? record.getEvent().getTimestamp().toEpochMilli() : kafkaTimestamp)
+                .withIdleness(Duration.ofMillis(params.getLong(TELEMETRY_SOURCE_IDLENESS_MS, 60_000L)));
+    }
+
+    /**
+     * Builds the telemetry topology from decoded records up to and including the InfluxDB writers.
+     * Kafka sinks are attached by the caller, so the same topology runs against test sources and sinks.
+     */
+    public static TelemetryOutputs buildTelemetryPipeline(DataStream<TelemetryRecord> rawTelemetryStream,
+                                                          DataStream<DeviceLifecycleEvent> lifecycleStream,
+                                                          DataStream<DeviceRateLimit> rateLimitStream,
+                                                          ParameterTool params) {
+        // Step 1: Validate JSON / binary (parsed and checked in the source deserializer)
+        SingleOutputStreamOperator<TelemetryEvent> validatedStream = rawTelemetryStream
+                .process(new TelemetryValidator())
+                .name("Validate JSON");
+
+        // Step 1b: Drop telemetry of deactivated / purged devices before any state or sink sees it
+        DataStream<TelemetryEvent> activeStream = validatedStream
+                .connect(lifecycleStream.broadcast(REVOKED_DEVICES, PURGED_DEVICES))
+                .process(new RevokedDeviceFilter(
+                        params.getLong(TELEMETRY_PURGED_REVOCATION_TTL_MS, Duration.ofDays(7).toMillis())))
+                .name("Revoked Device Filter");
+
+        // The validator is chained to the source and the revoked device filter reads it over a FORWARD edge
+        // (it cannot chain, being two-input), so in pre-keyed mode a reading is still on the subtask that
+        // read its Kafka partition; the check diverts it if that is not the subtask owning its key group
+        boolean prekeyed = params.getBoolean(TELEMETRY_SOURCE_PREKEYED, false);
+        DataStream<TelemetryEvent> misroutedStream = null;
+        if (prekeyed) {
+            SingleOutputStreamOperator<TelemetryEvent> checkedStream = activeStream
+                    .process(new DevicePartitioningCheck())
+                    .name("Partitioning Check");
+            activeStream = checkedStream;
+            misroutedStream = checkedStream.getSideOutput(MISROUTED_EVENTS_TAG);
+        }
+
+        // Step 1c: Per-device token bucket, so one flooding device cannot slow down writes for the fleet
+        SingleOutputStreamOperator<TelemetryEvent> limitedStream = keyByDevice(activeStream, prekeyed)
+                .connect(rateLimitStream.broadcast(RATE_LIMIT_OVERRIDES))
+                .process(new DeviceRateLimiter(
+                        params.getDouble(TELEMETRY_RATELIMIT_EVENTS_PER_SECOND, 5.0),
+                        params.getInt(TELEMETRY_RATELIMIT_BURST, 20),
+                        params.getInt(TELEMETRY_RATELIMIT_SAMPLE_EVERY, 100),
+                        params.getLong(TELEMETRY_RATELIMIT_STATE_TTL_MS, 600_000L)))
+                .name("Rate Limiter");
+
+        // Step 2: Drop replayed duplicates, divert late readings (device buffers flushed after reconnect)
+        SingleOutputStreamOperator<TelemetryEvent> dedupedStream = keyByDevice(limitedStream, prekeyed)
+                .process(new TelemetryDeduplicator(params.getLong(TELEMETRY_DEDUP_TTL_MS, 600_000L)))
+                .name("Deduplicate");
+
+        // Step 2b: Drop unchanged readings (deadband + keep-alive) before storage and fan-out;
+        // rollups below still see every reading so their count and mean stay exact
+        DataStream<TelemetryEvent> changedStream = dedupedStream;
+        if (params.getBoolean(TELEMETRY_DEADBAND_ENABLED, true)) {
+            changedStream = keyByDevice(dedupedStream, prekeyed)
+                    .process(new TelemetryDeadbandFilter(
+                            params.getDouble(TELEMETRY_DEADBAND_TEMPERATURE, 0.0),
+                            params.getLong(TELEMETRY_KEEPALIVE_MS, 60_000L)))
+                    .name("Deadband Filter");
+        }
+
+        // Step 2c: Split off buffered history flushed by reconnecting devices, so a reconnect storm
+        // cannot queue live readings behind it on the way to InfluxDB and the dashboards. Most of such a
+        // backlog is already behind the watermark when it arrives, so the late readings are stored through
+        // the backfill writer as well; they skip the deadband filter, which compares against newer readings
+        DataStream<TelemetryEvent> realtimeStream = changedStream;
+        if (params.getBoolean(TELEMETRY_BACKFILL_ENABLED, true)) {
+            SingleOutputStreamOperator<TelemetryEvent> routedStream = changedStream
+                    .process(new BackfillRouter(params.getLong(TELEMETRY_BACKFILL_LAG_MS, 60_000L)))
+                    .name("Backfill Router");
+            realtimeStream = routedStream;
+
+            DataStream<LineProtocolBatch> backfillBatches = routedStream.getSideOutput(BACKFILL_EVENTS_TAG)
+                    .union(dedupedStream.getSideOutput(LATE_EVENTS_TAG))
+                    .transform("InfluxDB Backfill Batcher",
+                            TypeInformation.of(LineProtocolBatch.class),
+                            new InfluxBatchOperator<>(
+                                    TelemetryLineProtocolEncoder::encode,
+                                    params.getInt(INFLUX_BATCH_SIZE, 500),
+                                    params.getLong(INFLUX_BATCH_LINGER_MS, 1000L)))
+                    .setParallelism(params.getInt(TELEMETRY_BACKFILL_PARALLELISM, 1));
+
+            writeToInflux(backfillBatches, params, params.getRequired(INFLUX_BUCKET),
+                    params.getInt(INFLUX_BACKFILL_ASYNC_CAPACITY, 5),
+                    "InfluxDB Backfill Writer", "InfluxDB Backfill Spill");
+        }
+
+        // Step 3: Write to InfluxDB (Batched per subtask, Async, Non-blocking)
+        int influxCapacity = params.getInt(INFLUX_ASYNC_CAPACITY, 20);
+
+        DataStream<LineProtocolBatch> influxBatches = realtimeStream
+                .transform("InfluxDB Batcher",
+                        TypeInformation.of(LineProtocolBatch.class),
+                        new InfluxBatchOperator<>(
+                                TelemetryLineProtocolEncoder::encode,
+                                params.getInt(INFLUX_BATCH_SIZE, 500),
+                                params.getLong(INFLUX_BATCH_LINGER_MS, 1000L)));
+
+        writeToInflux(influxBatches, params, params.getRequired(INFLUX_BUCKET), influxCapacity,
+                "InfluxDB Writer", "InfluxDB Spill");
+
+        // Step 3b: Rollups (1m -> 5m -> 15m per device, event time) for history queries
+        if (params.getBoolean(TELEMETRY_ROLLUP_ENABLED, true)) {
+            int rollupCapacity = params.getInt(INFLUX_ROLLUP_ASYNC_CAPACITY, 5);
+
+            DataStream<LineProtocolBatch> rollupBatches = buildRollups(dedupedStream, prekeyed)
+                    .transform("Rollup Batcher",
+                            TypeInformation.of(LineProtocolBatch.class),
+                            new InfluxBatchOperator<>(
+                                    RollupLineProtocolEncoder::encode,
+                                    params.getInt(INFLUX_BATCH_SIZE, 500),
+                                    params.getLong(INFLUX_BATCH_LINGER_MS, 1000L)));
+
+            writeToInflux(rollupBatches, params, rollupBucket(params), rollupCapacity,
+                    "InfluxDB Rollup Writer", "InfluxDB Rollup Spill");
+        }
+
+        // Step 4: Presence (ONLINE/OFFLINE transitions)
+        // Late readings still prove the device is alive, so presence reads before dedup
+        DataStream<DevicePresenceEvent> presence = keyByDevice(activeStream, prekeyed)
+                .process(new DevicePresenceDetector(params.getLong(TELEMETRY_PRESENCE_TIMEOUT_MS, 30_000L)))
+                .name("Presence Detector");
+
+        return new TelemetryOutputs(
+                validatedStream.getSideOutput(INVALID_EVENTS_TAG),
+                dedupedStream.getSideOutput(LATE_EVENTS_TAG),
+                limitedStream.getSideOutput(RATE_LIMITED_EVENTS_TAG),
+                realtimeStream,
+                presence,
+                misroutedStream);
+    }
+
+    /**
+     * Keys telemetry by device. In pre-keyed mode the stream is only reinterpreted as keyed, which
+     * skips the network shuffle but requires every reading to already be on the subtask that owns its
+     * key group, see {@link DevicePartitioningCheck}.
+     */
+    private static KeyedStream<TelemetryEvent, String> keyByDevice(DataStream<TelemetryEvent> stream, boolean prekeyed) {
+        return prekeyed
+                ? DataStreamUtils.reinterpretAsKeyedStream(stream, TelemetryEvent::getDeviceId, Types.STRING)
+                : stream.keyBy(TelemetryEvent::getDeviceId);
+    }
+
+    /**
+     * Builds the rollup tiers. Only the 1m tier reads raw events; 5m and 15m merge the tier below,
+     * which is exact because rollups carry sum and count rather than the mean.
+     * Expects event timestamps and watermarks to be assigned upstream. In pre-keyed mode every tier reads
+     * its input on the subtask that owns the device, so none of them shuffles.
+     */
+    static DataStream<TelemetryRollup> buildRollups(DataStream<TelemetryEvent> events, boolean prekeyed) {
+        SingleOutputStreamOperator<TelemetryRollup> oneMinute = keyByDevice(events, prekeyed)
+                .window(tumblingMinutes(1))
+                .aggregate(new TelemetryRollupFunctions.EventAggregate(), new TelemetryRollupFunctions.WindowFinalizer("1m"))
+                .name("Rollup 1m");
+
+        SingleOutputStreamOperator<TelemetryRollup> fiveMinutes = keyRollupsByDevice(oneMinute, prekeyed)
+                .window(tumblingMinutes(5))
+                .aggregate(new TelemetryRollupFunctions.RollupAggregate(), new TelemetryRollupFunctions.WindowFinalizer("5m"))
+                .name("Rollup 5m");
+
+        SingleOutputStreamOperator<TelemetryRollup> fifteenMinutes = keyRollupsByDevice(fiveMinutes, prekeyed)
+                .window(tumblingMinutes(15))
+                .aggregate(new TelemetryRollupFunctions.RollupAggregate(), new TelemetryRollupFunctions.WindowFinalizer("15m"))
+                .name("Rollup 15m");
+
+        return oneMinute.union(fiveMinutes, fifteenMinutes);
+    }
+
+    private static KeyedStream<TelemetryRollup, String> keyRollupsByDevice(DataStream<TelemetryRollup> rollups, boolean prekeyed) {
+        return prekeyed
+                ? DataStreamUtils.reinterpretAsKeyedStream(rollups, TelemetryRollup::getDeviceId, Types.STRING)
+                : rollups.keyBy(TelemetryRollup::getDeviceId);
+    }
+
+    private static TumblingEventTimeWindows tumblingMinutes(long minutes) {
+        // Flink 1.18 window assigners still take the streaming Time class, not api.common.time.Time
+        return TumblingEventTimeWindows.of(org.apache.flink.streaming.api.windowing.time.Time.minutes(minutes));
+    }
+
+    /**
+     * Writes batches to the bucket with retries. With spilling enabled, batches that still fail are
+     * handed to an {@link InfluxSpillOperator} instead of failing the job. The writer and the spill
+     * operator run at the parallelism of {@code batches}.
+     */
+    private static void writeToInflux(DataStream<LineProtocolBatch> batches, ParameterTool params, String bucket,
+                                      int capacity, String writerName, String spillName) {
+        boolean spillEnabled = params.getBoolean(INFLUX_SPILL_ENABLED, true);
+
+        SingleOutputStreamOperator<LineProtocolBatch> unwritten = AsyncDataStream.unorderedWaitWithRetry(
+                batches,
+                new InfluxDbSinkFunction(params, bucket, capacity, spillEnabled),
+                params.getLong(INFLUX_ASYNC_TIMEOUT_MS, 30_000L), TimeUnit.MILLISECONDS, // Covers all attempts of a batch
+                capacity, // Concurrent requests, including ones waiting to retry
+                new JitteredBackoffRetryStrategy<>(
+                        params.getInt(INFLUX_WRITE_MAX_RETRIES, 2),
+                        params.getLong(INFLUX_WRITE_BACKOFF_INITIAL_MS, 200L),
+                        params.getLong(INFLUX_WRITE_BACKOFF_MAX_MS, 5000L),
+                        params.getDouble(INFLUX_WRITE_BACKOFF_JITTER, 0.5))
+        ).name(writerName).setParallelism(batches.getParallelism());
+
+        if (spillEnabled) {
+            unwritten.transform(spillName, Types.VOID, new InfluxSpillOperator(
+                    params.getRequired(INFLUX_URL),
+                    params.getRequired(INFLUX_TOKEN),
+                    params.getRequired(INFLUX_ORG),
+                    bucket,
+                    params.getLong(INFLUX_WRITE_REQUEST_TIMEOUT_MS, 5000L),
+                    params.getInt(INFLUX_SPILL_SEGMENT_BYTES, 16 * 1024 * 1024),
+                    params.getLong(INFLUX_SPILL_MAX_BYTES, 1024L * 1024 * 1024),
+                    params.getLong(INFLUX_SPILL_CHECKPOINT_MAX_BYTES, 64L * 1024 * 1024),
+                    params.getInt(INFLUX_SPILL_REPLAY_BATCHES_PER_SECOND, 10),
+                    params.getLong(INFLUX_SPILL_RETRY_INTERVAL_MS, 5000L)))
+                    .setParallelism(batches.getParallelism());
+        }
+    }
+
+    // Defaults to the long-retention bucket docker/influxdb/init-rollup-bucket.sh creates next to the raw one
+    private static String rollupBucket(ParameterTool params) {
+        return params.get(INFLUX_ROLLUP_BUCKET, params.getRequired(INFLUX_BUCKET) + "-rollups");
+    }
+
     private static Properties createKafkaProperties(ParameterTool params) {
         Properties props = new Properties();
         props.setProperty("bootstrap.servers", params.getRequired(KAFKA_BROKERS));
@@ -235,207 +660,761 @@ public class DataProcessingJob {
         return props;
     }
 
-    private static KafkaSink<String> createKafkaSink(String topic, Properties props) {
-        return KafkaSink.<String>builder()
-                .setKafkaProducerConfig(props)
-                .setRecordSerializer(KafkaRecordSerializationSchema.builder()
-                        .setTopic(topic)
-                        .setValueSerializationSchema(new SimpleStringSchema())
-                        .build())
-                .build();
-    }
-
     // --- Functions ---
 
     /**
-     * Simply validates JSON. If invalid -> DLQ. If OK -> proceed.
+     * Streams of the telemetry topology that leave the job: rejected records for the DLQ, late readings
+     * (missing from rollups and the processed topic, though still stored when backfill is enabled),
+     * a sample of rate-limited readings, deduplicated real-time events that passed the deadband filter
+     * for the processed topic, presence transitions and, in pre-keyed mode only, readings that arrived on
+     * a subtask that does not own their device ({@code null} otherwise).
      */
-    public static class TelemetryValidator extends ProcessFunction<String, TelemetryEvent> {
-        private transient ObjectMapper objectMapper;
+    @Getter
+    @AllArgsConstructor
+    public static class TelemetryOutputs {
+        private final DataStream<TelemetryRecord> invalid;
+        private final DataStream<TelemetryEvent> late;
+        private final DataStream<TelemetryEvent> rateLimited;
+        private final DataStream<TelemetryEvent> processed;
+        private final DataStream<DevicePresenceEvent> presence;
+        private final DataStream<TelemetryEvent> misrouted;
+    }
+
+    /**
+     * Routes decoded telemetry: valid events proceed, rejected records go to the DLQ side output.
+     */
+    public static class TelemetryValidator extends ProcessFunction<TelemetryRecord, TelemetryEvent> {
         private transient Counter validCounter;
         private transient Counter invalidCounter;
 
         @Override
         public void open(Configuration parameters) {
-            objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
             validCounter = getRuntimeContext().getMetricGroup().counter("telemetry_valid");
             invalidCounter = getRuntimeContext().getMetricGroup().counter("telemetry_invalid");
         }
 
         @Override
-        public void processElement(String value, Context ctx, Collector<TelemetryEvent> out) {
-            try {
-                TelemetryEvent event = objectMapper.readValue(value, TelemetryEvent.class);
-
-                if (event == null || !event.isValid()) {
-                    invalidCounter.inc();
-                    ctx.output(INVALID_EVENTS_TAG, value);
-                    return;
-                }
-
-                validCounter.inc();
-                out.collect(event);
-
-            } catch (Exception e) {
+        public void processElement(TelemetryRecord value, Context ctx, Collector<TelemetryEvent> out) {
+            if (!value.isValid()) {
                 invalidCounter.inc();
                 ctx.output(INVALID_EVENTS_TAG, value);
+                return;
             }
+
+            validCounter.inc();
+            out.collect(value.getEvent());
         }
     }
 
     /**
-     * Writes to InfluxDB asynchronously using a dedicated thread pool.
-     * Closes resources correctly.
+     * Drops telemetry from devices whose latest lifecycle event revokes them. The revoked sets are broadcast
+     * state, so every subtask holds all revoked IDs and filtering needs no shuffle. A reading that
+     * races ahead of its revocation still passes; the purge that follows a revocation removes it.
+     * <p>
+     * A purged device stays revoked for {@code purgedTtlMs} after its purge, so telemetry replayed from
+     * before it, e.g. from Kafka or a device buffer, cannot re-create the deleted points; the default covers
+     * Kafka's default retention. Expired purges are swept by the time of each later lifecycle event rather
+     * than the wall clock, so every subtask evicts the same entries and the sets stay bounded by the
+     * deactivated devices plus the purges within the TTL.
      */
-    public static class InfluxDbSinkFunction extends RichAsyncFunction<TelemetryEvent, Void> {
-        private transient InfluxDBClient client;
-        private transient WriteApiBlocking writeApi;
-        private transient ExecutorService executor;
-        private final ParameterTool params;
-        private transient Counter successCounter;
-        private transient Counter failureCounter;
+    public static class RevokedDeviceFilter extends BroadcastProcessFunction<TelemetryEvent, DeviceLifecycleEvent, TelemetryEvent> {
+        private final long purgedTtlMs;
+        private transient Counter droppedCounter;
 
-        public InfluxDbSinkFunction(ParameterTool params) { this.params = params; }
+        public RevokedDeviceFilter(long purgedTtlMs) {
+            if (purgedTtlMs < 0) throw new IllegalArgumentException("purgedTtlMs must not be negative");
+            this.purgedTtlMs = purgedTtlMs;
+        }
 
         @Override
         public void open(Configuration parameters) {
-            String url = params.getRequired(INFLUX_URL);
-            String token = params.getRequired(INFLUX_TOKEN);
-            String org = params.getRequired(INFLUX_ORG);
-            String bucket = params.getRequired(INFLUX_BUCKET);
+            droppedCounter = getRuntimeContext().getMetricGroup().counter("telemetry_revoked_dropped");
+        }
+
+        @Override
+        public void processElement(TelemetryEvent event, ReadOnlyContext ctx, Collector<TelemetryEvent> out) throws Exception {
+            if (ctx.getBroadcastState(REVOKED_DEVICES).contains(event.getDeviceId())
+                    || ctx.getBroadcastState(PURGED_DEVICES).contains(event.getDeviceId())) {
+                droppedCounter.inc();
+                return;
+            }
+            out.collect(event);
+        }
+
+        @Override
+        public void processBroadcastElement(DeviceLifecycleEvent event, Context ctx, Collector<TelemetryEvent> out) throws Exception {
+            BroadcastState<String, Long> revoked = ctx.getBroadcastState(REVOKED_DEVICES);
+            BroadcastState<String, Long> purged = ctx.getBroadcastState(PURGED_DEVICES);
+            long time = event.getTime() == null ? 0L : event.getTime();
+            if (event.getTime() != null) {
+                expirePurges(purged, time);
+            }
 
-            client = InfluxDBClientFactory.create(url, token.toCharArray(), org, bucket);
-            writeApi = client.getWriteApiBlocking();
-            executor = Executors.newFixedThreadPool(20);
+            if (event.isPurge()) {
+                revoked.remove(event.getDeviceId());
+                purged.put(event.getDeviceId(), time + purgedTtlMs);
+            } else if (event.isRevocation()) {
+                revoked.put(event.getDeviceId(), time);
+                purged.remove(event.getDeviceId());
+            } else {
+                revoked.remove(event.getDeviceId());
+                purged.remove(event.getDeviceId());
+            }
+        }
 
-            successCounter = getRuntimeContext().getMetricGroup().counter("influx_writes_success");
-            failureCounter = getRuntimeContext().getMetricGroup().counter("influx_writes_failed");
+        private static void expirePurges(BroadcastState<String, Long> purged, long now) throws Exception {
+            List<String> expired = new ArrayList<>();
+            for (Map.Entry<String, Long> entry : purged.entries()) {
+                if (entry.getValue() <= now) expired.add(entry.getKey());
+            }
+            for (String deviceId : expired) {
+                purged.remove(deviceId);
+            }
         }
+    }
+
+    /**
+     * Guards the pre-keyed mode: a reading that arrives on a subtask other than the one Flink's key group
+     * assignment gives its deviceId goes to {@link #MISROUTED_EVENTS_TAG} instead of the keyed operators,
+     * where it would split the device's state across subtasks. The bridge has to pick Kafka partitions
+     * accordingly and the topic needs as many partitions as the job has parallelism; a plain keyed
+     * producer, a rescaled job or a repartitioned topic all break the contract. The job keeps running
+     * either way, since failing would replay the same record from the checkpoint forever; watch the
+     * {@code telemetry_misrouted} counter and the misrouted topic instead.
+     */
+    public static class DevicePartitioningCheck extends ProcessFunction<TelemetryEvent, TelemetryEvent> {
+        private transient int maxParallelism;
+        private transient int parallelism;
+        private transient int subtask;
+        private transient Counter misroutedCounter;
 
         @Override
-        public void close() {
-            if (executor != null) {
-                executor.shutdown();
-                try {
-                    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
-                        LOG.warn("Executor did not terminate gracefully, forcing shutdown");
-                        executor.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
-                    executor.shutdownNow();
-                    Thread.currentThread().interrupt();
+        public void open(Configuration parameters) {
+            maxParallelism = getRuntimeContext().getMaxNumberOfParallelSubtasks();
+            parallelism = getRuntimeContext().getNumberOfParallelSubtasks();
+            subtask = getRuntimeContext().getIndexOfThisSubtask();
+            misroutedCounter = getRuntimeContext().getMetricGroup().counter("telemetry_misrouted");
+        }
+
+        @Override
+        public void processElement(TelemetryEvent event, Context ctx, Collector<TelemetryEvent> out) {
+            int owner = KeyGroupRangeAssignment.assignKeyToParallelOperator(event.getDeviceId(), maxParallelism, parallelism);
+            if (owner != subtask) {
+                // Logged once per subtask: a broken partitioning misroutes a large share of all readings
+                if (misroutedCounter.getCount() == 0) {
+                    LOG.error("Device {} was read by subtask {}, but its key group belongs to subtask {} "
+                                    + "(parallelism {}, max parallelism {}); the raw topic is not partitioned for {}",
+                            event.getDeviceId(), subtask, owner, parallelism, maxParallelism, TELEMETRY_SOURCE_PREKEYED);
                 }
+                misroutedCounter.inc();
+                ctx.output(MISROUTED_EVENTS_TAG, event);
+                return;
             }
-            if (client != null) client.close();
+            out.collect(event);
+        }
+    }
+
+    /**
+     * Sends readings whose event time lags processing time by more than {@code lagMs} to
+     * {@link #BACKFILL_EVENTS_TAG}: history a device buffered while offline and flushes on reconnect,
+     * or a backlog the job replays after a restart. Everything else is real-time.
+     */
+    public static class BackfillRouter extends ProcessFunction<TelemetryEvent, TelemetryEvent> {
+        private final long lagMs;
+        private transient Counter backfillCounter;
+
+        public BackfillRouter(long lagMs) {
+            this.lagMs = lagMs;
         }
 
         @Override
-        public void asyncInvoke(TelemetryEvent event, ResultFuture<Void> resultFuture) {
-            CompletableFuture.runAsync(() -> writeWithRetry(event, resultFuture), executor);
+        public void open(Configuration parameters) {
+            backfillCounter = getRuntimeContext().getMetricGroup().counter("telemetry_backfill");
         }
 
-        private void writeWithRetry(TelemetryEvent event, ResultFuture<Void> resultFuture) {
-            Point point = createTelemetryPoint(event);
-            int maxRetries = 3;
+        @Override
+        public void processElement(TelemetryEvent event, Context ctx, Collector<TelemetryEvent> out) {
+            if (ctx.timerService().currentProcessingTime() - event.getTimestamp().toEpochMilli() > lagMs) {
+                backfillCounter.inc();
+                ctx.output(BACKFILL_EVENTS_TAG, event);
+                return;
+            }
+            out.collect(event);
+        }
+    }
 
-            for (int attempt = 0; attempt < maxRetries; attempt++) {
-                try {
-                    writeApi.writePoint(point);
-                    successCounter.inc();
-                    resultFuture.complete(Collections.emptyList());
-                    return;
-                } catch (Exception e) {
-                    if (isLastAttempt(attempt, maxRetries)) {
-                        failureCounter.inc();
-                        LOG.error("Failed to write to InfluxDB after {} attempts", maxRetries, e);
-                        resultFuture.completeExceptionally(e);
-                    } else {
-                        performBackoff(attempt);
-                    }
-                }
+    /**
+     * Caps how fast each device may send. Keyed by deviceId, every reading takes a token from the device's
+     * {@link TokenBucket}, which holds {@code burst} tokens and refills at {@code eventsPerSecond} of
+     * processing time, never of the device-supplied reading time; overrides for single devices arrive as
+     * broadcast state. Refused readings are dropped and counted, and every {@code sampleEvery}-th refusal of
+     * a device, starting with the first, goes to {@link #RATE_LIMITED_EVENTS_TAG}. An idle bucket is full
+     * again after {@code burst / eventsPerSecond}, so expiring it after {@code stateTtlMs} of silence only
+     * matters for very low limits.
+     */
+    public static class DeviceRateLimiter
+            extends KeyedBroadcastProcessFunction<String, TelemetryEvent, DeviceRateLimit, TelemetryEvent> {
+        private final double eventsPerSecond;
+        private final int burst;
+        private final int sampleEvery;
+        private final long stateTtlMs;
+        private transient ValueState<TokenBucket> bucketState;
+        private transient Counter limitedCounter;
+        private transient Counter sampledCounter;
+
+        public DeviceRateLimiter(double eventsPerSecond, int burst, int sampleEvery, long stateTtlMs) {
+            if (eventsPerSecond <= 0) throw new IllegalArgumentException("eventsPerSecond must be positive");
+            if (burst < 1) throw new IllegalArgumentException("burst must be at least 1");
+            if (sampleEvery < 1) throw new IllegalArgumentException("sampleEvery must be at least 1");
+            this.eventsPerSecond = eventsPerSecond;
+            this.burst = burst;
+            this.sampleEvery = sampleEvery;
+            this.stateTtlMs = stateTtlMs;
+        }
+
+        @Override
+        public void open(Configuration parameters) {
+            StateTtlConfig ttlConfig = StateTtlConfig.newBuilder(Time.milliseconds(stateTtlMs))
+                    .setUpdateType(StateTtlConfig.UpdateType.OnCreateAndWrite)
+                    .setStateVisibility(StateTtlConfig.StateVisibility.NeverReturnExpired)
+                    .cleanupIncrementally(10, false)
+                    .build();
+
+            ValueStateDescriptor<TokenBucket> descriptor =
+                    new ValueStateDescriptor<>("token-bucket", TypeInformation.of(TokenBucket.class));
+            descriptor.enableTimeToLive(ttlConfig);
+            bucketState = getRuntimeContext().getState(descriptor);
+
+            limitedCounter = getRuntimeContext().getMetricGroup().counter("telemetry_rate_limited");
+            sampledCounter = getRuntimeContext().getMetricGroup().counter("telemetry_rate_limited_sampled");
+        }
+
+        @Override
+        public void processElement(TelemetryEvent event, ReadOnlyContext ctx, Collector<TelemetryEvent> out) throws Exception {
+            DeviceRateLimit override = ctx.getBroadcastState(RATE_LIMIT_OVERRIDES).get(ctx.getCurrentKey());
+            double rate = override != null ? override.getEventsPerSecond() : eventsPerSecond;
+            int capacity = override != null && override.getBurst() != null ? Math.max(1, override.getBurst()) : burst;
+            long now = ctx.timerService().currentProcessingTime();
+
+            TokenBucket bucket = bucketState.value();
+            if (bucket == null) {
+                bucket = TokenBucket.full(capacity, now);
             }
+            boolean admitted = bucket.tryAcquire(now, rate, capacity);
+            bucketState.update(bucket);
+
+            if (admitted) {
+                out.collect(event);
+                return;
+            }
+
+            limitedCounter.inc();
+            if ((bucket.getRejected() - 1) % sampleEvery == 0) {
+                sampledCounter.inc();
+                ctx.output(RATE_LIMITED_EVENTS_TAG, event);
+            }
+        }
+
+        @Override
+        public void processBroadcastElement(DeviceRateLimit limit, Context ctx, Collector<TelemetryEvent> out) throws Exception {
+            if (limit.getEventsPerSecond() != null && limit.getEventsPerSecond() > 0) {
+                ctx.getBroadcastState(RATE_LIMIT_OVERRIDES).put(limit.getDeviceId(), limit);
+            } else {
+                ctx.getBroadcastState(RATE_LIMIT_OVERRIDES).remove(limit.getDeviceId());
+            }
+        }
+    }
+
+    /**
+     * Drops readings whose (deviceId, timestamp) was already seen within the TTL, and routes readings
+     * behind the watermark to {@link #LATE_EVENTS_TAG}. Keyed by deviceId, the seen timestamps live in
+     * a TTL'd map so state stays bounded by the replay horizon rather than growing per device forever.
+     */
+    public static class TelemetryDeduplicator extends KeyedProcessFunction<String, TelemetryEvent, TelemetryEvent> {
+        private final long ttlMs;
+        private transient MapState<Long, Boolean> seenTimestamps;
+        private transient Counter duplicateCounter;
+        private transient Counter lateCounter;
+
+        public TelemetryDeduplicator(long ttlMs) {
+            this.ttlMs = ttlMs;
         }
 
-        private Point createTelemetryPoint(TelemetryEvent event) {
-            int heatingStatus = Boolean.TRUE.equals(event.getData().getHeatingStatus()) ? 1 : 0;
+        @Override
+        public void open(Configuration parameters) {
+            StateTtlConfig ttlConfig = StateTtlConfig.newBuilder(Time.milliseconds(ttlMs))
+                    .setUpdateType(StateTtlConfig.UpdateType.OnCreateAndWrite)
+                    .setStateVisibility(StateTtlConfig.StateVisibility.NeverReturnExpired)
+                    .cleanupIncrementally(10, false)
+                    .build();
+
+            MapStateDescriptor<Long, Boolean> descriptor =
+                    new MapStateDescriptor<>("seen-timestamps", Types.LONG, Types.BOOLEAN);
+            descriptor.enableTimeToLive(ttlConfig);
+            seenTimestamps = getRuntimeContext().getMapState(descriptor);
+
+            duplicateCounter = getRuntimeContext().getMetricGroup().counter("telemetry_duplicates");
+            lateCounter = getRuntimeContext().getMetricGroup().counter("telemetry_late");
+        }
 
-            Point point = Point.measurement("telemetry")
-                    .addTag("deviceId", event.getDeviceId())
-                    .addField("currentTemperature", event.getData().getCurrentTemperature())
-                    .addField("heatingStatus", heatingStatus)
-                    .time(event.getTimestamp(), WritePrecision.MS);
+        @Override
+        public void processElement(TelemetryEvent event, Context ctx, Collector<TelemetryEvent> out) throws Exception {
+            long timestamp = event.getTimestamp().toEpochMilli();
+            if (seenTimestamps.contains(timestamp)) {
+                duplicateCounter.inc();
+                return;
+            }
+            seenTimestamps.put(timestamp, Boolean.TRUE);
 
-            if (event.getData().getTargetTemperature() != null) {
-                point.addField("targetTemperature", event.getData().getTargetTemperature());
+            if (timestamp <= ctx.timerService().currentWatermark()) {
+                lateCounter.inc();
+                ctx.output(LATE_EVENTS_TAG, event);
+                return;
             }
 
-            return point;
+            out.collect(event);
         }
+    }
 
-        private void performBackoff(int attempt) {
-            try {
-                Thread.sleep(200L * (attempt + 1));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    /**
+     * Drops readings that carry no news. Keyed by deviceId, a reading is suppressed when its
+     * {@code currentTemperature} is within {@code temperatureDeadband} of the last forwarded reading,
+     * target temperature and heating status are unchanged, and less than {@code keepAliveMs} of event
+     * time has passed since that reading. A deadband of 0 therefore forwards every change and drops
+     * exact repeats only, and every device still produces a point at least once per keep-alive.
+     */
+    public static class TelemetryDeadbandFilter extends KeyedProcessFunction<String, TelemetryEvent, TelemetryEvent> {
+        private final double temperatureDeadband;
+        private final long keepAliveMs;
+        private transient ValueState<TelemetryEvent> lastForwarded;
+        private transient Counter forwardedCounter;
+        private transient Counter suppressedCounter;
+
+        public TelemetryDeadbandFilter(double temperatureDeadband, long keepAliveMs) {
+            this.temperatureDeadband = temperatureDeadband;
+            this.keepAliveMs = keepAliveMs;
+        }
+
+        @Override
+        public void open(Configuration parameters) {
+            // Expiry only costs one extra forwarded point for a device that was silent that long
+            StateTtlConfig ttlConfig = StateTtlConfig.newBuilder(Time.milliseconds(2 * keepAliveMs))
+                    .setUpdateType(StateTtlConfig.UpdateType.OnCreateAndWrite)
+                    .setStateVisibility(StateTtlConfig.StateVisibility.NeverReturnExpired)
+                    .cleanupIncrementally(10, false)
+                    .build();
+
+            ValueStateDescriptor<TelemetryEvent> descriptor =
+                    new ValueStateDescriptor<>("last-forwarded", TypeInformation.of(TelemetryEvent.class));
+            descriptor.enableTimeToLive(ttlConfig);
+            lastForwarded = getRuntimeContext().getState(descriptor);
+
+            MetricGroup metrics = getRuntimeContext().getMetricGroup();
+            forwardedCounter = metrics.counter("telemetry_deadband_forwarded");
+            suppressedCounter = metrics.counter("telemetry_deadband_suppressed");
+            metrics.gauge("telemetry_deadband_suppression_ratio", (Gauge<Double>) () -> {
+                long suppressed = suppressedCounter.getCount();
+                long total = suppressed + forwardedCounter.getCount();
+                return total == 0 ? 0.0 : (double) suppressed / total;
+            });
+        }
+
+        @Override
+        public void processElement(TelemetryEvent event, Context ctx, Collector<TelemetryEvent> out) throws Exception {
+            TelemetryEvent last = lastForwarded.value();
+            if (last != null && isWithinDeadband(last, event)) {
+                suppressedCounter.inc();
+                return;
             }
+
+            lastForwarded.update(event);
+            forwardedCounter.inc();
+            out.collect(event);
         }
 
-        private boolean isLastAttempt(int attempt, int maxRetries) {
-            return attempt == maxRetries - 1;
+        private boolean isWithinDeadband(TelemetryEvent last, TelemetryEvent event) {
+            if (event.getTimestamp().toEpochMilli() - last.getTimestamp().toEpochMilli() >= keepAliveMs) {
+                return false;
+            }
+
+            SensorData previous = last.getData();
+            SensorData current = event.getData();
+            return Math.abs(current.getCurrentTemperature() - previous.getCurrentTemperature()) <= temperatureDeadband
+                    && Objects.equals(current.getTargetTemperature(), previous.getTargetTemperature())
+                    && Objects.equals(current.getHeatingStatus(), previous.getHeatingStatus());
         }
     }
 
     /**
-     * Deletes data from InfluxDB upon request (GDPR).
+     * Tracks liveness per device on processing time. The first reading emits ONLINE; a device that
+     * sends nothing for {@code timeoutMs} emits OFFLINE and its state is cleared. Only one timer is
+     * pending per device: when it fires early (the device kept sending) it is re-armed at the new
+     * deadline, so steady traffic costs a state update per reading and no timer churn.
      */
-    public static class InfluxDbDeleteSink extends RichAsyncFunction<DeviceDeleteEvent, Void> {
-        private transient InfluxDBClient client;
-        private transient DeleteApi deleteApi;
-        private transient ExecutorService executor;
-        private final ParameterTool params;
+    public static class DevicePresenceDetector extends KeyedProcessFunction<String, TelemetryEvent, DevicePresenceEvent> {
+        private final long timeoutMs;
+        private transient ValueState<Long> lastSeen;
+        private transient ValueState<Long> pendingTimer;
+        private transient Counter onlineCounter;
+        private transient Counter offlineCounter;
+
+        public DevicePresenceDetector(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
 
-        public InfluxDbDeleteSink(ParameterTool params) { this.params = params; }
+        @Override
+        public void open(Configuration parameters) {
+            lastSeen = getRuntimeContext().getState(new ValueStateDescriptor<>("last-seen", Types.LONG));
+            pendingTimer = getRuntimeContext().getState(new ValueStateDescriptor<>("pending-timer", Types.LONG));
+            onlineCounter = getRuntimeContext().getMetricGroup().counter("presence_online_transitions");
+            offlineCounter = getRuntimeContext().getMetricGroup().counter("presence_offline_transitions");
+        }
 
-        @Override public void open(Configuration c) {
+        @Override
+        public void processElement(TelemetryEvent event, Context ctx, Collector<DevicePresenceEvent> out) throws Exception {
+            long now = ctx.timerService().currentProcessingTime();
+
+            if (lastSeen.value() == null) {
+                onlineCounter.inc();
+                out.collect(new DevicePresenceEvent(ctx.getCurrentKey(), PresenceStatus.ONLINE, Instant.ofEpochMilli(now)));
+            }
+            lastSeen.update(now);
+
+            if (pendingTimer.value() == null) {
+                arm(ctx.timerService(), now + timeoutMs);
+            }
+        }
+
+        @Override
+        public void onTimer(long timestamp, OnTimerContext ctx, Collector<DevicePresenceEvent> out) throws Exception {
+            Long seen = lastSeen.value();
+            if (seen == null) return;
+
+            long deadline = seen + timeoutMs;
+            if (timestamp < deadline) {
+                arm(ctx.timerService(), deadline);
+                return;
+            }
+
+            offlineCounter.inc();
+            out.collect(new DevicePresenceEvent(ctx.getCurrentKey(), PresenceStatus.OFFLINE, Instant.ofEpochMilli(timestamp)));
+            lastSeen.clear();
+            pendingTimer.clear();
+        }
+
+        private void arm(TimerService timerService, long at) throws Exception {
+            timerService.registerProcessingTimeTimer(at);
+            pendingTimer.update(at);
+        }
+    }
+
+    /**
+     * Writes line protocol batches to InfluxDB without blocking a thread per request.
+     * A failed write completes the future exceptionally; retries and their backoff are left to the
+     * async operator's {@link JitteredBackoffRetryStrategy}. With {@code spill} set, a batch that hit
+     * a transient failure or the operator timeout is instead returned as the result, which the
+     * strategy retries and finally passes on to the spill operator.
+     * <p>
+     * The async capacity only caps concurrency: an {@link AimdConcurrencyLimiter} decides how many
+     * requests are actually sent, and batches over the limit wait in a local queue. A {@link CircuitBreaker}
+     * refuses writes after repeated transient failures, so they fail fast into the retry/spill path
+     * instead of adding load to an InfluxDB that is already struggling.
+     */
+    public static class InfluxDbSinkFunction extends RichAsyncFunction<LineProtocolBatch, LineProtocolBatch> {
+        private transient InfluxHttpWriter writer;
+        private transient AimdConcurrencyLimiter limiter;
+        private transient CircuitBreaker circuitBreaker;
+        private transient Deque<PendingWrite> pendingWrites;
+        private final ParameterTool params;
+        private final String bucket;
+        private final int capacity;
+        private final boolean spill;
+        private transient Histogram flushLatencyHistogram;
+        private transient Counter failedWriteCounter;
+        private transient Counter shedCounter;
+
+        public InfluxDbSinkFunction(ParameterTool params, String bucket, int capacity, boolean spill) {
+            this.params = params;
+            this.bucket = bucket;
+            this.capacity = capacity;
+            this.spill = spill;
+        }
+
+        @Override
+        public void open(Configuration parameters) {
             String url = params.getRequired(INFLUX_URL);
             String token = params.getRequired(INFLUX_TOKEN);
             String org = params.getRequired(INFLUX_ORG);
-            String bucket = params.getRequired(INFLUX_BUCKET);
+            Duration requestTimeout = Duration.ofMillis(params.getLong(INFLUX_WRITE_REQUEST_TIMEOUT_MS, 5000L));
+
+            writer = new InfluxHttpWriter(url, token, org, bucket, requestTimeout);
+            limiter = new AimdConcurrencyLimiter(
+                    params.getInt(INFLUX_LIMITER_INITIAL, Math.max(1, capacity / 2)),
+                    params.getInt(INFLUX_LIMITER_MIN, 1),
+                    capacity,
+                    params.getLong(INFLUX_LIMITER_LATENCY_THRESHOLD_MS, 1000L),
+                    params.getDouble(INFLUX_LIMITER_BACKOFF_RATIO, 0.9));
+            circuitBreaker = new CircuitBreaker(
+                    params.getInt(INFLUX_BREAKER_FAILURE_THRESHOLD, 5),
+                    params.getLong(INFLUX_BREAKER_OPEN_MS, 10_000L));
+            pendingWrites = new ArrayDeque<>();
+
+            MetricGroup metrics = getRuntimeContext().getMetricGroup();
+            flushLatencyHistogram = metrics.histogram("influx_flush_latency_ms", new DescriptiveStatisticsHistogram(1000));
+            // Counts failed attempts; a batch that succeeds on retry is counted here as well
+            failedWriteCounter = metrics.counter("influx_write_attempts_failed");
+            shedCounter = metrics.counter("influx_writes_shed");
+            metrics.gauge("influx_concurrency_limit", (Gauge<Integer>) limiter::getLimit);
+            metrics.gauge("influx_in_flight", (Gauge<Integer>) limiter::getInFlight);
+            metrics.gauge("influx_circuit_state", (Gauge<Integer>) () -> circuitBreaker.getState().ordinal());
+            metrics.gauge("influx_circuit_trips", (Gauge<Long>) circuitBreaker::getTrips);
+        }
+
+        @Override
+        public void asyncInvoke(LineProtocolBatch batch, ResultFuture<LineProtocolBatch> resultFuture) {
+            if (!circuitBreaker.allowRequest()) {
+                shedCounter.inc();
+                fail(batch, resultFuture, new CircuitOpenException(bucket));
+                return;
+            }
+
+            synchronized (pendingWrites) {
+                pendingWrites.addLast(new PendingWrite(batch, resultFuture));
+            }
+            sendPending();
+        }
 
-            client = InfluxDBClientFactory.create(url, token.toCharArray(), org, bucket);
-            deleteApi = client.getDeleteApi();
-            executor = Executors.newFixedThreadPool(5);
+        @Override
+        public void timeout(LineProtocolBatch batch, ResultFuture<LineProtocolBatch> resultFuture) throws Exception {
+            // Still queued behind the limiter: it must not be sent after it was retried or spilled.
+            // A write already on the wire finishes normally and its late result is ignored
+            synchronized (pendingWrites) {
+                pendingWrites.removeIf(pending -> pending.resultFuture == resultFuture);
+            }
+            if (spill) {
+                resultFuture.complete(Collections.singletonList(batch));
+            } else {
+                super.timeout(batch, resultFuture);
+            }
         }
 
-        @Override public void close() {
-            if (executor != null) {
-                executor.shutdown();
-                try {
-                    if (!executor.awaitTermination(10, TimeUnit.SECONDS)) executor.shutdownNow();
-                } catch (InterruptedException e) {
-                    executor.shutdownNow();
-                    Thread.currentThread().interrupt();
+        // Runs on the task thread for new batches and on HTTP client threads as permits are released
+        private void sendPending() {
+            while (true) {
+                PendingWrite next;
+                synchronized (pendingWrites) {
+                    if (pendingWrites.isEmpty() || !limiter.tryAcquire()) return;
+                    next = pendingWrites.pollFirst();
                 }
+                send(next.batch, next.resultFuture);
             }
-            if(client!=null) client.close();
         }
 
-        @Override public void asyncInvoke(DeviceDeleteEvent event, ResultFuture<Void> result) {
-            CompletableFuture.runAsync(() -> {
-                try {
-                    String sanitizedId = sanitizeDeviceId(event.getDeviceId());
-                    String predicate = String.format("_measurement=\"telemetry\" AND \"deviceId\"=\"%s\"", sanitizedId);
-                    String bucket = params.getRequired(INFLUX_BUCKET);
-                    String org = params.getRequired(INFLUX_ORG);
-                    deleteApi.delete(OffsetDateTime.parse("1970-01-01T00:00:00Z"), OffsetDateTime.now(), predicate, bucket, org);
-                    result.complete(Collections.emptyList());
-                } catch (Exception e) {
-                    result.completeExceptionally(e);
+        private void send(LineProtocolBatch batch, ResultFuture<LineProtocolBatch> resultFuture) {
+            long start = System.currentTimeMillis();
+
+            writer.write(batch.getLines()).whenComplete((ignored, error) -> {
+                long latencyMs = System.currentTimeMillis() - start;
+                if (error == null) {
+                    limiter.onSuccess(latencyMs);
+                    circuitBreaker.onSuccess();
+                    flushLatencyHistogram.update(latencyMs);
+                    resultFuture.complete(Collections.emptyList());
+                } else {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    limiter.onFailure();
+                    if (JitteredBackoffRetryStrategy.isTransient(cause)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        // InfluxDB answered, so this still resolves a half-open probe
+                        circuitBreaker.onRejected();
+                    }
+                    failedWriteCounter.inc();
+                    LOG.warn("Failed to write batch of {} points to InfluxDB bucket {}: {}",
+                            batch.getPointCount(), bucket, cause.toString());
+                    fail(batch, resultFuture, cause);
                 }
-            }, executor);
+                sendPending();
+            });
         }
 
-        private String sanitizeDeviceId(String deviceId) {
+        private void fail(LineProtocolBatch batch, ResultFuture<LineProtocolBatch> resultFuture, Throwable cause) {
+            if (spill && JitteredBackoffRetryStrategy.isTransient(cause)) {
+                resultFuture.complete(Collections.singletonList(batch));
+            } else {
+                resultFuture.completeExceptionally(cause);
+            }
+        }
+
+        @AllArgsConstructor
+        private static final class PendingWrite {
+            private final LineProtocolBatch batch;
+            private final ResultFuture<LineProtocolBatch> resultFuture;
+        }
+    }
+
+    /**
+     * Deletes a device's data from InfluxDB once it is purged (GDPR). Keyed by deviceId, a PURGE request
+     * is held for {@code coalesceMs} so the duplicates a bulk deactivation or a re-run retention job
+     * produces collapse into one delete. Each delete covers everything the device ever wrote: from the
+     * epoch, since a bucket may keep data forever and devices stamp their own readings, to now plus
+     * {@code stopSlackMs} for devices whose clocks run ahead.
+     * <p>
+     * Deletes are expensive for InfluxDB, so at most {@code maxConcurrent} run per subtask and the rest wait
+     * for a permit; telemetry writes keep their own capacity. A pending request lives in keyed state until
+     * its delete succeeds, and a failed delete is retried after a capped, jittered backoff, so a purge
+     * survives both InfluxDB outages and job restarts. A delete that was in flight when the job failed is
+     * simply issued again; deleting the same range twice is harmless. For the same reason a request
+     * coalesced while its device's delete is in flight just issues one more delete once that one is done,
+     * since points may have been written after the running delete's range was fixed.
+     */
+    public static class InfluxDbDeleteSink extends KeyedProcessFunction<String, DeviceDeleteEvent, Void> {
+        private final ParameterTool params;
+        private transient InfluxHttpDeleter deleter;
+        private transient JitteredBackoffRetryStrategy<Void> backoff;
+        private transient Map<String, CompletableFuture<Void>> inFlight;
+        // Devices with a request coalesced after their running delete was issued
+        private transient Set<String> coalescedInFlight;
+        private transient ValueState<DeviceDeleteEvent> pendingRequest;
+        private transient ValueState<Long> requestedAt;
+        private transient ValueState<Integer> failedAttempts;
+        private transient long coalesceMs;
+        private transient long pollMs;
+        private transient int maxConcurrent;
+        private transient Histogram purgeLatencyHistogram;
+        private transient Counter coalescedCounter;
+        private transient Counter rejectedCounter;
+        private transient Counter succeededCounter;
+        private transient Counter failedAttemptCounter;
+
+        public InfluxDbDeleteSink(ParameterTool params) { this.params = params; }
+
+        @Override
+        public void open(Configuration parameters) {
+            deleter = new InfluxHttpDeleter(
+                    params.getRequired(INFLUX_URL),
+                    params.getRequired(INFLUX_TOKEN),
+                    params.getRequired(INFLUX_ORG),
+                    Duration.ofMillis(params.getLong(INFLUX_PURGE_REQUEST_TIMEOUT_MS, 60_000L)));
+            // Retries never run out here, only the delay between them is taken from the strategy
+            backoff = new JitteredBackoffRetryStrategy<>(Integer.MAX_VALUE,
+                    params.getLong(INFLUX_PURGE_BACKOFF_INITIAL_MS, 5_000L),
+                    params.getLong(INFLUX_PURGE_BACKOFF_MAX_MS, 600_000L),
+                    0.5);
+            inFlight = new HashMap<>();
+            coalescedInFlight = new HashSet<>();
+            coalesceMs = params.getLong(INFLUX_PURGE_COALESCE_MS, 10_000L);
+            pollMs = params.getLong(INFLUX_PURGE_POLL_MS, 1_000L);
+            maxConcurrent = params.getInt(INFLUX_PURGE_ASYNC_CAPACITY, 2);
+
+            pendingRequest = getRuntimeContext().getState(
+                    new ValueStateDescriptor<>("pending-purge", TypeInformation.of(DeviceDeleteEvent.class)));
+            requestedAt = getRuntimeContext().getState(new ValueStateDescriptor<>("purge-requested-at", Types.LONG));
+            failedAttempts = getRuntimeContext().getState(new ValueStateDescriptor<>("purge-failed-attempts", Types.INT));
+
+            MetricGroup metrics = getRuntimeContext().getMetricGroup();
+            // From the first PURGE request to the successful delete, coalescing and retries included
+            purgeLatencyHistogram = metrics.histogram("influx_purge_latency_ms", new DescriptiveStatisticsHistogram(1000));
+            coalescedCounter = metrics.counter("influx_purge_requests_coalesced");
+            rejectedCounter = metrics.counter("influx_purge_requests_rejected");
+            succeededCounter = metrics.counter("influx_purges_succeeded");
+            failedAttemptCounter = metrics.counter("influx_purge_attempts_failed");
+            metrics.gauge("influx_purges_in_flight", (Gauge<Integer>) () -> inFlight.size());
+        }
+
+        @Override
+        public void processElement(DeviceDeleteEvent event, Context ctx, Collector<Void> out) throws Exception {
+            try {
+                sanitizeDeviceId(ctx.getCurrentKey());
+            } catch (RuntimeException e) {
+                rejectedCounter.inc();
+                LOG.warn("Ignoring PURGE request for invalid deviceId: {}", e.getMessage());
+                return;
+            }
+
+            if (pendingRequest.value() != null) {
+                if (inFlight.containsKey(ctx.getCurrentKey())) {
+                    coalescedInFlight.add(ctx.getCurrentKey());
+                }
+                coalescedCounter.inc();
+                return;
+            }
+
+            long now = ctx.timerService().currentProcessingTime();
+            pendingRequest.update(new DeviceDeleteEvent(event.getDeviceId(), event.getAction()));
+            requestedAt.update(now);
+            ctx.timerService().registerProcessingTimeTimer(now + coalesceMs);
+        }
+
+        @Override
+        public void onTimer(long timestamp, OnTimerContext ctx, Collector<Void> out) throws Exception {
+            String deviceId = ctx.getCurrentKey();
+            if (pendingRequest.value() == null) return;
+
+            CompletableFuture<Void> running = inFlight.get(deviceId);
+            if (running == null) {
+                if (inFlight.size() < maxConcurrent) {
+                    coalescedInFlight.remove(deviceId);
+                    inFlight.put(deviceId, purge(deviceId, timestamp));
+                }
+                ctx.timerService().registerProcessingTimeTimer(timestamp + pollMs);
+                return;
+            }
+            if (!running.isDone()) {
+                ctx.timerService().registerProcessingTimeTimer(timestamp + pollMs);
+                return;
+            }
+
+            inFlight.remove(deviceId);
+            try {
+                running.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                int attempts = failedAttempts.value() == null ? 1 : failedAttempts.value() + 1;
+                failedAttempts.update(attempts);
+                failedAttemptCounter.inc();
+
+                // A permanent error will not go away soon either, so it waits the longest backoff
+                long delayMs = backoff.getBackoffTimeMillis(
+                        JitteredBackoffRetryStrategy.isTransient(cause) ? attempts : Integer.MAX_VALUE);
+                LOG.warn("Purging device {} from InfluxDB failed (attempt {}), retrying in {} ms: {}",
+                        deviceId, attempts, delayMs, cause.toString());
+                ctx.timerService().registerProcessingTimeTimer(timestamp + delayMs);
+                return;
+            }
+
+            if (coalescedInFlight.remove(deviceId)) {
+                // Another request came in after this delete was issued; delete again up to the new now
+                failedAttempts.clear();
+                ctx.timerService().registerProcessingTimeTimer(timestamp + pollMs);
+                return;
+            }
+
+            purgeLatencyHistogram.update(timestamp - requestedAt.value());
+            succeededCounter.inc();
+            LOG.info("Purged device {} from InfluxDB", deviceId);
+            pendingRequest.clear();
+            requestedAt.clear();
+            failedAttempts.clear();
+        }
+
+        private CompletableFuture<Void> purge(String deviceId, long now) {
+            String sanitizedId = sanitizeDeviceId(deviceId);
+            Instant stop = Instant.ofEpochMilli(now + params.getLong(INFLUX_PURGE_STOP_SLACK_MS, 86_400_000L));
+
+            List<CompletableFuture<Void>> deletes = new ArrayList<>(2);
+            deletes.add(deleter.delete(params.getRequired(INFLUX_BUCKET), Instant.EPOCH, stop,
+                    String.format("_measurement=\"telemetry\" AND \"deviceId\"=\"%s\"", sanitizedId)));
+            if (params.getBoolean(TELEMETRY_ROLLUP_ENABLED, true)) {
+                // Rollups use one measurement per tier, so match on the device tag only
+                deletes.add(deleter.delete(rollupBucket(params), Instant.EPOCH, stop,
+                        String.format("\"deviceId\"=\"%s\"", sanitizedId)));
+            }
+            return CompletableFuture.allOf(deletes.toArray(new CompletableFuture[0]));
+        }
+
+        public static String sanitizeDeviceId(String deviceId) {
             if (deviceId == null) {
                 throw new IllegalArgumentException("Device ID cannot be null");
             }
@@ -476,17 +1455,4 @@ public class DataProcessingJob {
             return TypeInformation.of(targetClass);
         }
     }
-
-    public static class PojoToJsonMapper<T> extends RichMapFunction<T, String> {
-        private transient ObjectMapper objectMapper;
-        @Override public void open(Configuration c) {
-            objectMapper = new ObjectMapper()
-                    .registerModule(new JavaTimeModule())
-                    .configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        }
-
-        @Override public String map(T value) throws Exception {
-            return objectMapper.writeValueAsString(value);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package data_processing.com.flink.influx;
+
+/**
+ * Additive-increase / multiplicative-decrease limit on concurrent InfluxDB writes.
+ * Each write that completes within {@code latencyThresholdMs} grows the limit by {@code 1 / limit},
+ * so roughly by one per limit's worth of completions. A slower write shrinks it by
+ * {@code latencyBackoffRatio} and a failed one halves it. The limit stays within
+ * {@code [minLimit, maxLimit]}; the async operator's capacity is the natural maximum.
+ * Callers hold a permit between {@link #tryAcquire()} and {@link #onSuccess(long)} or
+ * {@link #onFailure()}. Thread-safe.
+ */
+public class AimdConcurrencyLimiter {
+
+    private static final double FAILURE_BACKOFF_RATIO = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdMs;
+    private final double latencyBackoffRatio;
+
+    private double limit;
+    private int inFlight;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                  long latencyThresholdMs, double latencyBackoffRatio) {
+        if (minLimit <= 0 || maxLimit < minLimit) throw new IllegalArgumentException("need 0 < minLimit <= maxLimit");
+        if (latencyBackoffRatio <= 0 || latencyBackoffRatio >= 1) {
+            throw new IllegalArgumentException("latencyBackoffRatio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdMs = latencyThresholdMs;
+        this.latencyBackoffRatio = latencyBackoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        inFlight--;
+        if (latencyMs > latencyThresholdMs) {
+            limit = Math.max(minLimit, limit * latencyBackoffRatio);
+        } else {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    public synchronized void onFailure() {
+        inFlight--;
+        limit = Math.max(minLimit, limit * FAILURE_BACKOFF_RATIO);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,91 @@
+package data_processing.com.flink.influx;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker for InfluxDB writes.
+ * {@code failureThreshold} failures in a row open the circuit and requests are refused for
+ * {@code openMs}. After that a single probe is let through (half-open): its success closes the
+ * circuit, its failure opens it for another {@code openMs}. A probe the server answers with a permanent
+ * error ({@link #onRejected()}) also closes it: the server is up, the request was bad. Thread-safe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clockMs;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long trips;
+
+    public CircuitBreaker(int failureThreshold, long openMs) {
+        this(failureThreshold, openMs, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clockMs) {
+        if (failureThreshold <= 0) throw new IllegalArgumentException("failureThreshold must be positive");
+        if (openMs <= 0) throw new IllegalArgumentException("openMs must be positive");
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clockMs = clockMs;
+    }
+
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clockMs.getAsLong() - openedAt < openMs) return false;
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * For a request the server answered with a non-retryable error. It neither counts as a failure nor
+     * resets the failure streak, but it proves the server is reachable, so a half-open probe closes the circuit.
+     */
+    public synchronized void onRejected() {
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clockMs.getAsLong();
+            probeInFlight = false;
+            trips++;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized long getTrips() {
+        return trips;
+    }
+}
@@ -0,0 +1,11 @@
+package data_processing.com.flink.influx;
+
+/**
+ * A write refused without a request because the InfluxDB {@link CircuitBreaker} is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException(String bucket) {
+        super("Circuit breaker for InfluxDB bucket " + bucket + " is open");
+    }
+}
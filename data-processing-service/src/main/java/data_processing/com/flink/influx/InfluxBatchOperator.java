@@ -0,0 +1,92 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.LineProtocolBatch;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+
+/**
+ * Buffers points per subtask and emits them as line protocol batches.
+ * Elements are encoded straight into one reused buffer by the given {@link LineProtocolEncoder}.
+ * A batch is emitted when it reaches {@code batchSize} points, when the oldest buffered point
+ * is {@code lingerMs} old, and always right before a checkpoint barrier. The last rule means a
+ * checkpoint never covers points that are still sitting in this buffer: they are either in the
+ * downstream writer (whose in-flight batches are part of the checkpoint) or already in InfluxDB.
+ */
+public class InfluxBatchOperator<T> extends AbstractStreamOperator<LineProtocolBatch>
+        implements OneInputStreamOperator<T, LineProtocolBatch>, BoundedOneInput {
+
+    private final LineProtocolEncoder<T> encoder;
+    private final int batchSize;
+    private final long lingerMs;
+
+    private transient StringBuilder buffer;
+    private transient int bufferedPoints;
+    private transient long firstBufferedAt;
+    private transient Histogram batchSizeHistogram;
+
+    public InfluxBatchOperator(LineProtocolEncoder<T> encoder, int batchSize, long lingerMs) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive");
+        if (lingerMs <= 0) throw new IllegalArgumentException("lingerMs must be positive");
+        this.encoder = encoder;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        setChainingStrategy(ChainingStrategy.ALWAYS);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        buffer = new StringBuilder(batchSize * 128);
+        batchSizeHistogram = getMetricGroup().histogram("influx_batch_size", new DescriptiveStatisticsHistogram(1000));
+    }
+
+    @Override
+    public void processElement(StreamRecord<T> element) {
+        if (bufferedPoints == 0) {
+            firstBufferedAt = getProcessingTimeService().getCurrentProcessingTime();
+            getProcessingTimeService().registerTimer(firstBufferedAt + lingerMs, this::onLingerTimer);
+        } else {
+            buffer.append('\n');
+        }
+
+        encoder.encode(element.getValue(), buffer);
+        bufferedPoints++;
+
+        if (bufferedPoints >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+        super.prepareSnapshotPreBarrier(checkpointId);
+        flush();
+    }
+
+    @Override
+    public void endInput() {
+        flush();
+    }
+
+    private void onLingerTimer(long timestamp) {
+        // Timers are never cancelled; a timer that belongs to an already flushed batch is ignored
+        if (bufferedPoints > 0 && timestamp - firstBufferedAt >= lingerMs) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (bufferedPoints == 0) return;
+
+        batchSizeHistogram.update(bufferedPoints);
+        output.collect(new StreamRecord<>(new LineProtocolBatch(buffer.toString(), bufferedPoints)));
+
+        buffer.setLength(0);
+        bufferedPoints = 0;
+    }
+}
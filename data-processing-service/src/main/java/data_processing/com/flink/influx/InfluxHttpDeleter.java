@@ -0,0 +1,74 @@
+package data_processing.com.flink.influx;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for the InfluxDB v2 {@code /api/v2/delete} endpoint, the delete counterpart of
+ * {@link InfluxHttpWriter}. The returned future fails with {@link InfluxWriteException} on a non-2xx
+ * response and with an {@link java.io.IOException} when the server cannot be reached.
+ */
+public class InfluxHttpDeleter {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String deleteUrl;
+    private final String authorization;
+    private final Duration requestTimeout;
+
+    public InfluxHttpDeleter(String url, String token, String org, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        this.deleteUrl = (url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                + "/api/v2/delete?org=" + URLEncoder.encode(org, StandardCharsets.UTF_8);
+        this.authorization = "Token " + token;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Deletes the points of {@code bucket} in {@code [start, stop]} that match the predicate.
+     */
+    public CompletableFuture<Void> delete(String bucket, Instant start, Instant stop, String predicate) {
+        Map<String, String> body = new LinkedHashMap<>();
+        body.put("start", start.toString());
+        body.put("stop", stop.toString());
+        body.put("predicate", predicate);
+
+        String json;
+        try {
+            json = JSON.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(deleteUrl + "&bucket=" + URLEncoder.encode(bucket, StandardCharsets.UTF_8)))
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new InfluxWriteException(response.statusCode(), response.body());
+                    }
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,57 @@
+package data_processing.com.flink.influx;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking client for the InfluxDB v2 {@code /api/v2/write} endpoint.
+ * Requests go out through the JDK {@link HttpClient}, so a slow server holds a connection, not a
+ * thread. The returned future fails with {@link InfluxWriteException} on a non-2xx response and with
+ * an {@link java.io.IOException} (including request timeouts) when the server cannot be reached.
+ */
+public class InfluxHttpWriter {
+
+    private final HttpClient httpClient;
+    private final URI writeUri;
+    private final String authorization;
+    private final Duration requestTimeout;
+
+    public InfluxHttpWriter(String url, String token, String org, String bucket, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(requestTimeout)
+                .build();
+        this.writeUri = URI.create(stripTrailingSlash(url) + "/api/v2/write"
+                + "?org=" + URLEncoder.encode(org, StandardCharsets.UTF_8)
+                + "&bucket=" + URLEncoder.encode(bucket, StandardCharsets.UTF_8)
+                + "&precision=ms");
+        this.authorization = "Token " + token;
+        this.requestTimeout = requestTimeout;
+    }
+
+    public CompletableFuture<Void> write(String lines) {
+        HttpRequest request = HttpRequest.newBuilder(writeUri)
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "text/plain; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(lines, StandardCharsets.UTF_8))
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        throw new InfluxWriteException(response.statusCode(), response.body());
+                    }
+                    return null;
+                });
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
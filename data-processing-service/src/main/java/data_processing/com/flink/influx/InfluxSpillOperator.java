@@ -0,0 +1,194 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.LineProtocolBatch;
+import org.apache.flink.core.memory.DataInputViewStreamWrapper;
+import org.apache.flink.core.memory.DataOutputViewStreamWrapper;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.runtime.state.OperatorStateCheckpointOutputStream;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StatePartitionStreamProvider;
+import org.apache.flink.runtime.state.StateSnapshotContext;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes the batches the InfluxDB writer gave up on, appends them to a {@link SpillLog} on the
+ * TaskManager's local spill directory and replays them one at a time once InfluxDB accepts writes again.
+ * Replays are paced to {@code replayBatchesPerSecond} so a recovering server is not hit with the whole
+ * backlog at once, and a failed replay waits {@code retryIntervalMs} before the next try.
+ * <p>
+ * The oldest {@code checkpointMaxBytes} of the backlog are copied byte for byte from the spill segments
+ * into raw operator state on every checkpoint and re-spilled on restore, so they are not lost with the
+ * local disk. The copy is synchronous, which is what the limit bounds; batches beyond it are only on local
+ * disk and are lost if the TaskManager fails before they are replayed, so size it for the outage the job
+ * has to ride out. A batch that was written but not yet removed when the checkpoint was taken is written
+ * again after a restore; InfluxDB overwrites identical points.
+ * Replay requests run on the HTTP client's threads and only publish their outcome; the log is touched
+ * on the task thread alone, from {@link #processElement} and the replay timer.
+ */
+public class InfluxSpillOperator extends AbstractStreamOperator<Void>
+        implements OneInputStreamOperator<LineProtocolBatch, Void> {
+
+    private static final int IDLE = 0;
+    private static final int IN_FLIGHT = 1;
+    private static final int SUCCEEDED = 2;
+    private static final int FAILED = 3;
+
+    private final String url;
+    private final String token;
+    private final String org;
+    private final String bucket;
+    private final long requestTimeoutMs;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final long checkpointMaxBytes;
+    private final long replayIntervalMs;
+    private final long retryIntervalMs;
+
+    private transient SpillLog log;
+    private transient InfluxHttpWriter writer;
+    private transient AtomicInteger replayState;
+    private transient volatile Throwable replayError;
+    private transient boolean timerRegistered;
+    private transient long retryNotBefore;
+    private transient Counter spilledCounter;
+    private transient Counter replayedCounter;
+    private transient long uncheckpointedBytes;
+
+    public InfluxSpillOperator(String url, String token, String org, String bucket, long requestTimeoutMs,
+                               int segmentBytes, long maxBytes, long checkpointMaxBytes,
+                               int replayBatchesPerSecond, long retryIntervalMs) {
+        if (checkpointMaxBytes < 0) throw new IllegalArgumentException("checkpointMaxBytes must not be negative");
+        if (replayBatchesPerSecond <= 0) throw new IllegalArgumentException("replayBatchesPerSecond must be positive");
+        if (retryIntervalMs <= 0) throw new IllegalArgumentException("retryIntervalMs must be positive");
+        this.url = url;
+        this.token = token;
+        this.org = org;
+        this.bucket = bucket;
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.checkpointMaxBytes = checkpointMaxBytes;
+        this.replayIntervalMs = Math.max(1L, 1000L / replayBatchesPerSecond);
+        this.retryIntervalMs = retryIntervalMs;
+        setChainingStrategy(ChainingStrategy.ALWAYS);
+    }
+
+    @Override
+    public void initializeState(StateInitializationContext context) throws Exception {
+        super.initializeState(context);
+
+        File[] spillDirectories = getContainingTask().getEnvironment().getIOManager().getSpillingDirectories();
+        int subtask = getRuntimeContext().getIndexOfThisSubtask();
+        File directory = new File(spillDirectories[subtask % spillDirectories.length],
+                "influx-spill-" + getOperatorID() + "-" + subtask + "-" + UUID.randomUUID());
+        log = new SpillLog(directory.toPath(), segmentBytes, maxBytes);
+
+        for (StatePartitionStreamProvider partition : context.getRawOperatorStateInputs()) {
+            log.readFrom(new DataInputViewStreamWrapper(partition.getStream()));
+        }
+        if (!log.isEmpty()) {
+            LOG.info("Restored {} spilled InfluxDB batches for bucket {}", log.getBatchCount(), bucket);
+        }
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        writer = new InfluxHttpWriter(url, token, org, bucket, Duration.ofMillis(requestTimeoutMs));
+        replayState = new AtomicInteger(IDLE);
+
+        spilledCounter = getMetricGroup().counter("influx_batches_spilled");
+        replayedCounter = getMetricGroup().counter("influx_batches_replayed");
+        getMetricGroup().gauge("influx_spill_batches", (Gauge<Long>) () -> log.getBatchCount());
+        getMetricGroup().gauge("influx_spill_bytes", (Gauge<Long>) () -> log.getSizeBytes());
+        getMetricGroup().gauge("influx_spill_uncheckpointed_bytes", (Gauge<Long>) () -> uncheckpointedBytes);
+
+        scheduleReplay(0L);
+    }
+
+    @Override
+    public void processElement(StreamRecord<LineProtocolBatch> element) {
+        if (log.isEmpty()) {
+            LOG.warn("InfluxDB bucket {} is not accepting writes, spilling batches to local disk", bucket);
+        }
+        log.append(element.getValue());
+        spilledCounter.inc();
+        scheduleReplay(0L);
+    }
+
+    @Override
+    public void snapshotState(StateSnapshotContext context) throws Exception {
+        super.snapshotState(context);
+        if (log.isEmpty()) {
+            uncheckpointedBytes = 0;
+            return;
+        }
+
+        OperatorStateCheckpointOutputStream out = context.getRawOperatorStateOutput();
+        out.startNewPartition();
+        long checkpointed = log.writeTo(new DataOutputViewStreamWrapper(out), checkpointMaxBytes);
+        uncheckpointedBytes = log.getSizeBytes() - checkpointed;
+        if (uncheckpointedBytes > 0) {
+            LOG.warn("Checkpoint {} covers {} of {} spilled bytes for bucket {}, the rest is only on local disk",
+                    context.getCheckpointId(), checkpointed, log.getSizeBytes(), bucket);
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (log != null) log.close();
+        super.close();
+    }
+
+    private void onReplayTimer(long timestamp) {
+        timerRegistered = false;
+
+        int outcome = replayState.get();
+        if (outcome == SUCCEEDED) {
+            log.remove();
+            replayedCounter.inc();
+            replayState.set(IDLE);
+            if (log.isEmpty()) {
+                LOG.info("Spilled InfluxDB batches for bucket {} have all been replayed", bucket);
+            }
+        } else if (outcome == FAILED) {
+            Throwable error = replayError;
+            if (!JitteredBackoffRetryStrategy.isTransient(error)) {
+                throw new IllegalStateException("Replaying a spilled batch to InfluxDB failed permanently", error);
+            }
+            LOG.debug("Replaying a spilled batch to InfluxDB failed, retrying in {} ms", retryIntervalMs, error);
+            retryNotBefore = timestamp + retryIntervalMs;
+            replayState.set(IDLE);
+        }
+
+        if (replayState.get() == IDLE && !log.isEmpty() && timestamp >= retryNotBefore) {
+            replayState.set(IN_FLIGHT);
+            writer.write(log.peek().getLines()).whenComplete((ignored, error) -> {
+                replayError = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                replayState.set(error == null ? SUCCEEDED : FAILED);
+            });
+        }
+
+        if (replayState.get() != IDLE || !log.isEmpty()) {
+            scheduleReplay(Math.max(timestamp + replayIntervalMs, retryNotBefore) - timestamp);
+        }
+    }
+
+    private void scheduleReplay(long delayMs) {
+        if (timerRegistered || (log.isEmpty() && replayState.get() == IDLE)) return;
+        timerRegistered = true;
+        long now = getProcessingTimeService().getCurrentProcessingTime();
+        getProcessingTimeService().registerTimer(now + delayMs, this::onReplayTimer);
+    }
+}
@@ -0,0 +1,22 @@
+package data_processing.com.flink.influx;
+
+import lombok.Getter;
+
+/**
+ * Non-2xx response from an InfluxDB write or delete request. Rate limiting (429) and server errors (5xx)
+ * are worth retrying; other client errors (bad line protocol, bad token, missing bucket) are not.
+ */
+@Getter
+public class InfluxWriteException extends RuntimeException {
+
+    private final int statusCode;
+
+    public InfluxWriteException(int statusCode, String responseBody) {
+        super("InfluxDB request failed with HTTP " + statusCode + ": " + responseBody);
+        this.statusCode = statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,89 @@
+package data_processing.com.flink.influx;
+
+import org.apache.flink.streaming.api.functions.async.AsyncRetryPredicate;
+import org.apache.flink.streaming.api.functions.async.AsyncRetryStrategy;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Retry strategy for {@code AsyncDataStream.*WaitWithRetry} writes to InfluxDB.
+ * The delay doubles per retry from {@code initialDelayMs} up to {@code maxDelayMs}, and a random
+ * share of it (the {@code jitter} fraction) is taken off so that subtasks failing together do not
+ * retry in lockstep. The operator schedules retries on its timer service, so no thread waits out
+ * the backoff. Only I/O errors and retryable HTTP statuses are retried; anything else fails at once.
+ * A function may also hand its input back as a non-empty result instead of failing; that is retried
+ * the same way and, once retries run out, emitted downstream rather than failing the job.
+ */
+public class JitteredBackoffRetryStrategy<T> implements AsyncRetryStrategy<T> {
+
+    private final int maxRetries;
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double jitter;
+
+    public JitteredBackoffRetryStrategy(int maxRetries, long initialDelayMs, long maxDelayMs, double jitter) {
+        if (maxRetries < 0) throw new IllegalArgumentException("maxRetries must not be negative");
+        if (initialDelayMs <= 0) throw new IllegalArgumentException("initialDelayMs must be positive");
+        if (maxDelayMs < initialDelayMs) throw new IllegalArgumentException("maxDelayMs must be >= initialDelayMs");
+        if (jitter < 0 || jitter > 1) throw new IllegalArgumentException("jitter must be between 0 and 1");
+        this.maxRetries = maxRetries;
+        this.initialDelayMs = initialDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.jitter = jitter;
+    }
+
+    /**
+     * @param currentAttempts attempts made so far, starting at 1 after the first failure
+     */
+    @Override
+    public boolean canRetry(int currentAttempts) {
+        return currentAttempts <= maxRetries;
+    }
+
+    @Override
+    public long getBackoffTimeMillis(int currentAttempts) {
+        long delay = initialDelayMs;
+        for (int i = 1; i < currentAttempts && delay < maxDelayMs; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDelayMs);
+        long jitterRange = (long) (delay * jitter);
+        return jitterRange == 0 ? delay : delay - ThreadLocalRandom.current().nextLong(jitterRange + 1);
+    }
+
+    @Override
+    public AsyncRetryPredicate<T> getRetryPredicate() {
+        return new RetryOnTransientFailure<>();
+    }
+
+    /**
+     * Whether a failed write is worth trying again: I/O errors, timeouts, 429 and 5xx responses,
+     * and writes refused by an open circuit breaker.
+     */
+    public static boolean isTransient(Throwable error) {
+        if (error instanceof CircuitOpenException) {
+            return true;
+        }
+        if (error instanceof InfluxWriteException) {
+            return ((InfluxWriteException) error).isRetryable();
+        }
+        return error instanceof IOException;
+    }
+
+    private static final class RetryOnTransientFailure<T> implements AsyncRetryPredicate<T> {
+
+        @Override
+        public Optional<Predicate<Collection<T>>> resultPredicate() {
+            return Optional.of(results -> !results.isEmpty());
+        }
+
+        @Override
+        public Optional<Predicate<Throwable>> exceptionPredicate() {
+            return Optional.of(JitteredBackoffRetryStrategy::isTransient);
+        }
+    }
+}
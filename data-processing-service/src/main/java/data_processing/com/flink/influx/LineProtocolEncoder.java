@@ -0,0 +1,12 @@
+package data_processing.com.flink.influx;
+
+import java.io.Serializable;
+
+/**
+ * Appends one line protocol point for a value to a caller-owned buffer, without a trailing newline.
+ */
+@FunctionalInterface
+public interface LineProtocolEncoder<T> extends Serializable {
+
+    void encode(T value, StringBuilder out);
+}
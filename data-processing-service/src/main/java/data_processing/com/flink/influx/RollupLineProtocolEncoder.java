@@ -0,0 +1,26 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.TelemetryRollup;
+
+/**
+ * Writes a {@link TelemetryRollup} as one {@code telemetry_<resolution>} line, timestamped with the
+ * window end. Using the window end matches the {@code _time} that {@code aggregateWindow} assigns,
+ * so rollup series line up with windows computed from raw points.
+ */
+public final class RollupLineProtocolEncoder {
+
+    public static final String MEASUREMENT_PREFIX = "telemetry_";
+
+    private RollupLineProtocolEncoder() {}
+
+    public static void encode(TelemetryRollup rollup, StringBuilder out) {
+        out.append(MEASUREMENT_PREFIX).append(rollup.getResolution()).append(",deviceId=");
+        TelemetryLineProtocolEncoder.appendTagValue(rollup.getDeviceId(), out);
+
+        out.append(" count=").append(rollup.getCount()).append('i')
+                .append(",max=").append(rollup.getMax())
+                .append(",mean=").append(rollup.getMean())
+                .append(",min=").append(rollup.getMin())
+                .append(' ').append(rollup.getWindowEnd());
+    }
+}
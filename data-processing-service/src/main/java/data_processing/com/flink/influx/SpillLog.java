@@ -0,0 +1,216 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.LineProtocolBatch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Append-only FIFO of line protocol batches kept in memory-mapped segment files on local disk.
+ * Records are {@code [length][pointCount][UTF-8 lines]}; a segment is deleted once every record in it
+ * has been removed. The log is a process-local buffer, not a recovery source: positions live on the
+ * heap and the files and directory are discarded on {@link #close()}, so durability comes from the owning operator
+ * copying the backlog into its checkpointed state with {@link #writeTo} and back with {@link #readFrom}.
+ * Not thread-safe.
+ */
+public class SpillLog implements AutoCloseable {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int END_OF_LOG = -1;
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    private long nextSegmentId;
+    private long batchCount;
+    private long sizeBytes;
+
+    public SpillLog(Path directory, int segmentBytes, long maxBytes) {
+        if (segmentBytes <= HEADER_BYTES) throw new IllegalArgumentException("segmentBytes is too small");
+        if (maxBytes < segmentBytes) throw new IllegalArgumentException("maxBytes must be >= segmentBytes");
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill directory " + directory, e);
+        }
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @throws IllegalStateException when the batch would take the log over {@code maxBytes}
+     */
+    public void append(LineProtocolBatch batch) {
+        append(batch.getLines().getBytes(StandardCharsets.UTF_8), batch.getPointCount());
+    }
+
+    private void append(byte[] lines, int pointCount) {
+        int recordBytes = HEADER_BYTES + lines.length;
+        if (sizeBytes + recordBytes > maxBytes) {
+            throw new IllegalStateException("Spill log in " + directory + " is full (" + sizeBytes + " bytes)");
+        }
+
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.buffer.capacity() - tail.writePosition < recordBytes) {
+            tail = openSegment(Math.max(segmentBytes, recordBytes));
+        }
+
+        tail.buffer.putInt(tail.writePosition, lines.length);
+        tail.buffer.putInt(tail.writePosition + Integer.BYTES, pointCount);
+        tail.buffer.put(tail.writePosition + HEADER_BYTES, lines);
+        tail.writePosition += recordBytes;
+        batchCount++;
+        sizeBytes += recordBytes;
+    }
+
+    /**
+     * Returns the oldest batch without removing it, or {@code null} when the log is empty.
+     */
+    public LineProtocolBatch peek() {
+        // Fully consumed segments are deleted right away, so the head always has a record if present
+        Segment head = segments.peekFirst();
+        return head == null ? null : read(head, head.readPosition);
+    }
+
+    /**
+     * Removes the oldest batch, deleting its segment once the segment has been fully consumed.
+     */
+    public void remove() {
+        Segment head = segments.peekFirst();
+        if (head == null) {
+            throw new IllegalStateException("Spill log is empty");
+        }
+
+        int recordBytes = HEADER_BYTES + head.buffer.getInt(head.readPosition);
+        head.readPosition += recordBytes;
+        batchCount--;
+        sizeBytes -= recordBytes;
+
+        if (head.readPosition == head.writePosition) {
+            segments.pollFirst();
+            delete(head);
+        }
+    }
+
+    /**
+     * Writes the oldest batches, as many as fit whole into {@code maxBytes}, in the segment record format
+     * followed by an end marker. The records are copied straight from the mapped segments, so the backlog is
+     * never decoded onto the heap. Nothing is removed.
+     *
+     * @return the record bytes written, excluding the end marker
+     */
+    public long writeTo(DataOutput out, long maxBytes) throws IOException {
+        byte[] chunk = new byte[COPY_CHUNK_BYTES];
+        long written = 0;
+        for (Segment segment : segments) {
+            int end = segment.readPosition;
+            while (end < segment.writePosition) {
+                int recordBytes = HEADER_BYTES + segment.buffer.getInt(end);
+                if (written + (end - segment.readPosition) + recordBytes > maxBytes) break;
+                end += recordBytes;
+            }
+            for (int position = segment.readPosition; position < end; position += COPY_CHUNK_BYTES) {
+                int length = Math.min(COPY_CHUNK_BYTES, end - position);
+                segment.buffer.get(position, chunk, 0, length);
+                out.write(chunk, 0, length);
+            }
+            written += end - segment.readPosition;
+            if (end < segment.writePosition) break;
+        }
+        out.writeInt(END_OF_LOG);
+        return written;
+    }
+
+    /**
+     * Appends the batches of a {@link #writeTo} copy, up to its end marker.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        for (int length = in.readInt(); length != END_OF_LOG; length = in.readInt()) {
+            int pointCount = in.readInt();
+            byte[] lines = new byte[length];
+            in.readFully(lines);
+            append(lines, pointCount);
+        }
+    }
+
+    public boolean isEmpty() {
+        return batchCount == 0;
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    @Override
+    public void close() {
+        while (!segments.isEmpty()) {
+            delete(segments.pollFirst());
+        }
+        batchCount = 0;
+        sizeBytes = 0;
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete spill directory " + directory, e);
+        }
+    }
+
+    private Segment openSegment(int capacity) {
+        Path path = directory.resolve(String.format("segment-%08d.log", nextSegmentId++));
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            Segment segment = new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill segment " + path, e);
+        }
+    }
+
+    private static LineProtocolBatch read(Segment segment, int position) {
+        int length = segment.buffer.getInt(position);
+        int pointCount = segment.buffer.getInt(position + Integer.BYTES);
+        byte[] lines = new byte[length];
+        segment.buffer.get(position + HEADER_BYTES, lines);
+        return new LineProtocolBatch(new String(lines, StandardCharsets.UTF_8), pointCount);
+    }
+
+    private static void delete(Segment segment) {
+        try {
+            // The mapping itself is released when the buffer is garbage collected
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete spill segment " + segment.path, e);
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
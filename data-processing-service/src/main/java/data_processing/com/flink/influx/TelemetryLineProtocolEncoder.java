@@ -0,0 +1,85 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+
+/**
+ * Writes a {@link TelemetryEvent} as one {@code telemetry} line directly into a caller-owned buffer.
+ * Produces the same line as the client's {@code Point} (sorted fields, integer heating status,
+ * millisecond timestamp) without building tag/field maps or boxing values.
+ * Doubles use {@link Double#toString(double)} formatting, which InfluxDB parses in both plain and
+ * scientific notation. Non-finite values are skipped, as {@code Point} does.
+ */
+public final class TelemetryLineProtocolEncoder {
+
+    private static final String MEASUREMENT_AND_TAG = "telemetry,deviceId=";
+    private static final String CURRENT_TEMPERATURE = "currentTemperature=";
+    private static final String HEATING_STATUS = "heatingStatus=";
+    private static final String TARGET_TEMPERATURE = "targetTemperature=";
+
+    // Characters that must be escaped in a tag value, indexed by ASCII code
+    private static final boolean[] TAG_ESCAPE = new boolean[128];
+
+    static {
+        TAG_ESCAPE[' '] = true;
+        TAG_ESCAPE[','] = true;
+        TAG_ESCAPE['='] = true;
+        TAG_ESCAPE['\n'] = true;
+    }
+
+    private TelemetryLineProtocolEncoder() {}
+
+    public static void encode(TelemetryEvent event, StringBuilder out) {
+        SensorData data = event.getData();
+
+        out.append(MEASUREMENT_AND_TAG);
+        appendTagValue(event.getDeviceId(), out);
+        out.append(' ');
+
+        boolean hasField = appendDoubleField(CURRENT_TEMPERATURE, data.getCurrentTemperature(), false, out);
+
+        if (hasField) out.append(',');
+        out.append(HEATING_STATUS).append(Boolean.TRUE.equals(data.getHeatingStatus()) ? '1' : '0').append('i');
+
+        appendDoubleField(TARGET_TEMPERATURE, data.getTargetTemperature(), true, out);
+
+        out.append(' ').append(event.getTimestamp().toEpochMilli());
+    }
+
+    static void appendTagValue(String value, StringBuilder out) {
+        int length = value.length();
+        int i = 0;
+        while (i < length && !needsEscape(value.charAt(i))) i++;
+
+        // Fast path: UUIDs never contain characters that need escaping
+        if (i == length) {
+            out.append(value);
+            return;
+        }
+
+        out.append(value, 0, i);
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '\n') {
+                out.append("\\n");
+            } else {
+                if (needsEscape(c)) out.append('\\');
+                out.append(c);
+            }
+        }
+    }
+
+    private static boolean appendDoubleField(String key, Double value, boolean leadingComma, StringBuilder out) {
+        if (value == null) return false;
+        double v = value;
+        if (!Double.isFinite(v)) return false;
+
+        if (leadingComma) out.append(',');
+        out.append(key).append(v);
+        return true;
+    }
+
+    private static boolean needsEscape(char c) {
+        return c < 128 && TAG_ESCAPE[c];
+    }
+}
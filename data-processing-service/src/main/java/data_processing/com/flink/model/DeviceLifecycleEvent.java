@@ -0,0 +1,42 @@
+package data_processing.com.flink.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest lifecycle change of a device, published by user-device-service on a compacted topic.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DeviceLifecycleEvent {
+    public static final String DEACTIVATED = "DEACTIVATED";
+    public static final String PURGED = "PURGED";
+
+    private String deviceId;
+    private String action;
+    private Long time;
+
+    /**
+     * Whether telemetry from the device must be dropped. Unknown actions do not revoke, so a future
+     * reactivation event lifts a revocation without a job change. A purge revokes too, but only until
+     * telemetry replayed from before it can no longer arrive, see {@link #isPurge()}.
+     */
+    @JsonIgnore
+    public boolean isRevocation() {
+        return DEACTIVATED.equals(action) || PURGED.equals(action);
+    }
+
+    /**
+     * Whether the device and its history were deleted. The device row is gone, so the broker no longer
+     * admits the device and its ID only has to be remembered while older readings can still be replayed.
+     */
+    @JsonIgnore
+    public boolean isPurge() {
+        return PURGED.equals(action);
+    }
+}
@@ -0,0 +1,20 @@
+package data_processing.com.flink.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A presence transition of one device. Only emitted when the status changes, so the latest record
+ * per key on the compacted presence topic is the current status of that device.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DevicePresenceEvent {
+    private String deviceId;
+    private PresenceStatus status;
+    private Instant changedAt;
+}
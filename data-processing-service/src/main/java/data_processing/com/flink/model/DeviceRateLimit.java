@@ -0,0 +1,20 @@
+package data_processing.com.flink.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-device override of the telemetry rate limit, read from a compacted topic. An override without a
+ * positive {@code eventsPerSecond} removes the device's override; a missing {@code burst} keeps the default.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DeviceRateLimit {
+    private String deviceId;
+    private Double eventsPerSecond;
+    private Integer burst;
+}
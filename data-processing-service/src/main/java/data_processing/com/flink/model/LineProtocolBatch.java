@@ -0,0 +1,16 @@
+package data_processing.com.flink.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A block of newline-separated InfluxDB line protocol, written in a single HTTP request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LineProtocolBatch {
+    private String lines;
+    private int pointCount;
+}
@@ -0,0 +1,9 @@
+package data_processing.com.flink.model;
+
+/**
+ * Liveness of a device as seen by the presence detector.
+ */
+public enum PresenceStatus {
+    ONLINE,
+    OFFLINE
+}
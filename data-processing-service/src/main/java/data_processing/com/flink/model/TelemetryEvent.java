@@ -2,15 +2,19 @@ package data_processing.com.flink.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import data_processing.com.flink.serialization.TelemetryEventTypeInfo;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.apache.flink.api.common.typeinfo.TypeInfo;
+
 import java.time.Instant;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties(ignoreUnknown = true)
+@TypeInfo(TelemetryEventTypeInfo.Factory.class)
 public class TelemetryEvent {
     private String deviceId;
     private Instant timestamp;
@@ -0,0 +1,38 @@
+package data_processing.com.flink.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of decoding one record from the raw telemetry topic.
+ * Either {@code event} is set, or the original key/payload are kept together with the reject
+ * reason and source position so the record can be forwarded to the DLQ byte-for-byte.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryRecord {
+    private TelemetryEvent event;
+    private TelemetryRejectReason rejectReason;
+    private byte[] key;
+    private byte[] payload;
+    private String sourceTopic;
+    private int sourcePartition;
+    private long sourceOffset;
+
+    public static TelemetryRecord valid(TelemetryEvent event) {
+        TelemetryRecord telemetryRecord = new TelemetryRecord();
+        telemetryRecord.setEvent(event);
+        return telemetryRecord;
+    }
+
+    public static TelemetryRecord rejected(TelemetryRejectReason reason, byte[] key, byte[] payload,
+                                           String sourceTopic, int sourcePartition, long sourceOffset) {
+        return new TelemetryRecord(null, reason, key, payload, sourceTopic, sourcePartition, sourceOffset);
+    }
+
+    public boolean isValid() {
+        return event != null;
+    }
+}
@@ -0,0 +1,24 @@
+package data_processing.com.flink.model;
+
+/**
+ * Why a raw telemetry record was sent to the DLQ. Written to the {@code x-reject-reason} header.
+ */
+public enum TelemetryRejectReason {
+    EMPTY_PAYLOAD,
+    PAYLOAD_TOO_LARGE,
+    MALFORMED_JSON,
+    MALFORMED_BINARY,
+    UNSUPPORTED_VERSION,
+    NOT_AN_OBJECT,
+    MISSING_DEVICE_ID,
+    INVALID_DEVICE_ID,
+    MISSING_TIMESTAMP,
+    INVALID_TIMESTAMP,
+    MISSING_DATA,
+    INVALID_FIELD_TYPE,
+    MISSING_CURRENT_TEMPERATURE,
+    /** The payload names another device than the record key, which the bridge takes from the MQTT topic. */
+    DEVICE_ID_KEY_MISMATCH,
+    /** The reading is dated further ahead of its Kafka timestamp than the allowed clock skew. */
+    FUTURE_TIMESTAMP
+}
@@ -0,0 +1,42 @@
+package data_processing.com.flink.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pre-aggregated {@code currentTemperature} statistics of one device over one event-time window.
+ * {@code resolution} is the window size label ({@code 1m}, {@code 5m}, {@code 15m}) and
+ * {@code windowEnd} the exclusive end of the window in epoch millis.
+ * The sum is kept instead of the mean so that rollups can be merged into coarser ones exactly.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryRollup {
+    private String deviceId;
+    private String resolution;
+    private long windowEnd;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void merge(TelemetryRollup other) {
+        count += other.count;
+        sum += other.sum;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+}
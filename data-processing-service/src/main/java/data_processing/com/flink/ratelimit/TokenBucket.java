@@ -0,0 +1,47 @@
+package data_processing.com.flink.ratelimit;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token bucket that refills with the operator's processing time. The timestamps of the readings are
+ * set by the device, so refilling with them would let a device step its clock forward and never run
+ * dry; a backlog replayed after an outage therefore passes at the configured rate, not the one it was
+ * recorded at. A clock that goes backwards refills nothing. A Flink POJO, kept as keyed state.
+ */
+@Data
+@NoArgsConstructor
+public class TokenBucket {
+    private double tokens;
+    private long refilledAt;
+    /** Readings refused since the bucket was created. */
+    private long rejected;
+
+    public static TokenBucket full(int burst, long now) {
+        TokenBucket bucket = new TokenBucket();
+        bucket.tokens = burst;
+        bucket.refilledAt = now;
+        return bucket;
+    }
+
+    /**
+     * Refills for the processing time since the last refill, capped at {@code burst}, and takes one token.
+     *
+     * @return whether a token was available
+     */
+    public boolean tryAcquire(long now, double tokensPerSecond, int burst) {
+        if (now > refilledAt) {
+            tokens += (now - refilledAt) * tokensPerSecond / 1000.0;
+            refilledAt = now;
+        }
+        // Also applies a burst that was lowered since the last reading
+        tokens = Math.min(tokens, burst);
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package data_processing.com.flink.rollup;
+
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRollup;
+import org.apache.flink.api.common.functions.AggregateFunction;
+import org.apache.flink.streaming.api.functions.windowing.ProcessWindowFunction;
+import org.apache.flink.streaming.api.windowing.windows.TimeWindow;
+import org.apache.flink.util.Collector;
+
+/**
+ * Window functions of the rollup stage. The finest tier aggregates raw events, every coarser tier
+ * merges the rollups of the tier below, so each event is aggregated exactly once.
+ */
+public final class TelemetryRollupFunctions {
+
+    private TelemetryRollupFunctions() {}
+
+    /**
+     * Aggregates raw events into count/sum/min/max of {@code currentTemperature}.
+     */
+    public static class EventAggregate implements AggregateFunction<TelemetryEvent, TelemetryRollup, TelemetryRollup> {
+
+        @Override
+        public TelemetryRollup createAccumulator() {
+            return new TelemetryRollup();
+        }
+
+        @Override
+        public TelemetryRollup add(TelemetryEvent event, TelemetryRollup accumulator) {
+            Double value = event.getData().getCurrentTemperature();
+            if (value != null && Double.isFinite(value)) {
+                accumulator.add(value);
+            }
+            return accumulator;
+        }
+
+        @Override
+        public TelemetryRollup getResult(TelemetryRollup accumulator) {
+            return accumulator;
+        }
+
+        @Override
+        public TelemetryRollup merge(TelemetryRollup a, TelemetryRollup b) {
+            a.merge(b);
+            return a;
+        }
+    }
+
+    /**
+     * Merges finer rollups into a coarser one.
+     */
+    public static class RollupAggregate implements AggregateFunction<TelemetryRollup, TelemetryRollup, TelemetryRollup> {
+
+        @Override
+        public TelemetryRollup createAccumulator() {
+            return new TelemetryRollup();
+        }
+
+        @Override
+        public TelemetryRollup add(TelemetryRollup rollup, TelemetryRollup accumulator) {
+            accumulator.merge(rollup);
+            return accumulator;
+        }
+
+        @Override
+        public TelemetryRollup getResult(TelemetryRollup accumulator) {
+            return accumulator;
+        }
+
+        @Override
+        public TelemetryRollup merge(TelemetryRollup a, TelemetryRollup b) {
+            a.merge(b);
+            return a;
+        }
+    }
+
+    /**
+     * Stamps the aggregate with its device, resolution and window end. Windows without a usable
+     * reading are dropped.
+     */
+    public static class WindowFinalizer extends ProcessWindowFunction<TelemetryRollup, TelemetryRollup, String, TimeWindow> {
+        private final String resolution;
+
+        public WindowFinalizer(String resolution) {
+            this.resolution = resolution;
+        }
+
+        @Override
+        public void process(String deviceId, Context context, Iterable<TelemetryRollup> aggregates, Collector<TelemetryRollup> out) {
+            TelemetryRollup aggregate = aggregates.iterator().next();
+            if (aggregate.getCount() == 0) return;
+
+            out.collect(new TelemetryRollup(deviceId, resolution, context.window().getEnd(),
+                    aggregate.getCount(), aggregate.getSum(), aggregate.getMin(), aggregate.getMax()));
+        }
+    }
+}
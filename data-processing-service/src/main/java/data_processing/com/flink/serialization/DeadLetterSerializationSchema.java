@@ -0,0 +1,43 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.TelemetryRecord;
+import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Forwards rejected telemetry to the DLQ with the original key and payload bytes.
+ * The reject reason and source position travel as headers, so the payload stays replayable as-is.
+ */
+public class DeadLetterSerializationSchema implements KafkaRecordSerializationSchema<TelemetryRecord> {
+
+    public static final String HEADER_REJECT_REASON = "x-reject-reason";
+    public static final String HEADER_SOURCE_TOPIC = "x-source-topic";
+    public static final String HEADER_SOURCE_PARTITION = "x-source-partition";
+    public static final String HEADER_SOURCE_OFFSET = "x-source-offset";
+
+    private final String topic;
+
+    public DeadLetterSerializationSchema(String topic) {
+        this.topic = topic;
+    }
+
+    @Override
+    public ProducerRecord<byte[], byte[]> serialize(TelemetryRecord element, KafkaSinkContext context, Long timestamp) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(HEADER_REJECT_REASON, utf8(element.getRejectReason().name()));
+        if (element.getSourceTopic() != null) {
+            headers.add(HEADER_SOURCE_TOPIC, utf8(element.getSourceTopic()));
+            headers.add(HEADER_SOURCE_PARTITION, utf8(Integer.toString(element.getSourcePartition())));
+            headers.add(HEADER_SOURCE_OFFSET, utf8(Long.toString(element.getSourceOffset())));
+        }
+
+        return new ProducerRecord<>(topic, null, timestamp, element.getKey(), element.getPayload(), headers);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
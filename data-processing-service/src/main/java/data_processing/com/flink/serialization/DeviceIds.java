@@ -0,0 +1,45 @@
+package data_processing.com.flink.serialization;
+
+/**
+ * Allocation-free handling of canonical device IDs (lower-case UUID text, as issued by provisioning).
+ * Only canonical IDs are packed into two longs, so unpacking yields the exact same String.
+ */
+final class DeviceIds {
+
+    private DeviceIds() {}
+
+    static boolean isCanonicalUuid(String value) {
+        if (value.length() != 36) return false;
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') return false;
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param uuid a value accepted by {@link #isCanonicalUuid(String)}
+     */
+    static long mostSignificantBits(String uuid) {
+        return (parseHex(uuid, 0, 8) << 32) | (parseHex(uuid, 9, 13) << 16) | parseHex(uuid, 14, 18);
+    }
+
+    /**
+     * @param uuid a value accepted by {@link #isCanonicalUuid(String)}
+     */
+    static long leastSignificantBits(String uuid) {
+        return (parseHex(uuid, 19, 23) << 48) | parseHex(uuid, 24, 36);
+    }
+
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = (result << 4) | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package data_processing.com.flink.serialization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import data_processing.com.flink.model.DevicePresenceEvent;
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes presence transitions as JSON, keyed by device ID so the compacted topic keeps one status per device.
+ */
+public class DevicePresenceSerializationSchema implements KafkaRecordSerializationSchema<DevicePresenceEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DevicePresenceSerializationSchema.class);
+
+    private final String topic;
+    private transient ObjectWriter writer;
+
+    public DevicePresenceSerializationSchema(String topic) {
+        this.topic = topic;
+    }
+
+    @Override
+    public void open(SerializationSchema.InitializationContext context, KafkaSinkContext sinkContext) {
+        writer = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .writerFor(DevicePresenceEvent.class);
+    }
+
+    @Nullable
+    @Override
+    public ProducerRecord<byte[], byte[]> serialize(DevicePresenceEvent element, KafkaSinkContext context, Long timestamp) {
+        try {
+            return new ProducerRecord<>(
+                    topic,
+                    null,
+                    timestamp,
+                    element.getDeviceId().getBytes(StandardCharsets.UTF_8),
+                    writer.writeValueAsBytes(element)
+            );
+        } catch (JsonProcessingException e) {
+            LOG.error("Failed to serialize presence for Kafka, device {}", element.getDeviceId(), e);
+            return null;
+        }
+    }
+}
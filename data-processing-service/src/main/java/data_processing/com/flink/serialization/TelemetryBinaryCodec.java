@@ -0,0 +1,109 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRejectReason;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Compact binary telemetry encoding, big-endian:
+ * <pre>
+ * offset size field
+ *      0    1 magic 0xB1 (never the first byte of a JSON document)
+ *      1    1 version (1)
+ *      2    1 flags: bit0 currentTemperature, bit1 targetTemperature, bit2 heatingStatus present,
+ *                    bit3 heatingStatus value
+ *      3   16 deviceId as UUID (most significant bits first)
+ *     19    8 timestamp, epoch millis
+ *     27    8 currentTemperature (if bit0, else the next field moves up)
+ *     35    8 targetTemperature (if bit1)
+ * </pre>
+ * A full reading is 43 bytes, against roughly 170 for the JSON form.
+ */
+public final class TelemetryBinaryCodec {
+
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION_1 = 1;
+
+    static final int FLAG_CURRENT_TEMPERATURE = 1;
+    static final int FLAG_TARGET_TEMPERATURE = 1 << 1;
+    static final int FLAG_HEATING_PRESENT = 1 << 2;
+    static final int FLAG_HEATING_ON = 1 << 3;
+
+    private static final int HEADER_SIZE = 3 + 16 + 8;
+
+    private TelemetryBinaryCodec() {}
+
+    public static boolean isBinary(byte[] payload) {
+        return payload.length > 0 && payload[0] == MAGIC;
+    }
+
+    /**
+     * Only canonical (lower-case) UUIDs are encoded, so decoding yields the exact same device ID.
+     */
+    public static boolean canEncode(TelemetryEvent event) {
+        return event.getDeviceId() != null && DeviceIds.isCanonicalUuid(event.getDeviceId());
+    }
+
+    /**
+     * Encodes {@code event}. The device ID must be a UUID, see {@link #canEncode(TelemetryEvent)}.
+     */
+    public static byte[] encode(TelemetryEvent event) {
+        SensorData data = event.getData();
+        int flags = 0;
+        if (data.getCurrentTemperature() != null) flags |= FLAG_CURRENT_TEMPERATURE;
+        if (data.getTargetTemperature() != null) flags |= FLAG_TARGET_TEMPERATURE;
+        if (data.getHeatingStatus() != null) {
+            flags |= FLAG_HEATING_PRESENT;
+            if (data.getHeatingStatus()) flags |= FLAG_HEATING_ON;
+        }
+
+        String deviceId = event.getDeviceId();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 8 * Integer.bitCount(flags & 0b11))
+                .put(MAGIC)
+                .put(VERSION_1)
+                .put((byte) flags)
+                .putLong(DeviceIds.mostSignificantBits(deviceId))
+                .putLong(DeviceIds.leastSignificantBits(deviceId))
+                .putLong(event.getTimestamp().toEpochMilli());
+
+        if (data.getCurrentTemperature() != null) buffer.putDouble(data.getCurrentTemperature());
+        if (data.getTargetTemperature() != null) buffer.putDouble(data.getTargetTemperature());
+        return buffer.array();
+    }
+
+    /**
+     * Decodes {@code payload} into {@code target}.
+     *
+     * @return {@code null} if the payload is a valid event, otherwise the reason it is not
+     */
+    public static TelemetryRejectReason decode(byte[] payload, TelemetryEvent target) {
+        if (payload.length < 2 || payload[0] != MAGIC) return TelemetryRejectReason.MALFORMED_BINARY;
+        if (payload[1] != VERSION_1) return TelemetryRejectReason.UNSUPPORTED_VERSION;
+        if (payload.length < HEADER_SIZE) return TelemetryRejectReason.MALFORMED_BINARY;
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 2, payload.length - 2);
+        int flags = buffer.get() & 0xFF;
+        if (payload.length != HEADER_SIZE + 8 * Integer.bitCount(flags & 0b11)) {
+            return TelemetryRejectReason.MALFORMED_BINARY;
+        }
+        if ((flags & FLAG_CURRENT_TEMPERATURE) == 0) return TelemetryRejectReason.MISSING_CURRENT_TEMPERATURE;
+
+        long mostSignificant = buffer.getLong();
+        long leastSignificant = buffer.getLong();
+        long epochMillis = buffer.getLong();
+
+        SensorData data = new SensorData();
+        data.setCurrentTemperature(buffer.getDouble());
+        if ((flags & FLAG_TARGET_TEMPERATURE) != 0) data.setTargetTemperature(buffer.getDouble());
+        if ((flags & FLAG_HEATING_PRESENT) != 0) data.setHeatingStatus((flags & FLAG_HEATING_ON) != 0);
+
+        target.setDeviceId(new UUID(mostSignificant, leastSignificant).toString());
+        target.setTimestamp(Instant.ofEpochMilli(epochMillis));
+        target.setData(data);
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRecord;
+import data_processing.com.flink.model.TelemetryRejectReason;
+import org.apache.flink.api.common.serialization.DeserializationSchema;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.connector.kafka.source.reader.deserializer.KafkaRecordDeserializationSchema;
+import org.apache.flink.util.Collector;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes raw telemetry straight from Kafka bytes, without an intermediate String.
+ * JSON and {@link TelemetryBinaryCodec binary} payloads are told apart per record by the first byte.
+ * Every record produces exactly one {@link TelemetryRecord}: a parsed event, or the untouched
+ * key/payload with a reject reason so the validator can route it to the DLQ.
+ * <p>
+ * The bridge keys records by the device ID in the MQTT topic, which the broker ACLs tie to the sender,
+ * while the payload's deviceId is whatever the device wrote. A keyed record whose payload names another
+ * device is rejected, so no device can publish on another's behalf or land on another's partition.
+ * <p>
+ * Event time is taken from the reading, so one dated years ahead would carry its partition's watermark
+ * along and make every other reading late. Readings more than {@code maxFutureSkewMs} ahead of the
+ * record's Kafka timestamp, or of the wall clock for records without one, are rejected before the
+ * source assigns their watermark.
+ */
+public class TelemetryDeserializationSchema implements KafkaRecordDeserializationSchema<TelemetryRecord> {
+
+    private final int maxPayloadBytes;
+    private final long maxFutureSkewMs;
+    private transient TelemetryJsonParser jsonParser;
+
+    public TelemetryDeserializationSchema(int maxPayloadBytes, long maxFutureSkewMs) {
+        if (maxFutureSkewMs < 0) throw new IllegalArgumentException("maxFutureSkewMs must not be negative");
+        this.maxPayloadBytes = maxPayloadBytes;
+        this.maxFutureSkewMs = maxFutureSkewMs;
+    }
+
+    @Override
+    public void open(DeserializationSchema.InitializationContext context) {
+        jsonParser = new TelemetryJsonParser();
+    }
+
+    @Override
+    public void deserialize(ConsumerRecord<byte[], byte[]> consumerRecord, Collector<TelemetryRecord> out) {
+        byte[] payload = consumerRecord.value();
+        TelemetryRejectReason reason;
+        TelemetryEvent event = new TelemetryEvent();
+
+        if (payload == null || payload.length == 0) {
+            reason = TelemetryRejectReason.EMPTY_PAYLOAD;
+        } else if (payload.length > maxPayloadBytes) {
+            reason = TelemetryRejectReason.PAYLOAD_TOO_LARGE;
+        } else if (TelemetryBinaryCodec.isBinary(payload)) {
+            reason = TelemetryBinaryCodec.decode(payload, event);
+        } else {
+            reason = parseJson(payload, event);
+        }
+        if (reason == null && consumerRecord.key() != null && !matchesKey(consumerRecord.key(), event.getDeviceId())) {
+            reason = TelemetryRejectReason.DEVICE_ID_KEY_MISMATCH;
+        }
+        if (reason == null && event.getTimestamp().toEpochMilli() - ingestedAt(consumerRecord) > maxFutureSkewMs) {
+            reason = TelemetryRejectReason.FUTURE_TIMESTAMP;
+        }
+
+        if (reason == null) {
+            out.collect(TelemetryRecord.valid(event));
+        } else {
+            out.collect(TelemetryRecord.rejected(reason, consumerRecord.key(), payload,
+                    consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset()));
+        }
+    }
+
+    // The bridge stamps the record when it forwards it, which the device cannot influence
+    private static long ingestedAt(ConsumerRecord<byte[], byte[]> consumerRecord) {
+        long timestamp = consumerRecord.timestamp();
+        return timestamp != ConsumerRecord.NO_TIMESTAMP ? timestamp : System.currentTimeMillis();
+    }
+
+    // Device IDs are ASCII in practice, so the key is compared byte by byte without decoding it
+    private static boolean matchesKey(byte[] key, String deviceId) {
+        if (key.length != deviceId.length()) {
+            return new String(key, StandardCharsets.UTF_8).equals(deviceId);
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] < 0) return new String(key, StandardCharsets.UTF_8).equals(deviceId);
+            if (key[i] != deviceId.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private TelemetryRejectReason parseJson(byte[] payload, TelemetryEvent event) {
+        try {
+            return jsonParser.parse(payload, event);
+        } catch (IOException e) {
+            return TelemetryRejectReason.MALFORMED_JSON;
+        }
+    }
+
+    @Override
+    public TypeInformation<TelemetryRecord> getProducedType() {
+        return TypeInformation.of(TelemetryRecord.class);
+    }
+}
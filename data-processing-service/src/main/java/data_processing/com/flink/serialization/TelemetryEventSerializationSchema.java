@@ -0,0 +1,72 @@
+package data_processing.com.flink.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.serialization.SerializationSchema;
+import org.apache.flink.connector.kafka.sink.KafkaRecordSerializationSchema;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes validated telemetry to the processed topic, keyed by device ID.
+ * The key comes from the POJO and the value is serialized once by a writer shared for the subtask.
+ * With {@link TelemetryFormat#BINARY} the value uses {@link TelemetryBinaryCodec}; events whose
+ * device ID is not a UUID fall back to JSON, which consumers detect per record.
+ */
+public class TelemetryEventSerializationSchema implements KafkaRecordSerializationSchema<TelemetryEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TelemetryEventSerializationSchema.class);
+
+    private final String topic;
+    private final TelemetryFormat format;
+    private transient ObjectWriter writer;
+
+    public TelemetryEventSerializationSchema(String topic) {
+        this(topic, TelemetryFormat.JSON);
+    }
+
+    public TelemetryEventSerializationSchema(String topic, TelemetryFormat format) {
+        this.topic = topic;
+        this.format = format;
+    }
+
+    @Override
+    public void open(SerializationSchema.InitializationContext context, KafkaSinkContext sinkContext) {
+        writer = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+                .writerFor(TelemetryEvent.class);
+    }
+
+    @Nullable
+    @Override
+    public ProducerRecord<byte[], byte[]> serialize(TelemetryEvent element, KafkaSinkContext context, Long timestamp) {
+        try {
+            return new ProducerRecord<>(
+                    topic,
+                    null,
+                    timestamp,
+                    element.getDeviceId().getBytes(StandardCharsets.UTF_8),
+                    serializeValue(element)
+            );
+        } catch (IOException e) {
+            LOG.error("Failed to serialize telemetry for Kafka, device {}", element.getDeviceId(), e);
+            return null;
+        }
+    }
+
+    private byte[] serializeValue(TelemetryEvent element) throws IOException {
+        if (format == TelemetryFormat.BINARY && TelemetryBinaryCodec.canEncode(element)) {
+            return TelemetryBinaryCodec.encode(element);
+        }
+        return writer.writeValueAsBytes(element);
+    }
+}
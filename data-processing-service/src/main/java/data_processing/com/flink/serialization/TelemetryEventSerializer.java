@@ -0,0 +1,240 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSchemaCompatibility;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.core.memory.DataInputView;
+import org.apache.flink.core.memory.DataOutputView;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flink serializer for {@link TelemetryEvent}, used for network shuffles and keyed state.
+ * Layout (format version 1): a 16-bit presence mask, the device ID as two longs when it is a
+ * canonical UUID (modified UTF-8 otherwise), the timestamp as epoch millis plus an int of
+ * sub-millisecond nanos only when non-zero, then the primitive doubles that are present.
+ * A typical reading takes 42 bytes.
+ *
+ * <p>To change the layout, bump {@link #FORMAT_VERSION} and keep reading the old version in
+ * {@link #deserialize(TelemetryEvent, DataInputView)}; restored state is then migrated by Flink.
+ */
+public final class TelemetryEventSerializer extends TypeSerializer<TelemetryEvent> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int FORMAT_VERSION = 1;
+    public static final TelemetryEventSerializer INSTANCE = new TelemetryEventSerializer(FORMAT_VERSION);
+
+    private static final int DEVICE_ID_PRESENT = 1;
+    private static final int DEVICE_ID_UUID = 1 << 1;
+    private static final int TIMESTAMP_PRESENT = 1 << 2;
+    private static final int TIMESTAMP_SUB_MILLIS = 1 << 3;
+    private static final int DATA_PRESENT = 1 << 4;
+    private static final int CURRENT_TEMPERATURE = 1 << 5;
+    private static final int TARGET_TEMPERATURE = 1 << 6;
+    private static final int HEATING_PRESENT = 1 << 7;
+    private static final int HEATING_ON = 1 << 8;
+
+    // Layout this instance reads; it always writes FORMAT_VERSION
+    private final int readVersion;
+
+    TelemetryEventSerializer(int readVersion) {
+        if (readVersion < 1 || readVersion > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported TelemetryEvent format version " + readVersion);
+        }
+        this.readVersion = readVersion;
+    }
+
+    @Override
+    public boolean isImmutableType() {
+        return false;
+    }
+
+    @Override
+    public TypeSerializer<TelemetryEvent> duplicate() {
+        return this;
+    }
+
+    @Override
+    public TelemetryEvent createInstance() {
+        return new TelemetryEvent();
+    }
+
+    @Override
+    public TelemetryEvent copy(TelemetryEvent from) {
+        return copy(from, createInstance());
+    }
+
+    @Override
+    public TelemetryEvent copy(TelemetryEvent from, TelemetryEvent reuse) {
+        reuse.setDeviceId(from.getDeviceId());
+        reuse.setTimestamp(from.getTimestamp());
+
+        SensorData data = from.getData();
+        if (data == null) {
+            reuse.setData(null);
+        } else {
+            SensorData target = reuse.getData() != null ? reuse.getData() : new SensorData();
+            target.setCurrentTemperature(data.getCurrentTemperature());
+            target.setTargetTemperature(data.getTargetTemperature());
+            target.setHeatingStatus(data.getHeatingStatus());
+            reuse.setData(target);
+        }
+        return reuse;
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public void serialize(TelemetryEvent event, DataOutputView target) throws IOException {
+        String deviceId = event.getDeviceId();
+        boolean uuid = deviceId != null && DeviceIds.isCanonicalUuid(deviceId);
+        Instant timestamp = event.getTimestamp();
+        int subMillisNanos = timestamp == null ? 0 : timestamp.getNano() % 1_000_000;
+        SensorData data = event.getData();
+
+        int flags = 0;
+        if (deviceId != null) flags |= DEVICE_ID_PRESENT;
+        if (uuid) flags |= DEVICE_ID_UUID;
+        if (timestamp != null) flags |= TIMESTAMP_PRESENT;
+        if (subMillisNanos != 0) flags |= TIMESTAMP_SUB_MILLIS;
+        if (data != null) {
+            flags |= DATA_PRESENT;
+            if (data.getCurrentTemperature() != null) flags |= CURRENT_TEMPERATURE;
+            if (data.getTargetTemperature() != null) flags |= TARGET_TEMPERATURE;
+            if (data.getHeatingStatus() != null) flags |= HEATING_PRESENT;
+            if (Boolean.TRUE.equals(data.getHeatingStatus())) flags |= HEATING_ON;
+        }
+        target.writeShort(flags);
+
+        if (uuid) {
+            target.writeLong(DeviceIds.mostSignificantBits(deviceId));
+            target.writeLong(DeviceIds.leastSignificantBits(deviceId));
+        } else if (deviceId != null) {
+            target.writeUTF(deviceId);
+        }
+
+        if (timestamp != null) {
+            target.writeLong(timestamp.toEpochMilli());
+            if (subMillisNanos != 0) target.writeInt(subMillisNanos);
+        }
+
+        if ((flags & CURRENT_TEMPERATURE) != 0) target.writeDouble(data.getCurrentTemperature());
+        if ((flags & TARGET_TEMPERATURE) != 0) target.writeDouble(data.getTargetTemperature());
+    }
+
+    @Override
+    public TelemetryEvent deserialize(DataInputView source) throws IOException {
+        return deserialize(createInstance(), source);
+    }
+
+    @Override
+    public TelemetryEvent deserialize(TelemetryEvent reuse, DataInputView source) throws IOException {
+        // readVersion == 1 is the only layout so far
+        int flags = source.readUnsignedShort();
+
+        if ((flags & DEVICE_ID_UUID) != 0) {
+            reuse.setDeviceId(new UUID(source.readLong(), source.readLong()).toString());
+        } else if ((flags & DEVICE_ID_PRESENT) != 0) {
+            reuse.setDeviceId(source.readUTF());
+        } else {
+            reuse.setDeviceId(null);
+        }
+
+        if ((flags & TIMESTAMP_PRESENT) != 0) {
+            long epochMillis = source.readLong();
+            int subMillisNanos = (flags & TIMESTAMP_SUB_MILLIS) != 0 ? source.readInt() : 0;
+            reuse.setTimestamp(Instant.ofEpochSecond(
+                    Math.floorDiv(epochMillis, 1000L), Math.floorMod(epochMillis, 1000L) * 1_000_000L + subMillisNanos));
+        } else {
+            reuse.setTimestamp(null);
+        }
+
+        if ((flags & DATA_PRESENT) != 0) {
+            SensorData data = reuse.getData() != null ? reuse.getData() : new SensorData();
+            data.setCurrentTemperature((flags & CURRENT_TEMPERATURE) != 0 ? source.readDouble() : null);
+            data.setTargetTemperature((flags & TARGET_TEMPERATURE) != 0 ? source.readDouble() : null);
+            data.setHeatingStatus((flags & HEATING_PRESENT) != 0 ? (flags & HEATING_ON) != 0 : null);
+            reuse.setData(data);
+        } else {
+            reuse.setData(null);
+        }
+        return reuse;
+    }
+
+    @Override
+    public void copy(DataInputView source, DataOutputView target) throws IOException {
+        serialize(deserialize(source), target);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TelemetryEventSerializer other && other.readVersion == readVersion;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * TelemetryEventSerializer.class.hashCode() + readVersion;
+    }
+
+    @Override
+    public TypeSerializerSnapshot<TelemetryEvent> snapshotConfiguration() {
+        return new TelemetryEventSerializerSnapshot(FORMAT_VERSION);
+    }
+
+    /**
+     * Records the layout version that state was written with.
+     */
+    public static final class TelemetryEventSerializerSnapshot implements TypeSerializerSnapshot<TelemetryEvent> {
+
+        private static final int SNAPSHOT_VERSION = 1;
+
+        private int formatVersion;
+
+        @SuppressWarnings("unused")
+        public TelemetryEventSerializerSnapshot() {
+            // Used by Flink when reading the snapshot back
+        }
+
+        TelemetryEventSerializerSnapshot(int formatVersion) {
+            this.formatVersion = formatVersion;
+        }
+
+        @Override
+        public int getCurrentVersion() {
+            return SNAPSHOT_VERSION;
+        }
+
+        @Override
+        public void writeSnapshot(DataOutputView out) throws IOException {
+            out.writeInt(formatVersion);
+        }
+
+        @Override
+        public void readSnapshot(int readVersion, DataInputView in, ClassLoader userCodeClassLoader) throws IOException {
+            formatVersion = in.readInt();
+        }
+
+        @Override
+        public TypeSerializer<TelemetryEvent> restoreSerializer() {
+            return new TelemetryEventSerializer(formatVersion);
+        }
+
+        @Override
+        public TypeSerializerSchemaCompatibility<TelemetryEvent> resolveSchemaCompatibility(TypeSerializer<TelemetryEvent> newSerializer) {
+            if (!(newSerializer instanceof TelemetryEventSerializer) || formatVersion > FORMAT_VERSION) {
+                return TypeSerializerSchemaCompatibility.incompatible();
+            }
+            return formatVersion == FORMAT_VERSION
+                    ? TypeSerializerSchemaCompatibility.compatibleAsIs()
+                    : TypeSerializerSchemaCompatibility.compatibleAfterMigration();
+        }
+    }
+}
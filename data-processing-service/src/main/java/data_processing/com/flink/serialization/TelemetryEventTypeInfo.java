@@ -0,0 +1,81 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeInfoFactory;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * Makes Flink use {@link TelemetryEventSerializer} wherever a {@link TelemetryEvent} is shuffled or
+ * held in state. Registered on the model class through {@code @TypeInfo}.
+ */
+public class TelemetryEventTypeInfo extends TypeInformation<TelemetryEvent> {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public boolean isBasicType() {
+        return false;
+    }
+
+    @Override
+    public boolean isTupleType() {
+        return false;
+    }
+
+    @Override
+    public int getArity() {
+        return 1;
+    }
+
+    @Override
+    public int getTotalFields() {
+        return 1;
+    }
+
+    @Override
+    public Class<TelemetryEvent> getTypeClass() {
+        return TelemetryEvent.class;
+    }
+
+    @Override
+    public boolean isKeyType() {
+        return false;
+    }
+
+    @Override
+    public TypeSerializer<TelemetryEvent> createSerializer(ExecutionConfig config) {
+        return TelemetryEventSerializer.INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryEventTypeInfo";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof TelemetryEventTypeInfo;
+    }
+
+    @Override
+    public int hashCode() {
+        return TelemetryEventTypeInfo.class.hashCode();
+    }
+
+    @Override
+    public boolean canEqual(Object obj) {
+        return obj instanceof TelemetryEventTypeInfo;
+    }
+
+    public static class Factory extends TypeInfoFactory<TelemetryEvent> {
+        @Override
+        public TypeInformation<TelemetryEvent> createTypeInfo(Type t, Map<String, TypeInformation<?>> genericParameters) {
+            return new TelemetryEventTypeInfo();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package data_processing.com.flink.serialization;
+
+/**
+ * Wire format of a telemetry payload. Readers detect it per record from the first byte.
+ */
+public enum TelemetryFormat {
+    JSON,
+    BINARY
+}
@@ -0,0 +1,154 @@
+package data_processing.com.flink.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRejectReason;
+
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Single-pass telemetry parser on top of the Jackson token stream.
+ * Fields are checked as they are read and parsing stops at the first violation, returning the
+ * reason instead of throwing. Only syntactically broken JSON surfaces as an {@link IOException}
+ * from Jackson itself. Unknown fields are skipped, as with {@code @JsonIgnoreProperties}.
+ */
+public class TelemetryJsonParser {
+
+    // Timestamps must fit epoch millis, which every sink and the binary formats use
+    private static final long MAX_EPOCH_SECONDS = Long.MAX_VALUE / 1000 - 1;
+
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Parses {@code payload} into {@code target}.
+     *
+     * @return {@code null} if the payload is a valid event, otherwise the first violation found
+     */
+    public TelemetryRejectReason parse(byte[] payload, TelemetryEvent target) throws IOException {
+        try (JsonParser parser = factory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return TelemetryRejectReason.NOT_AN_OBJECT;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                TelemetryRejectReason reason = switch (field) {
+                    case "deviceId" -> readDeviceId(parser, value, target);
+                    case "timestamp" -> readTimestamp(parser, value, target);
+                    case "data" -> readData(parser, value, target);
+                    default -> {
+                        parser.skipChildren();
+                        yield null;
+                    }
+                };
+                if (reason != null) return reason;
+            }
+
+            if (target.getDeviceId() == null) return TelemetryRejectReason.MISSING_DEVICE_ID;
+            if (target.getTimestamp() == null) return TelemetryRejectReason.MISSING_TIMESTAMP;
+            if (target.getData() == null) return TelemetryRejectReason.MISSING_DATA;
+            if (target.getData().getCurrentTemperature() == null) return TelemetryRejectReason.MISSING_CURRENT_TEMPERATURE;
+            return null;
+        }
+    }
+
+    private static TelemetryRejectReason readDeviceId(JsonParser parser, JsonToken value, TelemetryEvent target) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value != JsonToken.VALUE_STRING) return TelemetryRejectReason.INVALID_DEVICE_ID;
+
+        String deviceId = parser.getText();
+        //Security Check: Null Byte Injection
+        if (deviceId.isBlank() || deviceId.indexOf('\0') >= 0) return TelemetryRejectReason.INVALID_DEVICE_ID;
+
+        target.setDeviceId(deviceId);
+        return null;
+    }
+
+    private static TelemetryRejectReason readTimestamp(JsonParser parser, JsonToken value, TelemetryEvent target) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+
+        Instant timestamp = switch (value) {
+            case VALUE_STRING -> parseIsoInstant(parser.getText());
+            // Numeric timestamps are epoch seconds, as Jackson's InstantDeserializer reads them
+            case VALUE_NUMBER_INT -> fromEpochSeconds(parser.getLongValue(), 0);
+            case VALUE_NUMBER_FLOAT -> fromEpochSeconds(parser.getDoubleValue());
+            default -> null;
+        };
+        if (timestamp == null) return TelemetryRejectReason.INVALID_TIMESTAMP;
+
+        target.setTimestamp(timestamp);
+        return null;
+    }
+
+    private static TelemetryRejectReason readData(JsonParser parser, JsonToken value, TelemetryEvent target) throws IOException {
+        if (value == JsonToken.VALUE_NULL) return null;
+        if (value != JsonToken.START_OBJECT) return TelemetryRejectReason.INVALID_FIELD_TYPE;
+
+        SensorData data = new SensorData();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "currentTemperature" -> {
+                    if (!isNumberOrNull(token)) return TelemetryRejectReason.INVALID_FIELD_TYPE;
+                    data.setCurrentTemperature(token == JsonToken.VALUE_NULL ? null : parser.getDoubleValue());
+                }
+                case "targetTemperature" -> {
+                    if (!isNumberOrNull(token)) return TelemetryRejectReason.INVALID_FIELD_TYPE;
+                    data.setTargetTemperature(token == JsonToken.VALUE_NULL ? null : parser.getDoubleValue());
+                }
+                case "heatingStatus" -> {
+                    switch (token) {
+                        case VALUE_TRUE -> data.setHeatingStatus(Boolean.TRUE);
+                        case VALUE_FALSE -> data.setHeatingStatus(Boolean.FALSE);
+                        case VALUE_NULL -> data.setHeatingStatus(null);
+                        case VALUE_NUMBER_INT -> data.setHeatingStatus(parser.getIntValue() != 0);
+                        default -> {
+                            return TelemetryRejectReason.INVALID_FIELD_TYPE;
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        target.setData(data);
+        return null;
+    }
+
+    private static boolean isNumberOrNull(JsonToken token) {
+        return token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NULL;
+    }
+
+    /**
+     * Parses an ISO-8601 instant (with {@code Z} or an offset) without throwing on bad input.
+     */
+    private static Instant parseIsoInstant(String text) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = DateTimeFormatter.ISO_INSTANT.parseUnresolved(text, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return null;
+        }
+        return fromEpochSeconds(parsed.getLong(ChronoField.INSTANT_SECONDS), parsed.getLong(ChronoField.NANO_OF_SECOND));
+    }
+
+    private static Instant fromEpochSeconds(double seconds) {
+        if (!Double.isFinite(seconds)) return null;
+        double whole = Math.floor(seconds);
+        return fromEpochSeconds((long) whole, Math.round((seconds - whole) * 1_000_000_000d));
+    }
+
+    private static Instant fromEpochSeconds(long seconds, long nanos) {
+        if (seconds < -MAX_EPOCH_SECONDS || seconds > MAX_EPOCH_SECONDS) return null;
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,55 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.streaming.api.operators.ProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackfillRouterTest {
+
+    private static final long LAG_MS = 60_000L;
+    private static final long NOW = 1_714_564_800_000L;
+
+    private OneInputStreamOperatorTestHarness<TelemetryEvent, TelemetryEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new OneInputStreamOperatorTestHarness<>(new ProcessOperator<>(new DataProcessingJob.BackfillRouter(LAG_MS)));
+        harness.open();
+        harness.setProcessingTime(NOW);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldRouteReadingsByEventTimeLag() throws Exception {
+        process(NOW - 1_000);
+        process(NOW - LAG_MS);
+        process(NOW - LAG_MS - 1);
+        process(NOW - 3_600_000);
+        process(NOW + 5_000);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getTimestamp().toEpochMilli())
+                .containsExactly(NOW - 1_000, NOW - LAG_MS, NOW + 5_000);
+        assertThat(harness.getSideOutput(DataProcessingJob.BACKFILL_EVENTS_TAG))
+                .extracting(record -> record.getValue().getTimestamp().toEpochMilli())
+                .containsExactly(NOW - LAG_MS - 1, NOW - 3_600_000);
+    }
+
+    private void process(long timestamp) throws Exception {
+        harness.processElement(new StreamRecord<>(new TelemetryEvent("device-1", Instant.ofEpochMilli(timestamp),
+                new SensorData(21.0, 22.0, true)), timestamp));
+    }
+}
@@ -0,0 +1,114 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.DeviceLifecycleEvent;
+import data_processing.com.flink.model.DeviceRateLimit;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRecord;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.utils.ParameterTool;
+import org.apache.flink.runtime.state.KeyGroupRangeAssignment;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.api.graph.StreamGraph;
+import org.apache.flink.streaming.api.graph.StreamNode;
+import org.apache.flink.streaming.api.operators.ProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DevicePartitioningCheckTest {
+
+    private static final int MAX_PARALLELISM = 128;
+    private static final int PARALLELISM = 3;
+
+    // Key group owners as computed by flink_subtask() in mqtt-kafka-bridge/bridge.py.
+    // If Flink changes its key group assignment, the bridge's partitioning no longer matches the job.
+    private static final Map<String, Integer> BRIDGE_OWNERS = Map.of(
+            "0fd630f1-f29d-0da9-953f-48f1a09f76b5", 0,
+            "d23f0824-128b-2f33-0c5c-7fd0a6a3a450", 1,
+            "6513270e-269e-0d37-f2a7-4de452e6b438", 2,
+            "device-1", 0);
+
+    @Test
+    void keyGroupAssignment_shouldMatchTheBridge() {
+        BRIDGE_OWNERS.forEach((deviceId, owner) -> assertThat(
+                KeyGroupRangeAssignment.assignKeyToParallelOperator(deviceId, MAX_PARALLELISM, PARALLELISM))
+                .as("owner of %s", deviceId)
+                .isEqualTo(owner));
+    }
+
+    @Test
+    void shouldForwardReadingsOfDevicesOwnedByThisSubtask() throws Exception {
+        try (OneInputStreamOperatorTestHarness<TelemetryEvent, TelemetryEvent> harness = harness(0)) {
+            harness.processElement(event("0fd630f1-f29d-0da9-953f-48f1a09f76b5"));
+            harness.processElement(event("device-1"));
+
+            assertThat(harness.extractOutputValues())
+                    .extracting(TelemetryEvent::getDeviceId)
+                    .containsExactly("0fd630f1-f29d-0da9-953f-48f1a09f76b5", "device-1");
+        }
+    }
+
+    @Test
+    void shouldDivertReadingOfDeviceOwnedByAnotherSubtask() throws Exception {
+        try (OneInputStreamOperatorTestHarness<TelemetryEvent, TelemetryEvent> harness = harness(0)) {
+            harness.processElement(event("6513270e-269e-0d37-f2a7-4de452e6b438"));
+            harness.processElement(event("device-1"));
+
+            assertThat(harness.extractOutputValues())
+                    .extracting(TelemetryEvent::getDeviceId)
+                    .containsExactly("device-1");
+            assertThat(harness.getSideOutput(DataProcessingJob.MISROUTED_EVENTS_TAG))
+                    .extracting(record -> record.getValue().getDeviceId())
+                    .containsExactly("6513270e-269e-0d37-f2a7-4de452e6b438");
+        }
+    }
+
+    @Test
+    void prekeyedPipeline_shouldReachKeyedOperatorsWithoutShuffle() {
+        StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(PARALLELISM);
+        DataProcessingJob.buildTelemetryPipeline(
+                env.fromCollection(Collections.emptyList(), TypeInformation.of(TelemetryRecord.class)),
+                env.fromCollection(Collections.emptyList(), TypeInformation.of(DeviceLifecycleEvent.class)),
+                env.fromCollection(Collections.emptyList(), TypeInformation.of(DeviceRateLimit.class)),
+                ParameterTool.fromMap(Map.of(
+                        "influxdb.url", "http://localhost:8086",
+                        "influxdb.token", "secret",
+                        "influxdb.org", "iot",
+                        "influxdb.bucket", "telemetry",
+                        "telemetry.source.prekeyed", "true")));
+        StreamGraph graph = env.getStreamGraph();
+
+        for (String name : new String[]{"Rate Limiter", "Deduplicate", "Deadband Filter", "Presence Detector",
+                "Rollup 1m", "Rollup 5m", "Rollup 15m"}) {
+            StreamNode node = graph.getStreamNodes().stream()
+                    .filter(n -> n.getOperatorName().equals(name))
+                    .findFirst()
+                    .orElseThrow();
+            assertThat(node.getInEdges())
+                    .as("inputs of %s", name)
+                    .extracting(edge -> edge.getPartitioner().toString())
+                    .contains("FORWARD")
+                    .doesNotContain("HASH");
+        }
+    }
+
+    private static OneInputStreamOperatorTestHarness<TelemetryEvent, TelemetryEvent> harness(int subtask) throws Exception {
+        OneInputStreamOperatorTestHarness<TelemetryEvent, TelemetryEvent> harness = new OneInputStreamOperatorTestHarness<>(
+                new ProcessOperator<>(new DataProcessingJob.DevicePartitioningCheck()), MAX_PARALLELISM, PARALLELISM, subtask);
+        harness.open();
+        return harness;
+    }
+
+    private static StreamRecord<TelemetryEvent> event(String deviceId) {
+        return new StreamRecord<>(new TelemetryEvent(deviceId, Instant.ofEpochMilli(0),
+                new SensorData(21.0, 22.0, true)));
+    }
+}
@@ -0,0 +1,107 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.DevicePresenceEvent;
+import data_processing.com.flink.model.PresenceStatus;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DevicePresenceDetectorTest {
+
+    private static final long TIMEOUT_MS = 30_000L;
+
+    private KeyedOneInputStreamOperatorTestHarness<String, TelemetryEvent, DevicePresenceEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new KeyedOneInputStreamOperatorTestHarness<>(
+                new KeyedProcessOperator<>(new DataProcessingJob.DevicePresenceDetector(TIMEOUT_MS)),
+                TelemetryEvent::getDeviceId,
+                Types.STRING);
+        harness.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldEmitOnlineOnce_forSteadyTraffic() throws Exception {
+        for (long t = 0; t <= 60_000; t += 5_000) {
+            harness.setProcessingTime(t);
+            process("device-1");
+        }
+
+        assertThat(harness.extractOutputValues())
+                .extracting(DevicePresenceEvent::getDeviceId, DevicePresenceEvent::getStatus)
+                .containsExactly(tuple("device-1", PresenceStatus.ONLINE));
+        assertThat(harness.numProcessingTimeTimers()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEmitOffline_afterTimeoutWithoutReadings() throws Exception {
+        harness.setProcessingTime(0);
+        process("device-1");
+        harness.setProcessingTime(20_000);
+        process("device-1");
+
+        // The first timer fires early and is re-armed at lastSeen + timeout
+        harness.setProcessingTime(30_000);
+        assertThat(harness.extractOutputValues()).hasSize(1);
+
+        harness.setProcessingTime(50_000);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(DevicePresenceEvent::getStatus, DevicePresenceEvent::getChangedAt)
+                .containsExactly(
+                        tuple(PresenceStatus.ONLINE, Instant.ofEpochMilli(0)),
+                        tuple(PresenceStatus.OFFLINE, Instant.ofEpochMilli(50_000)));
+        assertThat(harness.numKeyedStateEntries()).isZero();
+    }
+
+    @Test
+    void shouldEmitOnlineAgain_whenDeviceReturns() throws Exception {
+        harness.setProcessingTime(0);
+        process("device-1");
+        harness.setProcessingTime(TIMEOUT_MS);
+        harness.setProcessingTime(TIMEOUT_MS + 1_000);
+        process("device-1");
+
+        assertThat(harness.extractOutputValues())
+                .extracting(DevicePresenceEvent::getStatus)
+                .containsExactly(PresenceStatus.ONLINE, PresenceStatus.OFFLINE, PresenceStatus.ONLINE);
+    }
+
+    @Test
+    void shouldTrackDevicesIndependently() throws Exception {
+        harness.setProcessingTime(0);
+        process("device-1");
+        harness.setProcessingTime(20_000);
+        process("device-2");
+        harness.setProcessingTime(TIMEOUT_MS);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(DevicePresenceEvent::getDeviceId, DevicePresenceEvent::getStatus)
+                .containsExactly(
+                        tuple("device-1", PresenceStatus.ONLINE),
+                        tuple("device-2", PresenceStatus.ONLINE),
+                        tuple("device-1", PresenceStatus.OFFLINE));
+    }
+
+    private void process(String deviceId) throws Exception {
+        harness.processElement(new StreamRecord<>(
+                new TelemetryEvent(deviceId, Instant.EPOCH, new SensorData(20.0, null, null))));
+    }
+}
@@ -0,0 +1,95 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.DeviceRateLimit;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.streaming.api.operators.co.CoBroadcastWithKeyedOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedTwoInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeviceRateLimiterTest {
+
+    private KeyedTwoInputStreamOperatorTestHarness<String, TelemetryEvent, DeviceRateLimit, TelemetryEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new KeyedTwoInputStreamOperatorTestHarness<>(
+                new CoBroadcastWithKeyedOperator<>(
+                        new DataProcessingJob.DeviceRateLimiter(1.0, 2, 2, 600_000L),
+                        List.of(DataProcessingJob.RATE_LIMIT_OVERRIDES)),
+                TelemetryEvent::getDeviceId,
+                limit -> limit.getDeviceId(),
+                Types.STRING);
+        harness.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldLimitEachDeviceSeparately_andSampleDroppedReadings() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            process("device-1", 10 * i);
+        }
+        process("device-2", 0);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getDeviceId() + "@" + e.getTimestamp().toEpochMilli())
+                .containsExactly("device-1@0", "device-1@10", "device-2@0");
+        // Three refusals, every second one sampled starting with the first
+        assertThat(harness.getSideOutput(DataProcessingJob.RATE_LIMITED_EVENTS_TAG))
+                .extracting(record -> record.getValue().getTimestamp().toEpochMilli())
+                .containsExactly(20L, 40L);
+    }
+
+    @Test
+    void shouldRefillWithProcessingTime_notWithTheTimestampsTheDeviceSends() throws Exception {
+        harness.setProcessingTime(1_000);
+        process("device-1", 0);
+        process("device-1", 1);
+        // A device stepping its clock forward earns nothing
+        process("device-1", 3_600_000);
+        process("device-1", 7_200_000);
+
+        harness.setProcessingTime(2_000);
+        process("device-1", 7_200_001);
+        process("device-1", 7_200_002);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getTimestamp().toEpochMilli())
+                .containsExactly(0L, 1L, 7_200_001L);
+    }
+
+    @Test
+    void shouldApplyAndRemoveBroadcastOverrides() throws Exception {
+        harness.processElement2(new StreamRecord<>(new DeviceRateLimit("device-1", 100.0, 5)));
+        for (int i = 0; i < 5; i++) {
+            process("device-1", i);
+        }
+        harness.processElement2(new StreamRecord<>(new DeviceRateLimit("device-2", 100.0, 5)));
+        harness.processElement2(new StreamRecord<>(new DeviceRateLimit("device-2", null, null)));
+        for (int i = 0; i < 5; i++) {
+            process("device-2", i);
+        }
+
+        assertThat(harness.extractOutputValues())
+                .extracting(TelemetryEvent::getDeviceId)
+                .containsExactly("device-1", "device-1", "device-1", "device-1", "device-1", "device-2", "device-2");
+    }
+
+    private void process(String deviceId, long timestamp) throws Exception {
+        harness.processElement1(new StreamRecord<>(new TelemetryEvent(deviceId, Instant.ofEpochMilli(timestamp),
+                new SensorData(21.0, 22.0, true)), timestamp));
+    }
+}
@@ -0,0 +1,184 @@
+package data_processing.com.flink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import data_processing.com.flink.model.DeviceDeleteEvent;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.utils.ParameterTool;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InfluxDbDeleteSinkTest {
+
+    private static final String DEVICE_ID = "123e4567-e89b-12d3-a456-426614174000";
+    private static final long DAY_MS = 86_400_000L;
+    private static final long NOW = 1000 * DAY_MS;
+    private static final long COALESCE_MS = 10_000L;
+    private static final long POLL_MS = 1_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockFirstRequest;
+    private HttpServer server;
+    private KeyedOneInputStreamOperatorTestHarness<String, DeviceDeleteEvent, Void> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v2/delete", exchange -> {
+            try (exchange) {
+                String bucket = exchange.getRequestURI().getQuery().replaceAll(".*bucket=", "");
+                requests.add(bucket + " " + new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                if (blockFirstRequest && requests.size() == 1) {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                exchange.sendResponseHeaders(failuresLeft.getAndDecrement() > 0 ? 503 : 204, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        if (harness != null) harness.close();
+        server.stop(0);
+    }
+
+    @Test
+    void shouldCoalesceDuplicatesIntoOneDeleteOfTheWholeHistoryPerBucket() throws Exception {
+        open(true);
+
+        harness.setProcessingTime(NOW);
+        harness.processElement(purge(DEVICE_ID));
+        harness.processElement(purge(DEVICE_ID));
+        harness.setProcessingTime(NOW + COALESCE_MS);
+        awaitPurged();
+
+        assertThat(requests).hasSize(2);
+        Map<String, JsonNode> bodies = new HashMap<>();
+        for (String request : requests) {
+            int space = request.indexOf(' ');
+            bodies.put(request.substring(0, space), objectMapper.readTree(request.substring(space + 1)));
+        }
+        assertThat(bodies).containsOnlyKeys("telemetry", "rollups").allSatisfy((bucket, body) -> {
+            // Buckets may keep data forever and devices stamp their own readings, so nothing bounds the start
+            assertThat(Instant.parse(body.get("start").asText())).isEqualTo(Instant.EPOCH);
+            assertThat(Instant.parse(body.get("stop").asText())).isEqualTo(Instant.ofEpochMilli(NOW + COALESCE_MS + DAY_MS));
+        });
+        assertThat(bodies.get("rollups").get("predicate").asText()).isEqualTo("\"deviceId\"=\"" + DEVICE_ID + "\"");
+    }
+
+    @Test
+    void shouldRetryFailedDeletesUntilTheySucceed() throws Exception {
+        open(false);
+        failuresLeft.set(2);
+
+        harness.setProcessingTime(NOW);
+        harness.processElement(purge(DEVICE_ID));
+        harness.setProcessingTime(NOW + COALESCE_MS);
+        awaitPurged();
+
+        assertThat(requests).hasSize(3).allSatisfy(request -> {
+            assertThat(request).startsWith("telemetry ");
+            JsonNode body = objectMapper.readTree(request.substring("telemetry ".length()));
+            assertThat(body.get("predicate").asText())
+                    .isEqualTo("_measurement=\"telemetry\" AND \"deviceId\"=\"" + DEVICE_ID + "\"");
+        });
+    }
+
+    @Test
+    void shouldDeleteAgain_whenRequestArrivesWhileDeleteIsInFlight() throws Exception {
+        open(false);
+        blockFirstRequest = true;
+
+        harness.setProcessingTime(NOW);
+        harness.processElement(purge(DEVICE_ID));
+        harness.setProcessingTime(NOW + COALESCE_MS);
+        await(() -> requests.size() == 1);
+
+        // Arrives while the first delete is running, whose range ends before this request's now
+        harness.processElement(purge(DEVICE_ID));
+        release.countDown();
+        awaitPurged();
+
+        assertThat(requests).hasSize(2);
+        JsonNode first = objectMapper.readTree(requests.get(0).substring("telemetry ".length()));
+        JsonNode second = objectMapper.readTree(requests.get(1).substring("telemetry ".length()));
+        assertThat(Instant.parse(first.get("stop").asText())).isEqualTo(Instant.ofEpochMilli(NOW + COALESCE_MS + DAY_MS));
+        assertThat(Instant.parse(second.get("stop").asText())).isAfter(Instant.parse(first.get("stop").asText()));
+    }
+
+    @Test
+    void shouldIgnoreInvalidDeviceIds() throws Exception {
+        open(true);
+
+        harness.setProcessingTime(NOW);
+        harness.processElement(purge("\") |> drop(columns: [\"_value\"])"));
+        harness.setProcessingTime(NOW + COALESCE_MS + POLL_MS);
+
+        assertThat(harness.numKeyedStateEntries()).isZero();
+        assertThat(requests).isEmpty();
+    }
+
+    private void open(boolean rollups) throws Exception {
+        ParameterTool params = ParameterTool.fromMap(Map.of(
+                "influxdb.url", "http://127.0.0.1:" + server.getAddress().getPort(),
+                "influxdb.token", "secret",
+                "influxdb.org", "iot",
+                "influxdb.bucket", "telemetry",
+                "influxdb.rollup.bucket", "rollups",
+                "telemetry.rollup.enabled", String.valueOf(rollups),
+                "influxdb.purge.coalesce.ms", String.valueOf(COALESCE_MS),
+                "influxdb.purge.poll.ms", String.valueOf(POLL_MS),
+                "influxdb.purge.backoff.initial.ms", "100",
+                "influxdb.purge.backoff.max.ms", "1000"));
+        harness = new KeyedOneInputStreamOperatorTestHarness<>(
+                new KeyedProcessOperator<>(new DataProcessingJob.InfluxDbDeleteSink(params)),
+                DeviceDeleteEvent::getDeviceId,
+                Types.STRING);
+        harness.open();
+    }
+
+    // Deletes complete on the HTTP client's threads, so processing time is advanced until the state is gone
+    private void awaitPurged() throws Exception {
+        await(() -> harness.numKeyedStateEntries() == 0);
+    }
+
+    private void await(BooleanSupplier condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for the purge").isLessThan(deadline);
+            Thread.sleep(10);
+            harness.setProcessingTime(harness.getProcessingTime() + POLL_MS);
+        }
+    }
+
+    private static StreamRecord<DeviceDeleteEvent> purge(String deviceId) {
+        return new StreamRecord<>(new DeviceDeleteEvent(deviceId, "PURGE"));
+    }
+}
@@ -0,0 +1,139 @@
+package data_processing.com.flink;
+
+import com.sun.net.httpserver.HttpServer;
+import data_processing.com.flink.influx.InfluxWriteException;
+import data_processing.com.flink.model.LineProtocolBatch;
+import org.apache.flink.api.java.utils.ParameterTool;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.util.MockStreamingRuntimeContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InfluxDbSinkFunctionTest {
+
+    private static final long OPEN_MS = 200L;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockFirstRequest;
+    private ExecutorService executor;
+    private HttpServer server;
+    private DataProcessingJob.InfluxDbSinkFunction sink;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/v2/write", exchange -> {
+            try (exchange) {
+                requests.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                if (blockFirstRequest && requests.size() == 1) {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                Integer status = statuses.poll();
+                exchange.sendResponseHeaders(status == null ? 204 : status, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        if (sink != null) sink.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void rejectedHalfOpenProbe_shouldNotShedLaterBatches() throws Exception {
+        open(2);
+        statuses.add(503);
+        statuses.add(400);
+
+        // The 503 opens the breaker; the batch goes to the spill path
+        assertThat(write("a").get(5, TimeUnit.SECONDS)).hasSize(1);
+        Thread.sleep(OPEN_MS + 50);
+
+        // The half-open probe is answered with a permanent error
+        CompletableFuture<Collection<LineProtocolBatch>> probe = write("b");
+        assertThat(probe).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .withRootCauseInstanceOf(InfluxWriteException.class);
+
+        assertThat(write("c").get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(requests).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void timedOutQueuedBatch_shouldNotBeSentLater() throws Exception {
+        open(1);
+        blockFirstRequest = true;
+
+        CompletableFuture<Collection<LineProtocolBatch>> first = write("a");
+        LineProtocolBatch queued = new LineProtocolBatch("b", 1);
+        TestResultFuture queuedFuture = new TestResultFuture();
+        sink.asyncInvoke(queued, queuedFuture);
+
+        sink.timeout(queued, queuedFuture);
+        assertThat(queuedFuture.result.get(5, TimeUnit.SECONDS)).containsExactly(queued);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(write("c").get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(requests).containsExactly("a", "c");
+    }
+
+    private void open(int capacity) throws Exception {
+        ParameterTool params = ParameterTool.fromMap(Map.of(
+                "influxdb.url", "http://127.0.0.1:" + server.getAddress().getPort(),
+                "influxdb.token", "secret",
+                "influxdb.org", "iot",
+                "influxdb.breaker.failure.threshold", "1",
+                "influxdb.breaker.open.ms", String.valueOf(OPEN_MS)));
+        sink = new DataProcessingJob.InfluxDbSinkFunction(params, "telemetry", capacity, true);
+        sink.setRuntimeContext(new MockStreamingRuntimeContext(false, 1, 0));
+        sink.open(new Configuration());
+    }
+
+    private CompletableFuture<Collection<LineProtocolBatch>> write(String lines) {
+        TestResultFuture resultFuture = new TestResultFuture();
+        sink.asyncInvoke(new LineProtocolBatch(lines, 1), resultFuture);
+        return resultFuture.result;
+    }
+
+    private static final class TestResultFuture implements ResultFuture<LineProtocolBatch> {
+        private final CompletableFuture<Collection<LineProtocolBatch>> result = new CompletableFuture<>();
+
+        @Override
+        public void complete(Collection<LineProtocolBatch> batches) {
+            result.complete(batches);
+        }
+
+        @Override
+        public void completeExceptionally(Throwable error) {
+            result.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.DeviceLifecycleEvent;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.state.MapStateDescriptor;
+import org.apache.flink.streaming.api.operators.co.CoBroadcastWithNonKeyedOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.TwoInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedDeviceFilterTest {
+
+    private static final long PURGED_TTL_MS = 1_000L;
+
+    private CoBroadcastWithNonKeyedOperator<TelemetryEvent, DeviceLifecycleEvent, TelemetryEvent> operator;
+    private TwoInputStreamOperatorTestHarness<TelemetryEvent, DeviceLifecycleEvent, TelemetryEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        operator = new CoBroadcastWithNonKeyedOperator<>(
+                new DataProcessingJob.RevokedDeviceFilter(PURGED_TTL_MS),
+                List.of(DataProcessingJob.REVOKED_DEVICES, DataProcessingJob.PURGED_DEVICES));
+        harness = new TwoInputStreamOperatorTestHarness<>(operator);
+        harness.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldDropTelemetryOfRevokedDevicesOnly() throws Exception {
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-1", DeviceLifecycleEvent.DEACTIVATED, 1L)));
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-2", DeviceLifecycleEvent.DEACTIVATED, 2L)));
+
+        process("device-1");
+        process("device-2");
+        process("device-3");
+
+        assertThat(harness.extractOutputValues())
+                .extracting(TelemetryEvent::getDeviceId)
+                .containsExactly("device-3");
+    }
+
+    @Test
+    void shouldKeepPurgedDeviceRevoked_untilItsPurgeExpires() throws Exception {
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-1", DeviceLifecycleEvent.DEACTIVATED, 1L)));
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-2", DeviceLifecycleEvent.DEACTIVATED, 2L)));
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-1", DeviceLifecycleEvent.PURGED, 3L)));
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-3", DeviceLifecycleEvent.PURGED, 500L)));
+
+        // Replayed from before the purge
+        process("device-1");
+        assertThat(harness.extractOutputValues()).isEmpty();
+        assertThat(devices(DataProcessingJob.REVOKED_DEVICES)).containsExactly("device-2");
+        assertThat(devices(DataProcessingJob.PURGED_DEVICES)).containsExactlyInAnyOrder("device-1", "device-3");
+
+        // Any later lifecycle event sweeps the purges that have expired by its time
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-4", DeviceLifecycleEvent.DEACTIVATED, 3L + PURGED_TTL_MS)));
+        process("device-1");
+
+        assertThat(harness.extractOutputValues()).extracting(TelemetryEvent::getDeviceId).containsExactly("device-1");
+        assertThat(devices(DataProcessingJob.PURGED_DEVICES)).containsExactly("device-3");
+    }
+
+    @Test
+    void shouldPassTelemetryAgain_afterNonRevokingEvent() throws Exception {
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-1", DeviceLifecycleEvent.DEACTIVATED, 1L)));
+        process("device-1");
+
+        harness.processElement2(new StreamRecord<>(new DeviceLifecycleEvent("device-1", "ACTIVATED", 2L)));
+        process("device-1");
+
+        assertThat(harness.extractOutputValues()).hasSize(1);
+    }
+
+    private List<String> devices(MapStateDescriptor<String, Long> descriptor) throws Exception {
+        List<String> deviceIds = new ArrayList<>();
+        operator.getOperatorStateBackend().getBroadcastState(descriptor)
+                .immutableEntries().forEach(entry -> deviceIds.add(entry.getKey()));
+        return deviceIds;
+    }
+
+    private void process(String deviceId) throws Exception {
+        harness.processElement1(new StreamRecord<>(new TelemetryEvent(deviceId, Instant.ofEpochMilli(0),
+                new SensorData(21.0, 22.0, true)), 0));
+    }
+}
@@ -0,0 +1,88 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDeadbandFilterTest {
+
+    private static final long KEEP_ALIVE_MS = 60_000L;
+
+    private KeyedOneInputStreamOperatorTestHarness<String, TelemetryEvent, TelemetryEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new KeyedOneInputStreamOperatorTestHarness<>(
+                new KeyedProcessOperator<>(new DataProcessingJob.TelemetryDeadbandFilter(0.2, KEEP_ALIVE_MS)),
+                TelemetryEvent::getDeviceId,
+                Types.STRING);
+        harness.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldSuppressReadingsWithinDeadband() throws Exception {
+        process("device-1", 0, 21.0, 22.0, true);
+        process("device-1", 5_000, 21.1, 22.0, true);
+        process("device-1", 10_000, 20.9, 22.0, true);
+        process("device-1", 15_000, 21.3, 22.0, true);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getTimestamp().toEpochMilli())
+                .containsExactly(0L, 15_000L);
+    }
+
+    @Test
+    void shouldForwardSetpointAndHeatingChanges() throws Exception {
+        process("device-1", 0, 21.0, 22.0, true);
+        process("device-1", 5_000, 21.0, 23.0, true);
+        process("device-1", 10_000, 21.0, 23.0, false);
+        process("device-1", 15_000, 21.0, 23.0, false);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getTimestamp().toEpochMilli())
+                .containsExactly(0L, 5_000L, 10_000L);
+    }
+
+    @Test
+    void shouldForwardKeepAliveForUnchangedDevice() throws Exception {
+        for (long t = 0; t <= 120_000; t += 5_000) {
+            process("device-1", t, 21.0, 22.0, true);
+        }
+
+        assertThat(harness.extractOutputValues())
+                .extracting(e -> e.getTimestamp().toEpochMilli())
+                .containsExactly(0L, 60_000L, 120_000L);
+    }
+
+    @Test
+    void shouldTrackDevicesIndependently() throws Exception {
+        process("device-1", 0, 21.0, 22.0, true);
+        process("device-2", 0, 21.0, 22.0, true);
+        process("device-1", 5_000, 21.0, 22.0, true);
+
+        assertThat(harness.extractOutputValues())
+                .extracting(TelemetryEvent::getDeviceId)
+                .containsExactly("device-1", "device-2");
+    }
+
+    private void process(String deviceId, long timestamp, double current, double target, boolean heating) throws Exception {
+        TelemetryEvent event = new TelemetryEvent(deviceId, Instant.ofEpochMilli(timestamp),
+                new SensorData(current, target, heating));
+        harness.processElement(new StreamRecord<>(event, timestamp));
+    }
+}
@@ -0,0 +1,95 @@
+package data_processing.com.flink;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.streaming.api.operators.KeyedProcessOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDeduplicatorTest {
+
+    private static final long TTL_MS = 60_000L;
+    private static final long T0 = Instant.parse("2024-05-01T12:00:00Z").toEpochMilli();
+
+    private KeyedOneInputStreamOperatorTestHarness<String, TelemetryEvent, TelemetryEvent> harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        harness = new KeyedOneInputStreamOperatorTestHarness<>(
+                new KeyedProcessOperator<>(new DataProcessingJob.TelemetryDeduplicator(TTL_MS)),
+                TelemetryEvent::getDeviceId,
+                Types.STRING);
+        harness.open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void shouldDropReplayedReading_forSameDeviceAndTimestamp() throws Exception {
+        process(event("device-1", T0, 20.0));
+        process(event("device-1", T0, 20.0));
+        process(event("device-1", T0 + 5_000, 20.5));
+
+        assertThat(emittedTimestamps()).containsExactly(T0, T0 + 5_000);
+    }
+
+    @Test
+    void shouldKeepSameTimestamp_fromDifferentDevices() throws Exception {
+        process(event("device-1", T0, 20.0));
+        process(event("device-2", T0, 20.0));
+
+        assertThat(harness.extractOutputValues()).extracting(TelemetryEvent::getDeviceId)
+                .containsExactly("device-1", "device-2");
+    }
+
+    @Test
+    void shouldRouteReadingsBehindWatermark_toLateSideOutput() throws Exception {
+        harness.processWatermark(T0 + 10_000);
+
+        process(event("device-1", T0, 20.0));
+        process(event("device-1", T0 + 20_000, 21.0));
+
+        assertThat(emittedTimestamps()).containsExactly(T0 + 20_000);
+        assertThat(harness.getSideOutput(DataProcessingJob.LATE_EVENTS_TAG))
+                .extracting(record -> record.getValue().getTimestamp().toEpochMilli())
+                .containsExactly(T0);
+    }
+
+    @Test
+    void shouldAcceptReplay_afterTtlExpired() throws Exception {
+        harness.setStateTtlProcessingTime(0);
+        process(event("device-1", T0, 20.0));
+
+        harness.setStateTtlProcessingTime(TTL_MS + 1);
+        process(event("device-1", T0, 20.0));
+
+        assertThat(emittedTimestamps()).containsExactly(T0, T0);
+    }
+
+    private void process(TelemetryEvent event) throws Exception {
+        harness.processElement(new StreamRecord<>(event, event.getTimestamp().toEpochMilli()));
+    }
+
+    private List<Long> emittedTimestamps() {
+        return harness.extractOutputValues().stream()
+                .map(event -> event.getTimestamp().toEpochMilli())
+                .collect(Collectors.toList());
+    }
+
+    private static TelemetryEvent event(String deviceId, long timestamp, double temperature) {
+        return new TelemetryEvent(deviceId, Instant.ofEpochMilli(timestamp), new SensorData(temperature, null, null));
+    }
+}
@@ -0,0 +1,66 @@
+package data_processing.com.flink.benchmark;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import data_processing.com.flink.influx.TelemetryLineProtocolEncoder;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Line protocol for one telemetry event: client {@code Point} vs {@link TelemetryLineProtocolEncoder}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineProtocolEncoderBenchmark {
+
+    private TelemetryEvent event;
+    private StringBuilder buffer;
+
+    @Setup
+    public void setUp() {
+        event = new TelemetryEvent(
+                "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b",
+                Instant.parse("2024-05-01T12:00:00.123Z"),
+                new SensorData(21.75, 22.5, true));
+        buffer = new StringBuilder(256);
+    }
+
+    @Benchmark
+    public String point() {
+        SensorData data = event.getData();
+        Point point = Point.measurement("telemetry")
+                .addTag("deviceId", event.getDeviceId())
+                .addField("currentTemperature", data.getCurrentTemperature())
+                .addField("heatingStatus", Boolean.TRUE.equals(data.getHeatingStatus()) ? 1 : 0)
+                .time(event.getTimestamp(), WritePrecision.MS);
+        if (data.getTargetTemperature() != null) {
+            point.addField("targetTemperature", data.getTargetTemperature());
+        }
+        return point.toLineProtocol();
+    }
+
+    @Benchmark
+    public int encoder() {
+        buffer.setLength(0);
+        TelemetryLineProtocolEncoder.encode(event, buffer);
+        return buffer.length();
+    }
+}
@@ -0,0 +1,93 @@
+package data_processing.com.flink.benchmark;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.serialization.TelemetryEventSerializer;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.java.typeutils.PojoField;
+import org.apache.flink.api.java.typeutils.PojoTypeInfo;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.api.java.typeutils.runtime.kryo.KryoSerializer;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize + deserialize round trip of one {@link TelemetryEvent}, as paid on every shuffle and
+ * state access. Compares the custom serializer with Flink's POJO serializer and the Kryo fallback.
+ * The serialized size of each variant is printed once during setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// Kryo reflects into JDK classes
+@Fork(value = 1, jvmArgsAppend = {"--add-opens=java.base/java.util=ALL-UNNAMED", "--add-opens=java.base/java.time=ALL-UNNAMED"})
+public class TelemetryEventSerializerBenchmark {
+
+    @Param({"custom", "pojo", "kryo"})
+    public String serializerType;
+
+    private TypeSerializer<TelemetryEvent> serializer;
+    private TelemetryEvent event;
+    private DataOutputSerializer out;
+    private DataInputDeserializer in;
+
+    @Setup
+    public void setUp() throws IOException {
+        serializer = switch (serializerType) {
+            case "custom" -> TelemetryEventSerializer.INSTANCE;
+            case "pojo" -> pojoSerializer();
+            case "kryo" -> new KryoSerializer<>(TelemetryEvent.class, new ExecutionConfig());
+            default -> throw new IllegalArgumentException(serializerType);
+        };
+        event = new TelemetryEvent(
+                "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b",
+                Instant.parse("2024-05-01T12:00:00.123456Z"),
+                new SensorData(21.75, 22.5, true));
+        out = new DataOutputSerializer(256);
+        in = new DataInputDeserializer();
+
+        serializer.serialize(event, out);
+        System.out.printf("%n[%s] serialized size: %d bytes%n", serializerType, out.length());
+    }
+
+    @Benchmark
+    public TelemetryEvent roundTrip() throws IOException {
+        out.clear();
+        serializer.serialize(event, out);
+        in.setBuffer(out.getSharedBuffer(), 0, out.length());
+        return serializer.deserialize(in);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TypeSerializer<TelemetryEvent> pojoSerializer() {
+        try {
+            List<PojoField> fields = List.of(
+                    new PojoField(TelemetryEvent.class.getDeclaredField("deviceId"), BasicTypeInfo.STRING_TYPE_INFO),
+                    new PojoField(TelemetryEvent.class.getDeclaredField("timestamp"), BasicTypeInfo.INSTANT_TYPE_INFO),
+                    new PojoField(TelemetryEvent.class.getDeclaredField("data"), TypeExtractor.createTypeInfo(SensorData.class)));
+            return new PojoTypeInfo(TelemetryEvent.class, fields).createSerializer(new ExecutionConfig());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package data_processing.com.flink.benchmark;
+
+import data_processing.com.flink.DataProcessingJob;
+import data_processing.com.flink.model.DeviceDeleteEvent;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.serialization.TelemetryEventSerializationSchema;
+import data_processing.com.flink.serialization.TelemetryFormat;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The remaining per-record functions: the processed-topic serializer (JSON and binary), the deletion
+ * mapper and the purge device ID check. Invalid inputs exercise the rejection paths, which allocate
+ * an exception (mapper, sanitizer) and should stay rare in production.
+ * Run with {@code -prof gc} to see allocation per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryFunctionsBenchmark {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+
+    private TelemetryEvent event;
+    private TelemetryEventSerializationSchema jsonSchema;
+    private TelemetryEventSerializationSchema binarySchema;
+    private DataProcessingJob.JsonToPojoMapper<DeviceDeleteEvent> deleteMapper;
+    private String validDeleteJson;
+    private String invalidDeleteJson;
+
+    @Setup
+    public void setUp() {
+        event = new TelemetryEvent(DEVICE_ID, Instant.parse("2024-05-01T12:00:00.123Z"), new SensorData(21.37, 22.0, true));
+
+        jsonSchema = new TelemetryEventSerializationSchema("iot-telemetry-processed", TelemetryFormat.JSON);
+        jsonSchema.open(null, null);
+        binarySchema = new TelemetryEventSerializationSchema("iot-telemetry-processed", TelemetryFormat.BINARY);
+        binarySchema.open(null, null);
+
+        deleteMapper = new DataProcessingJob.JsonToPojoMapper<>(DeviceDeleteEvent.class);
+        deleteMapper.open(null);
+        validDeleteJson = "{\"deviceId\":\"" + DEVICE_ID + "\",\"action\":\"PURGE\"}";
+        invalidDeleteJson = "{\"deviceId\":\"" + DEVICE_ID + "\",\"action\":";
+    }
+
+    @Benchmark
+    public ProducerRecord<byte[], byte[]> processedSinkJson() {
+        return jsonSchema.serialize(event, null, 0L);
+    }
+
+    @Benchmark
+    public ProducerRecord<byte[], byte[]> processedSinkBinary() {
+        return binarySchema.serialize(event, null, 0L);
+    }
+
+    @Benchmark
+    public DeviceDeleteEvent jsonToPojoValid() {
+        return deleteMapper.map(validDeleteJson);
+    }
+
+    @Benchmark
+    public DeviceDeleteEvent jsonToPojoInvalid() {
+        return deleteMapper.map(invalidDeleteJson);
+    }
+
+    @Benchmark
+    public String sanitizeDeviceIdValid() {
+        return DataProcessingJob.InfluxDbDeleteSink.sanitizeDeviceId(DEVICE_ID);
+    }
+
+    @Benchmark
+    public Object sanitizeDeviceIdInvalid() {
+        try {
+            return DataProcessingJob.InfluxDbDeleteSink.sanitizeDeviceId("\") |> drop(columns: [\"_value\"])");
+        } catch (SecurityException e) {
+            return e;
+        }
+    }
+}
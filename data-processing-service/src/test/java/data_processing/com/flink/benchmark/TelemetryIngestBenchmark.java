@@ -0,0 +1,107 @@
+package data_processing.com.flink.benchmark;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRecord;
+import data_processing.com.flink.serialization.TelemetryBinaryCodec;
+import data_processing.com.flink.serialization.TelemetryDeserializationSchema;
+import org.apache.flink.util.Collector;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source-side parsing and validation of one raw Kafka record, i.e. the work {@code TelemetryValidator}
+ * and the JSON mapper used to do per record. Covers the simulator's JSON payload, the binary format,
+ * a rejected payload (bad timestamp, parsed almost to the end) and an oversized one.
+ * Run with {@code -prof gc} to see allocation per record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryIngestBenchmark {
+
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024;
+    private static final long MAX_FUTURE_SKEW_MS = 60_000L;
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+
+    @Param({"valid-json", "valid-binary", "invalid-json", "oversized"})
+    public String payload;
+
+    private TelemetryDeserializationSchema schema;
+    private ConsumerRecord<byte[], byte[]> consumerRecord;
+    private BlackholeCollector collector;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        schema = new TelemetryDeserializationSchema(MAX_PAYLOAD_BYTES, MAX_FUTURE_SKEW_MS);
+        schema.open(null);
+        consumerRecord = new ConsumerRecord<>("iot-telemetry-raw", 0, 42L,
+                DEVICE_ID.getBytes(StandardCharsets.UTF_8), payloadBytes(payload));
+        collector = new BlackholeCollector(blackhole);
+    }
+
+    @Benchmark
+    public void deserialize() throws Exception {
+        schema.deserialize(consumerRecord, collector);
+    }
+
+    private static byte[] payloadBytes(String kind) {
+        switch (kind) {
+            case "valid-json":
+                return json("2024-05-01T12:00:00.123456Z").getBytes(StandardCharsets.UTF_8);
+            case "valid-binary":
+                return TelemetryBinaryCodec.encode(new TelemetryEvent(DEVICE_ID,
+                        Instant.parse("2024-05-01T12:00:00.123Z"), new SensorData(21.37, 22.0, true)));
+            case "invalid-json":
+                return json("2024-13-01T12:00:00Z").getBytes(StandardCharsets.UTF_8);
+            case "oversized":
+                byte[] oversized = new byte[MAX_PAYLOAD_BYTES * 4];
+                Arrays.fill(oversized, (byte) ' ');
+                return oversized;
+            default:
+                throw new IllegalArgumentException("Unknown payload kind: " + kind);
+        }
+    }
+
+    // Same shape as simulators/device_simulator.py
+    private static String json(String timestamp) {
+        return "{\"deviceId\":\"" + DEVICE_ID + "\",\"timestamp\":\"" + timestamp + "\","
+                + "\"data\":{\"currentTemperature\":21.37,\"targetTemperature\":22.0,\"heatingStatus\":true}}";
+    }
+
+    private static final class BlackholeCollector implements Collector<TelemetryRecord> {
+        private final Blackhole blackhole;
+
+        BlackholeCollector(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void collect(TelemetryRecord record) {
+            blackhole.consume(record);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
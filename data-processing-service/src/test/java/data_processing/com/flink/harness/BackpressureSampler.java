@@ -0,0 +1,107 @@
+package data_processing.com.flink.harness;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.flink.api.common.JobID;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Polls the MiniCluster REST API for per-vertex back pressure while the job runs. For each vertex it
+ * keeps the highest back-pressured ratio of any subtask and the mean over all samples; the first
+ * vertex that is busy while its upstream is back-pressured is the bottleneck.
+ */
+public class BackpressureSampler implements AutoCloseable {
+
+    private static final long INTERVAL_MS = 1_000L;
+
+    private final URI restAddress;
+    private final JobID jobId;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, VertexStats> stats = new LinkedHashMap<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public BackpressureSampler(URI restAddress, JobID jobId) {
+        this.restAddress = restAddress;
+        this.jobId = jobId;
+        this.thread = new Thread(this::run, "backpressure-sampler");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public synchronized Map<String, VertexStats> snapshot() {
+        return new LinkedHashMap<>(stats);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                sample();
+                Thread.sleep(INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // The job may not be running yet or may have just finished; try again next round
+            }
+        }
+    }
+
+    private void sample() throws Exception {
+        JsonNode job = get("/jobs/" + jobId);
+        for (JsonNode vertex : job.path("vertices")) {
+            JsonNode backpressure = get("/jobs/" + jobId + "/vertices/" + vertex.path("id").asText() + "/backpressure");
+            if (!"ok".equals(backpressure.path("status").asText())) continue;
+
+            double max = 0;
+            for (JsonNode subtask : backpressure.path("subtasks")) {
+                max = Math.max(max, subtask.path("ratio").asDouble());
+            }
+            record(vertex.path("name").asText(), max);
+        }
+    }
+
+    private synchronized void record(String vertex, double ratio) {
+        stats.computeIfAbsent(vertex, v -> new VertexStats()).add(ratio);
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(restAddress.resolve(path)).timeout(Duration.ofSeconds(2)).GET().build();
+        return mapper.readTree(http.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(INTERVAL_MS * 2);
+    }
+
+    public static final class VertexStats {
+        private double max;
+        private double sum;
+        private int samples;
+
+        void add(double ratio) {
+            max = Math.max(max, ratio);
+            sum += ratio;
+            samples++;
+        }
+
+        public double max() {
+            return max;
+        }
+
+        public double mean() {
+            return samples == 0 ? 0 : sum / samples;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package data_processing.com.flink.harness;
+
+import org.apache.flink.streaming.api.functions.sink.SinkFunction;
+
+/**
+ * Stands in for a Kafka sink and only counts what reaches it, under {@code sink.<name>} in {@link HarnessMetrics}.
+ */
+public class CountingSink<T> implements SinkFunction<T> {
+
+    private final String counterName;
+
+    public CountingSink(String name) {
+        this.counterName = "sink." + name;
+    }
+
+    @Override
+    public void invoke(T value, Context context) {
+        HarnessMetrics.increment(counterName);
+    }
+}
@@ -0,0 +1,91 @@
+package data_processing.com.flink.harness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Local stand-in for the InfluxDB v2 write endpoint. Accepts every {@code /api/v2/write} request with
+ * 204 after an optional delay, counts raw and rollup points and reports each raw point to
+ * {@link HarnessMetrics} for latency. Serves requests on a pool sized like a real server would,
+ * so the job's async capacity, not the stand-in, is what limits concurrency.
+ */
+public class FakeInfluxServer implements AutoCloseable {
+
+    private static final String RAW_MEASUREMENT = "telemetry,";
+    private static final String ROLLUP_MEASUREMENT_PREFIX = "telemetry_";
+    private static final String DEVICE_TAG = "deviceId=";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long responseDelayMs;
+
+    public FakeInfluxServer(long responseDelayMs) throws IOException {
+        this.responseDelayMs = responseDelayMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(64);
+        server.createContext("/api/v2/write", this::handleWrite);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handleWrite(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            HarnessMetrics.increment(HarnessMetrics.INFLUX_REQUESTS);
+            readLines(exchange);
+            if (responseDelayMs > 0) {
+                Thread.sleep(responseDelayMs);
+            }
+            exchange.sendResponseHeaders(204, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders(503, -1);
+        }
+    }
+
+    private static void readLines(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RAW_MEASUREMENT)) {
+                    HarnessMetrics.increment(HarnessMetrics.INFLUX_TELEMETRY_POINTS);
+                    recordLatency(line);
+                } else if (line.startsWith(ROLLUP_MEASUREMENT_PREFIX)) {
+                    HarnessMetrics.increment(HarnessMetrics.INFLUX_ROLLUP_POINTS);
+                }
+            }
+        }
+    }
+
+    // Generator device IDs are UUIDs, so the tag value needs no unescaping
+    private static void recordLatency(String line) {
+        int tagStart = line.indexOf(DEVICE_TAG) + DEVICE_TAG.length();
+        int tagEnd = line.indexOf(' ', tagStart);
+        int timestampStart = line.lastIndexOf(' ') + 1;
+        HarnessMetrics.written(line.substring(tagStart, tagEnd), Long.parseLong(line.substring(timestampStart)));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
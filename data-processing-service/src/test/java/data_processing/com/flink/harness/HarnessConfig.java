@@ -0,0 +1,54 @@
+package data_processing.com.flink.harness;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.flink.api.java.utils.ParameterTool;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Load shape and cluster settings for one harness run. {@code jobParams} are merged over the
+ * harness defaults and reach {@code DataProcessingJob} unchanged, e.g. {@code influxdb.async.capacity}.
+ */
+@Getter
+@Builder
+public class HarnessConfig {
+
+    @Builder.Default private final int devices = 100;
+    @Builder.Default private final int eventsPerSecond = 5_000;
+    @Builder.Default private final int durationSeconds = 30;
+    /** Share of payloads that fail validation (bad timestamp). */
+    @Builder.Default private final double invalidShare = 0.01;
+    /** Share of readings stamped up to {@code maxSkewMs} in the past, as a reconnecting device would send them. */
+    @Builder.Default private final double outOfOrderShare = 0.05;
+    @Builder.Default private final long maxSkewMs = 10_000L;
+    /** Devices that replay a buffered backlog instead of sending live readings, as after a long outage. */
+    @Builder.Default private final int backlogDevices = 0;
+    /** How far behind live time a backlog starts; its readings are one second apart. */
+    @Builder.Default private final long backlogMs = 3_600_000L;
+    @Builder.Default private final int parallelism = 2;
+    /** Delay the fake InfluxDB adds to every write, to model a slow or remote server. */
+    @Builder.Default private final long influxResponseDelayMs = 0L;
+    @Builder.Default private final Map<String, String> jobParams = Collections.emptyMap();
+
+    public long totalEvents() {
+        return (long) eventsPerSecond * durationSeconds;
+    }
+
+    static HarnessConfig fromArgs(ParameterTool args) {
+        return HarnessConfig.builder()
+                .devices(args.getInt("devices", 100))
+                .eventsPerSecond(args.getInt("rate", 5_000))
+                .durationSeconds(args.getInt("seconds", 30))
+                .invalidShare(args.getDouble("invalid-share", 0.01))
+                .outOfOrderShare(args.getDouble("out-of-order-share", 0.05))
+                .maxSkewMs(args.getLong("max-skew-ms", 10_000L))
+                .backlogDevices(args.getInt("backlog-devices", 0))
+                .backlogMs(args.getLong("backlog-ms", 3_600_000L))
+                .parallelism(args.getInt("parallelism", 2))
+                .influxResponseDelayMs(args.getLong("influx-delay-ms", 0L))
+                .jobParams(args.toMap())
+                .build();
+    }
+}
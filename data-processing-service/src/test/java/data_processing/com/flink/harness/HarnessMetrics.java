@@ -0,0 +1,100 @@
+package data_processing.com.flink.harness;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JVM-wide counters and latency samples shared by the generator, the sinks and the fake InfluxDB.
+ * The MiniCluster runs in the same JVM, so plain static state is enough. Latency is measured from
+ * the moment the generator emits a reading to the moment its line arrives at the fake InfluxDB.
+ */
+public final class HarnessMetrics {
+
+    static final String EMITTED_VALID = "emitted.valid";
+    static final String EMITTED_INVALID = "emitted.invalid";
+    static final String EMITTED_BACKLOG = "emitted.backlog";
+    static final String INFLUX_TELEMETRY_POINTS = "influx.telemetry.points";
+    static final String INFLUX_ROLLUP_POINTS = "influx.rollup.points";
+    static final String INFLUX_REQUESTS = "influx.requests";
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, Long> EMITTED_AT_NANOS = new ConcurrentHashMap<>();
+
+    private static final Object SAMPLE_LOCK = new Object();
+    private static long[] latencySamplesMicros = new long[1024];
+    private static int sampleCount;
+
+    private static volatile long firstEmitNanos;
+    private static volatile long lastEmitNanos;
+    private static volatile long lastWriteNanos;
+
+    private HarnessMetrics() {}
+
+    static void reset() {
+        COUNTERS.clear();
+        EMITTED_AT_NANOS.clear();
+        synchronized (SAMPLE_LOCK) {
+            latencySamplesMicros = new long[1024];
+            sampleCount = 0;
+        }
+        firstEmitNanos = 0;
+        lastEmitNanos = 0;
+        lastWriteNanos = 0;
+    }
+
+    static void increment(String name) {
+        counter(name).incrementAndGet();
+    }
+
+    static long get(String name) {
+        return counter(name).get();
+    }
+
+    static void emitted(String deviceId, long timestampMillis) {
+        long now = System.nanoTime();
+        if (firstEmitNanos == 0) firstEmitNanos = now;
+        lastEmitNanos = now;
+        EMITTED_AT_NANOS.put(key(deviceId, timestampMillis), now);
+    }
+
+    static void written(String deviceId, long timestampMillis) {
+        long now = System.nanoTime();
+        lastWriteNanos = now;
+        Long emittedAt = EMITTED_AT_NANOS.remove(key(deviceId, timestampMillis));
+        if (emittedAt == null) return;
+
+        synchronized (SAMPLE_LOCK) {
+            if (sampleCount == latencySamplesMicros.length) {
+                latencySamplesMicros = Arrays.copyOf(latencySamplesMicros, sampleCount * 2);
+            }
+            latencySamplesMicros[sampleCount++] = (now - emittedAt) / 1_000;
+        }
+    }
+
+    static long[] sortedLatencySamplesMicros() {
+        long[] samples;
+        synchronized (SAMPLE_LOCK) {
+            samples = Arrays.copyOf(latencySamplesMicros, sampleCount);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    static long emittingNanos() {
+        return lastEmitNanos - firstEmitNanos;
+    }
+
+    static long activeNanos() {
+        return firstEmitNanos == 0 || lastWriteNanos == 0 ? 0 : lastWriteNanos - firstEmitNanos;
+    }
+
+    private static AtomicLong counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new AtomicLong());
+    }
+
+    private static String key(String deviceId, long timestampMillis) {
+        return deviceId + '@' + timestampMillis;
+    }
+}
@@ -0,0 +1,58 @@
+package data_processing.com.flink.harness;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of one harness run. Throughput counts raw points that reached the fake InfluxDB over the time
+ * from the first emitted reading to the last write; latency percentiles cover the same points.
+ */
+@Getter
+@Builder
+public class HarnessReport {
+    private final long emittedValid;
+    private final long emittedInvalid;
+    private final long emittedBacklog;
+    private final long influxPoints;
+    private final long rollupPoints;
+    private final long influxRequests;
+    private final long dlqRecords;
+    private final long lateRecords;
+    private final long rateLimitedRecords;
+    private final long processedRecords;
+    private final long presenceRecords;
+    private final double eventsPerSecond;
+    private final double sourceEventsPerSecond;
+    private final long latencySamples;
+    private final double p50Ms;
+    private final double p95Ms;
+    private final double p99Ms;
+    private final double maxMs;
+    private final Map<String, BackpressureSampler.VertexStats> backpressure;
+
+    static double percentileMs(long[] sortedMicros, double percentile) {
+        if (sortedMicros.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sortedMicros.length) - 1;
+        return sortedMicros[Math.max(0, Math.min(index, sortedMicros.length - 1))] / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "emitted      valid=%d invalid=%d backlog=%d%n", emittedValid, emittedInvalid, emittedBacklog));
+        out.append(String.format(Locale.ROOT, "influx       points=%d rollups=%d requests=%d%n", influxPoints, rollupPoints, influxRequests));
+        out.append(String.format(Locale.ROOT, "kafka        processed=%d dlq=%d late=%d rate-limited=%d presence=%d%n",
+                processedRecords, dlqRecords, lateRecords, rateLimitedRecords, presenceRecords));
+        out.append(String.format(Locale.ROOT, "throughput   %.0f events/s written (source emitted %.0f events/s)%n",
+                eventsPerSecond, sourceEventsPerSecond));
+        out.append(String.format(Locale.ROOT, "latency ms   p50=%.1f p95=%.1f p99=%.1f max=%.1f (n=%d)%n",
+                p50Ms, p95Ms, p99Ms, maxMs, latencySamples));
+        out.append("backpressure (max / mean ratio)").append(System.lineSeparator());
+        backpressure.forEach((vertex, stats) -> out.append(String.format(Locale.ROOT, "  %.2f / %.2f  %s%n",
+                stats.max(), stats.mean(), vertex)));
+        return out.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package data_processing.com.flink.harness;
+
+import data_processing.com.flink.DataProcessingJob;
+import data_processing.com.flink.model.DeviceLifecycleEvent;
+import data_processing.com.flink.model.DeviceRateLimit;
+import data_processing.com.flink.model.TelemetryRecord;
+import org.apache.flink.api.common.restartstrategy.RestartStrategies;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.connector.source.util.ratelimit.RateLimiterStrategy;
+import org.apache.flink.api.java.utils.ParameterTool;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.connector.datagen.source.DataGeneratorSource;
+import org.apache.flink.core.execution.JobClient;
+import org.apache.flink.runtime.testutils.MiniClusterResourceConfiguration;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.test.util.MiniClusterWithClientResource;
+
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs the real telemetry topology of {@link DataProcessingJob} on a local MiniCluster, fed by
+ * {@link SyntheticTelemetryGenerator} and writing to a {@link FakeInfluxServer}; Kafka sinks are
+ * replaced by {@link CountingSink}s. Use it to tune parallelism, batch size and async capacity:
+ * <pre>
+ * mvn -Pharness test-compile exec:exec -Dharness.args="-devices 1000 -rate 20000 -seconds 60 -influxdb.async.capacity 40"
+ * </pre>
+ */
+public class PipelineHarness {
+
+    public static void main(String[] args) throws Exception {
+        HarnessReport report = run(HarnessConfig.fromArgs(ParameterTool.fromArgs(args)));
+        System.out.println(report);
+        System.exit(0);
+    }
+
+    public static HarnessReport run(HarnessConfig config) throws Exception {
+        HarnessMetrics.reset();
+
+        MiniClusterWithClientResource cluster = new MiniClusterWithClientResource(
+                new MiniClusterResourceConfiguration.Builder()
+                        .setNumberTaskManagers(1)
+                        .setNumberSlotsPerTaskManager(config.getParallelism())
+                        .setConfiguration(new Configuration())
+                        .build());
+
+        cluster.before();
+        try (FakeInfluxServer influx = new FakeInfluxServer(config.getInfluxResponseDelayMs())) {
+            ParameterTool params = jobParams(config, influx.url());
+
+            StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+            DataProcessingJob.configureEnvironment(env, params);
+            env.setParallelism(config.getParallelism());
+            env.setRestartStrategy(RestartStrategies.noRestart());
+
+            DataGeneratorSource<TelemetryRecord> source = new DataGeneratorSource<>(
+                    new SyntheticTelemetryGenerator(config),
+                    config.totalEvents(),
+                    RateLimiterStrategy.noOp(),
+                    TypeInformation.of(TelemetryRecord.class));
+
+            DataStream<TelemetryRecord> raw = env
+                    .fromSource(source, DataProcessingJob.telemetryWatermarks(params), "Synthetic Telemetry Source")
+                    .setParallelism(1);
+
+            // No device is revoked during a harness run
+            DataStream<DeviceLifecycleEvent> lifecycle = env.fromCollection(
+                    Collections.emptyList(), TypeInformation.of(DeviceLifecycleEvent.class));
+
+            DataStream<DeviceRateLimit> rateLimits = env.fromCollection(
+                    Collections.emptyList(), TypeInformation.of(DeviceRateLimit.class));
+
+            DataProcessingJob.TelemetryOutputs outputs =
+                    DataProcessingJob.buildTelemetryPipeline(raw, lifecycle, rateLimits, params);
+            outputs.getInvalid().addSink(new CountingSink<>("dlq")).name("DLQ Sink");
+            outputs.getLate().addSink(new CountingSink<>("late")).name("Late Events Sink");
+            outputs.getRateLimited().addSink(new CountingSink<>("rate-limited")).name("Rate Limited Sink");
+            outputs.getProcessed().addSink(new CountingSink<>("processed")).name("Kafka Processed Sink");
+            outputs.getPresence().addSink(new CountingSink<>("presence")).name("Kafka Presence Sink");
+            if (outputs.getMisrouted() != null) {
+                outputs.getMisrouted().addSink(new CountingSink<>("misrouted")).name("Misrouted Events Sink");
+            }
+
+            JobClient job = env.executeAsync("Pipeline Harness");
+            try (BackpressureSampler sampler = new BackpressureSampler(cluster.getRestAddres(), job.getJobID())) {
+                job.getJobExecutionResult().get();
+                return report(sampler);
+            }
+        } finally {
+            cluster.after();
+        }
+    }
+
+    private static ParameterTool jobParams(HarnessConfig config, String influxUrl) throws Exception {
+        Map<String, String> params = new HashMap<>();
+        params.put("influxdb.url", influxUrl);
+        params.put("influxdb.token", "harness-token");
+        params.put("influxdb.org", "harness");
+        params.put("influxdb.bucket", "harness");
+        params.put("checkpoint.interval.ms", "5000");
+        params.put("checkpoint.storage.path", Files.createTempDirectory("harness-checkpoints").toUri().toString());
+        // Synthetic devices send far faster than real ones, and a device's readings reach the limiter in network
+        // buffers within the same millisecond; pass -telemetry.ratelimit.* to exercise the limiter
+        params.put("telemetry.ratelimit.events.per.second", "1000000");
+        params.put("telemetry.ratelimit.burst", "1000000");
+        params.putAll(config.getJobParams());
+        return ParameterTool.fromMap(params);
+    }
+
+    private static HarnessReport report(BackpressureSampler sampler) {
+        long[] latencies = HarnessMetrics.sortedLatencySamplesMicros();
+        long influxPoints = HarnessMetrics.get(HarnessMetrics.INFLUX_TELEMETRY_POINTS);
+        long activeNanos = HarnessMetrics.activeNanos();
+        long emittingNanos = HarnessMetrics.emittingNanos();
+        long emitted = HarnessMetrics.get(HarnessMetrics.EMITTED_VALID) + HarnessMetrics.get(HarnessMetrics.EMITTED_INVALID);
+
+        return HarnessReport.builder()
+                .emittedValid(HarnessMetrics.get(HarnessMetrics.EMITTED_VALID))
+                .emittedInvalid(HarnessMetrics.get(HarnessMetrics.EMITTED_INVALID))
+                .emittedBacklog(HarnessMetrics.get(HarnessMetrics.EMITTED_BACKLOG))
+                .influxPoints(influxPoints)
+                .rollupPoints(HarnessMetrics.get(HarnessMetrics.INFLUX_ROLLUP_POINTS))
+                .influxRequests(HarnessMetrics.get(HarnessMetrics.INFLUX_REQUESTS))
+                .dlqRecords(HarnessMetrics.get("sink.dlq"))
+                .lateRecords(HarnessMetrics.get("sink.late"))
+                .rateLimitedRecords(HarnessMetrics.get("sink.rate-limited"))
+                .processedRecords(HarnessMetrics.get("sink.processed"))
+                .presenceRecords(HarnessMetrics.get("sink.presence"))
+                .eventsPerSecond(activeNanos == 0 ? 0 : influxPoints * 1e9 / activeNanos)
+                .sourceEventsPerSecond(emittingNanos == 0 ? 0 : emitted * 1e9 / emittingNanos)
+                .latencySamples(latencies.length)
+                .p50Ms(HarnessReport.percentileMs(latencies, 50))
+                .p95Ms(HarnessReport.percentileMs(latencies, 95))
+                .p99Ms(HarnessReport.percentileMs(latencies, 99))
+                .maxMs(HarnessReport.percentileMs(latencies, 100))
+                .backpressure(sampler.snapshot())
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package data_processing.com.flink.harness;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineHarnessTest {
+
+    @Test
+    void run_shouldDeliverEveryValidReadingToInflux_andRouteInvalidOnesToDlq() throws Exception {
+        HarnessReport report = PipelineHarness.run(HarnessConfig.builder()
+                .devices(20)
+                .eventsPerSecond(2_000)
+                .durationSeconds(2)
+                .invalidShare(0.05)
+                .outOfOrderShare(0.1)
+                .maxSkewMs(2_000)
+                .build());
+
+        assertThat(report.getEmittedValid() + report.getEmittedInvalid()).isEqualTo(4_000);
+        assertThat(report.getDlqRecords()).isEqualTo(report.getEmittedInvalid()).isPositive();
+        assertThat(report.getLateRecords()).isZero();
+        assertThat(report.getRateLimitedRecords()).isZero();
+        assertThat(report.getInfluxPoints()).isEqualTo(report.getEmittedValid());
+        assertThat(report.getProcessedRecords()).isEqualTo(report.getEmittedValid());
+        assertThat(report.getLatencySamples()).isEqualTo(report.getEmittedValid());
+        assertThat(report.getInfluxRequests()).isLessThan(report.getInfluxPoints());
+        // End of input fires every open window, so each device has at least one point per tier
+        assertThat(report.getRollupPoints()).isGreaterThanOrEqualTo(3L * 20);
+        assertThat(report.getPresenceRecords()).isGreaterThanOrEqualTo(20);
+        assertThat(report.getEventsPerSecond()).isPositive();
+    }
+
+    @Test
+    void run_shouldStoreReplayedBacklog_behindTheWatermark_whileOtherDevicesStayLive() throws Exception {
+        HarnessReport report = PipelineHarness.run(HarnessConfig.builder()
+                .devices(10)
+                .backlogDevices(1)
+                .backlogMs(3_600_000L)
+                .eventsPerSecond(1_000)
+                .durationSeconds(2)
+                .invalidShare(0)
+                .outOfOrderShare(0)
+                .build());
+
+        assertThat(report.getEmittedBacklog()).isEqualTo(200);
+        // Live devices hold the watermark near now, so the replayed history arrives late
+        assertThat(report.getLateRecords()).isPositive();
+        assertThat(report.getInfluxPoints()).isEqualTo(report.getEmittedValid());
+        assertThat(report.getProcessedRecords()).isEqualTo(report.getEmittedValid() - report.getEmittedBacklog());
+    }
+}
@@ -0,0 +1,161 @@
+package data_processing.com.flink.harness;
+
+import data_processing.com.flink.model.TelemetryRecord;
+import data_processing.com.flink.serialization.TelemetryDeserializationSchema;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.connector.datagen.source.GeneratorFunction;
+import org.apache.flink.util.Collector;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Produces simulator-shaped JSON for {@code devices} devices round-robin and decodes it with the job's
+ * own {@link TelemetryDeserializationSchema}, so parsing cost is part of the measured pipeline.
+ * In-order readings use even millisecond timestamps that increase per device; out-of-order readings are
+ * pushed back by an odd number of milliseconds and never reuse a timestamp, so every reading is unique
+ * per device and the deduplicator drops nothing. The first {@code backlogDevices} devices instead replay
+ * valid readings one second apart, starting {@code backlogMs} in the past. Runs with source parallelism 1.
+ * Pacing is done here rather than with a {@code RateLimiterStrategy}: the rate-limited reader waits for
+ * a mailbox round trip per record and tops out at a few thousand records per second.
+ */
+public class SyntheticTelemetryGenerator implements GeneratorFunction<Long, TelemetryRecord> {
+
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024;
+    private static final long MAX_FUTURE_SKEW_MS = 60_000L;
+
+    private final int devices;
+    private final double invalidShare;
+    private final double outOfOrderShare;
+    private final long maxSkewMs;
+    private final int backlogDevices;
+    private final long backlogMs;
+    private final double nanosPerEvent;
+
+    private transient TelemetryDeserializationSchema schema;
+    private transient String[] deviceIds;
+    private transient byte[][] deviceKeys;
+    private transient long[] lastTimestamps;
+    private transient Set<Long>[] skewedTimestamps;
+    private transient SplittableRandom random;
+    private transient LastRecordCollector collector;
+    private transient long startNanos;
+
+    public SyntheticTelemetryGenerator(HarnessConfig config) {
+        this.devices = config.getDevices();
+        this.invalidShare = config.getInvalidShare();
+        this.outOfOrderShare = config.getOutOfOrderShare();
+        this.maxSkewMs = config.getMaxSkewMs();
+        this.backlogDevices = config.getBacklogDevices();
+        this.backlogMs = config.getBacklogMs();
+        this.nanosPerEvent = 1e9 / config.getEventsPerSecond();
+    }
+
+    @Override
+    public void open(SourceReaderContext readerContext) {
+        schema = new TelemetryDeserializationSchema(MAX_PAYLOAD_BYTES, MAX_FUTURE_SKEW_MS);
+        schema.open(null);
+        deviceIds = new String[devices];
+        deviceKeys = new byte[devices][];
+        for (int i = 0; i < devices; i++) {
+            deviceIds[i] = new UUID(0x5eed5eed5eed5eedL, i).toString();
+            deviceKeys[i] = deviceIds[i].getBytes(StandardCharsets.UTF_8);
+        }
+        lastTimestamps = new long[devices];
+        skewedTimestamps = newSkewedTimestampSets(devices);
+        random = new SplittableRandom(42);
+        collector = new LastRecordCollector();
+    }
+
+    @Override
+    public TelemetryRecord map(Long index) throws Exception {
+        pace(index);
+        int device = (int) (index % devices);
+        String deviceId = deviceIds[device];
+
+        double roll = random.nextDouble();
+        double temperature = 18.0 + random.nextDouble() * 6.0;
+        String payload;
+        if (device < backlogDevices) {
+            long replayed = lastTimestamps[device] == 0
+                    ? (System.currentTimeMillis() - backlogMs) & ~1L : lastTimestamps[device] + 1_000;
+            lastTimestamps[device] = replayed;
+            HarnessMetrics.increment(HarnessMetrics.EMITTED_VALID);
+            HarnessMetrics.increment(HarnessMetrics.EMITTED_BACKLOG);
+            HarnessMetrics.emitted(deviceId, replayed);
+            payload = json(deviceId, Instant.ofEpochMilli(replayed).toString(), temperature);
+            return decode(index, device, payload);
+        }
+
+        long inOrder = Math.max(System.currentTimeMillis() & ~1L, lastTimestamps[device] + 2);
+        lastTimestamps[device] = inOrder;
+        if (roll < invalidShare) {
+            HarnessMetrics.increment(HarnessMetrics.EMITTED_INVALID);
+            payload = json(deviceId, "not-a-timestamp", temperature);
+        } else {
+            long timestamp = roll < invalidShare + outOfOrderShare ? skewed(device, inOrder) : inOrder;
+            HarnessMetrics.increment(HarnessMetrics.EMITTED_VALID);
+            HarnessMetrics.emitted(deviceId, timestamp);
+            payload = json(deviceId, Instant.ofEpochMilli(timestamp).toString(), temperature);
+        }
+        return decode(index, device, payload);
+    }
+
+    private TelemetryRecord decode(long index, int device, String payload) throws Exception {
+        schema.deserialize(new ConsumerRecord<>("synthetic-telemetry", 0, index,
+                deviceKeys[device], payload.getBytes(StandardCharsets.UTF_8)), collector);
+        return collector.last;
+    }
+
+    private void pace(long index) {
+        if (startNanos == 0) startNanos = System.nanoTime();
+        long wait = startNanos + (long) (index * nanosPerEvent) - System.nanoTime();
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    private long skewed(int device, long inOrder) {
+        Set<Long> used = skewedTimestamps[device];
+        if (used.size() > 1024) {
+            used.removeIf(t -> t < inOrder - maxSkewMs - 1);
+        }
+
+        long timestamp;
+        do {
+            timestamp = inOrder - (1 + 2 * random.nextLong(Math.max(1, maxSkewMs / 2)));
+        } while (!used.add(timestamp));
+        return timestamp;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Long>[] newSkewedTimestampSets(int devices) {
+        Set<Long>[] sets = new Set[devices];
+        for (int i = 0; i < devices; i++) {
+            sets[i] = new HashSet<>();
+        }
+        return sets;
+    }
+
+    private static String json(String deviceId, String timestamp, double temperature) {
+        return "{\"deviceId\":\"" + deviceId + "\",\"timestamp\":\"" + timestamp + "\","
+                + "\"data\":{\"currentTemperature\":" + temperature + ",\"targetTemperature\":22.0,\"heatingStatus\":true}}";
+    }
+
+    private static final class LastRecordCollector implements Collector<TelemetryRecord> {
+        private TelemetryRecord last;
+
+        @Override
+        public void collect(TelemetryRecord record) {
+            last = record;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
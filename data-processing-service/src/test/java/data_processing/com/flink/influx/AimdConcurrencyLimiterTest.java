@@ -0,0 +1,56 @@
+package data_processing.com.flink.influx;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_shouldStopAtLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 10, 1000, 0.9);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void fastWrites_shouldGrowLimitUpToMax() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 1, 4, 1000, 0.9);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(50);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void slowWrites_shouldShrinkLimitGradually() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 10, 1000, 0.9);
+
+        limiter.tryAcquire();
+        limiter.onSuccess(2000);
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void failures_shouldHalveLimitButKeepMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(8, 2, 10, 1000, 0.9);
+
+        limiter.tryAcquire();
+        limiter.onFailure();
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.onFailure();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
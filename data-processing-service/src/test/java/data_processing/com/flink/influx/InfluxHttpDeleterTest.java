@@ -0,0 +1,76 @@
+package data_processing.com.flink.influx;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InfluxHttpDeleterTest {
+
+    private HttpServer server;
+    private final AtomicInteger responseStatus = new AtomicInteger(204);
+    private final AtomicReference<String> requestQuery = new AtomicReference<>();
+    private final AtomicReference<String> requestAuthorization = new AtomicReference<>();
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v2/delete", exchange -> {
+            try (exchange) {
+                requestQuery.set(exchange.getRequestURI().getRawQuery());
+                requestAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+                requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+                exchange.sendResponseHeaders(responseStatus.get(), -1);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void delete_shouldPostRangeAndEscapedPredicate() {
+        deleter().delete("telemetry", Instant.parse("2024-05-01T00:00:00Z"), Instant.parse("2024-05-02T00:00:00Z"),
+                "\"deviceId\"=\"dev-1\"").join();
+
+        assertThat(requestQuery.get()).isEqualTo("org=iot+org&bucket=telemetry");
+        assertThat(requestAuthorization.get()).isEqualTo("Token secret");
+        assertThat(requestBody.get()).isEqualTo(
+                "{\"start\":\"2024-05-01T00:00:00Z\",\"stop\":\"2024-05-02T00:00:00Z\","
+                        + "\"predicate\":\"\\\"deviceId\\\"=\\\"dev-1\\\"\"}");
+    }
+
+    @Test
+    void delete_shouldFailWithStatusOnErrorResponse() {
+        responseStatus.set(400);
+
+        assertThatThrownBy(() -> deleter().delete("telemetry", Instant.EPOCH, Instant.now(), "").join())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(InfluxWriteException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(400);
+                    assertThat(e.isRetryable()).isFalse();
+                });
+    }
+
+    private InfluxHttpDeleter deleter() {
+        return new InfluxHttpDeleter("http://127.0.0.1:" + server.getAddress().getPort(),
+                "secret", "iot org", Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,98 @@
+package data_processing.com.flink.influx;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InfluxHttpWriterTest {
+
+    private static final String LINES = "telemetry,deviceId=dev-1 currentTemperature=21.5 1714564800000";
+
+    private HttpServer server;
+    private final AtomicInteger responseStatus = new AtomicInteger(204);
+    private final AtomicReference<String> requestQuery = new AtomicReference<>();
+    private final AtomicReference<String> requestAuthorization = new AtomicReference<>();
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v2/write", exchange -> {
+            try (exchange) {
+                requestQuery.set(exchange.getRequestURI().getRawQuery());
+                requestAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+                requestBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+
+                int status = responseStatus.get();
+                if (status == 204) {
+                    exchange.sendResponseHeaders(204, -1);
+                } else {
+                    byte[] body = "{\"code\":\"error\"}".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(status, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                }
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void write_shouldPostLinesWithTokenAndMillisecondPrecision() {
+        InfluxHttpWriter writer = writer();
+
+        writer.write(LINES).join();
+
+        assertThat(requestQuery.get()).isEqualTo("org=iot+org&bucket=telemetry&precision=ms");
+        assertThat(requestAuthorization.get()).isEqualTo("Token secret");
+        assertThat(requestBody.get()).isEqualTo(LINES);
+    }
+
+    @Test
+    void write_shouldFailWithStatusOnErrorResponse() {
+        responseStatus.set(503);
+
+        assertThatThrownBy(() -> writer().write(LINES).join())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(InfluxWriteException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(503);
+                    assertThat(e.isRetryable()).isTrue();
+                });
+    }
+
+    @Test
+    void write_shouldFailWithIOExceptionWhenServerIsDown() {
+        InfluxHttpWriter writer = writer();
+        server.stop(0);
+
+        assertThatThrownBy(() -> writer.write(LINES).join())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOf(IOException.class);
+    }
+
+    private InfluxHttpWriter writer() {
+        return new InfluxHttpWriter("http://127.0.0.1:" + server.getAddress().getPort() + "/",
+                "secret", "iot org", "telemetry", Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,145 @@
+package data_processing.com.flink.influx;
+
+import com.sun.net.httpserver.HttpServer;
+import data_processing.com.flink.model.LineProtocolBatch;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InfluxSpillOperatorTest {
+
+    private static final long REPLAY_INTERVAL_MS = 100L;
+    private static final long RETRY_INTERVAL_MS = 1_000L;
+
+    private static final LineProtocolBatch FIRST = new LineProtocolBatch("telemetry,deviceId=dev-1 v=1 1", 1);
+    private static final LineProtocolBatch SECOND = new LineProtocolBatch("telemetry,deviceId=dev-2 v=2 2", 1);
+
+    private HttpServer server;
+    private final AtomicInteger responseStatus = new AtomicInteger(503);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<String> accepted = new CopyOnWriteArrayList<>();
+    private long now;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v2/write", exchange -> {
+            try (exchange) {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                int status = responseStatus.get();
+                if (status == 204) {
+                    accepted.add(body);
+                }
+                requests.incrementAndGet();
+                exchange.sendResponseHeaders(status, -1);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void shouldReplaySpilledBatchesInOrderOnceInfluxRecovers() throws Exception {
+        try (OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness = harness()) {
+            harness.open();
+            harness.processElement(new StreamRecord<>(FIRST));
+            harness.processElement(new StreamRecord<>(SECOND));
+
+            advanceUntil(harness, () -> requests.get() >= 1);
+            assertThat(accepted).isEmpty();
+
+            responseStatus.set(204);
+            advanceUntil(harness, () -> accepted.size() >= 2);
+
+            assertThat(accepted).containsExactly(FIRST.getLines(), SECOND.getLines());
+        }
+    }
+
+    @Test
+    void shouldReplayBacklogRestoredFromCheckpoint() throws Exception {
+        OperatorSubtaskState snapshot;
+        try (OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness = harness()) {
+            harness.open();
+            harness.processElement(new StreamRecord<>(FIRST));
+            harness.processElement(new StreamRecord<>(SECOND));
+            snapshot = harness.snapshot(1L, now);
+        }
+
+        responseStatus.set(204);
+        try (OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> restored = harness()) {
+            restored.initializeState(snapshot);
+            restored.open();
+
+            advanceUntil(restored, () -> accepted.size() >= 2);
+
+            assertThat(accepted).containsExactly(FIRST.getLines(), SECOND.getLines());
+        }
+    }
+
+    @Test
+    void shouldCheckpointOnlyTheOldestBatchesWithinTheLimit() throws Exception {
+        OperatorSubtaskState snapshot;
+        // Each batch takes 8 header bytes and 30 bytes of lines, so only the first fits
+        try (OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness = harness(50L)) {
+            harness.open();
+            harness.processElement(new StreamRecord<>(FIRST));
+            harness.processElement(new StreamRecord<>(SECOND));
+            snapshot = harness.snapshot(1L, now);
+        }
+
+        responseStatus.set(204);
+        try (OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> restored = harness()) {
+            restored.initializeState(snapshot);
+            restored.open();
+
+            advanceUntil(restored, () -> accepted.size() >= 1);
+
+            assertThat(accepted).containsExactly(FIRST.getLines());
+        }
+    }
+
+    private OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness() throws Exception {
+        return harness(1024 * 1024);
+    }
+
+    private OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness(long checkpointMaxBytes) throws Exception {
+        return new OneInputStreamOperatorTestHarness<>(new InfluxSpillOperator(
+                "http://127.0.0.1:" + server.getAddress().getPort(), "token", "org", "telemetry", 2_000L,
+                1024, 1024 * 1024, checkpointMaxBytes, (int) (1000 / REPLAY_INTERVAL_MS), RETRY_INTERVAL_MS));
+    }
+
+    // Replays complete on HTTP client threads, so time only moves on while waiting for them
+    private void advanceUntil(OneInputStreamOperatorTestHarness<LineProtocolBatch, Void> harness,
+                              BooleanSupplier condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("timed out waiting for replay").isLessThan(deadline);
+            now += REPLAY_INTERVAL_MS;
+            harness.setProcessingTime(now);
+            Thread.sleep(10L);
+        }
+        // A few more ticks to show nothing is written twice once the outcome has been applied
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(10L);
+            now += REPLAY_INTERVAL_MS;
+            harness.setProcessingTime(now);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package data_processing.com.flink.influx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JitteredBackoffRetryStrategyTest {
+
+    @Test
+    void canRetry_shouldAllowConfiguredNumberOfRetries() {
+        JitteredBackoffRetryStrategy<Void> strategy = new JitteredBackoffRetryStrategy<>(2, 100, 1000, 0.5);
+
+        assertThat(strategy.canRetry(1)).isTrue();
+        assertThat(strategy.canRetry(2)).isTrue();
+        assertThat(strategy.canRetry(3)).isFalse();
+    }
+
+    @Test
+    void backoff_shouldDoubleUpToMaxWithoutJitter() {
+        JitteredBackoffRetryStrategy<Void> strategy = new JitteredBackoffRetryStrategy<>(10, 100, 1000, 0);
+
+        assertThat(strategy.getBackoffTimeMillis(1)).isEqualTo(100);
+        assertThat(strategy.getBackoffTimeMillis(2)).isEqualTo(200);
+        assertThat(strategy.getBackoffTimeMillis(4)).isEqualTo(800);
+        assertThat(strategy.getBackoffTimeMillis(5)).isEqualTo(1000);
+        assertThat(strategy.getBackoffTimeMillis(40)).isEqualTo(1000);
+    }
+
+    @Test
+    void backoff_shouldStayWithinJitterRange() {
+        JitteredBackoffRetryStrategy<Void> strategy = new JitteredBackoffRetryStrategy<>(10, 100, 1000, 0.5);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(strategy.getBackoffTimeMillis(3)).isBetween(200L, 400L);
+        }
+    }
+
+    @Test
+    void retryPredicate_shouldOnlyMatchTransientFailures() {
+        Predicate<Throwable> retryable = new JitteredBackoffRetryStrategy<>(2, 100, 1000, 0.5)
+                .getRetryPredicate().exceptionPredicate().orElseThrow();
+
+        assertThat(retryable.test(new InfluxWriteException(503, "unavailable"))).isTrue();
+        assertThat(retryable.test(new InfluxWriteException(429, "too many requests"))).isTrue();
+        assertThat(retryable.test(new HttpTimeoutException("request timed out"))).isTrue();
+        assertThat(retryable.test(new IOException("connection refused"))).isTrue();
+        assertThat(retryable.test(new InfluxWriteException(400, "unable to parse"))).isFalse();
+        assertThat(retryable.test(new InfluxWriteException(401, "unauthorized"))).isFalse();
+        assertThat(retryable.test(new IllegalStateException("bug"))).isFalse();
+    }
+
+    @Test
+    void retryPredicate_shouldRetryReturnedInputs() {
+        Predicate<Collection<String>> handedBack = new JitteredBackoffRetryStrategy<String>(2, 100, 1000, 0.5)
+                .getRetryPredicate().resultPredicate().orElseThrow();
+
+        assertThat(handedBack.test(List.of("batch"))).isTrue();
+        assertThat(handedBack.test(List.of())).isFalse();
+    }
+}
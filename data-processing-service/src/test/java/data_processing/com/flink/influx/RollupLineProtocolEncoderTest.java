@@ -0,0 +1,32 @@
+package data_processing.com.flink.influx;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import data_processing.com.flink.model.TelemetryRollup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupLineProtocolEncoderTest {
+
+    private static final long WINDOW_END = 1714564860000L;
+
+    @Test
+    void encode_shouldMatchClientPoint() {
+        TelemetryRollup rollup = new TelemetryRollup("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b", "5m", WINDOW_END,
+                4, 86.0, 20.5, 22.25);
+
+        StringBuilder buffer = new StringBuilder();
+        RollupLineProtocolEncoder.encode(rollup, buffer);
+
+        String expected = Point.measurement("telemetry_5m")
+                .addTag("deviceId", rollup.getDeviceId())
+                .addField("count", 4L)
+                .addField("max", 22.25)
+                .addField("mean", 21.5)
+                .addField("min", 20.5)
+                .time(WINDOW_END, WritePrecision.MS)
+                .toLineProtocol();
+        assertThat(buffer.toString()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,129 @@
+package data_processing.com.flink.influx;
+
+import data_processing.com.flink.model.LineProtocolBatch;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpillLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldReturnBatchesInAppendOrderAcrossSegments() throws IOException {
+        Path directory = tempDir.resolve("spill");
+        try (SpillLog log = new SpillLog(directory, 64, 4096)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(batch(i));
+            }
+            assertThat(segmentFiles(directory)).isGreaterThan(1);
+
+            for (int i = 0; i < 5; i++) {
+                assertThat(log.peek()).isEqualTo(batch(i));
+                log.remove();
+            }
+
+            assertThat(log.isEmpty()).isTrue();
+            assertThat(log.peek()).isNull();
+            assertThat(log.getSizeBytes()).isZero();
+            assertThat(segmentFiles(directory)).isZero();
+        }
+        assertThat(directory).doesNotExist();
+    }
+
+    @Test
+    void writeTo_shouldCopyRemainingBatchesWithoutRemoving_andReadFromShouldRestoreThem() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        try (SpillLog log = new SpillLog(tempDir.resolve("spill"), 64, 4096)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(batch(i));
+            }
+            log.remove();
+
+            assertThat(log.writeTo(new DataOutputStream(copy), Long.MAX_VALUE)).isEqualTo(log.getSizeBytes());
+            assertThat(log.getBatchCount()).isEqualTo(3);
+        }
+
+        try (SpillLog restored = new SpillLog(tempDir.resolve("restored"), 64, 4096)) {
+            restored.readFrom(new DataInputStream(new ByteArrayInputStream(copy.toByteArray())));
+
+            assertThat(drain(restored)).containsExactly(batch(1), batch(2), batch(3));
+        }
+    }
+
+    @Test
+    void writeTo_shouldStopAtTheLastWholeBatchWithinMaxBytes() throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        try (SpillLog log = new SpillLog(tempDir.resolve("spill"), 64, 4096)) {
+            for (int i = 0; i < 4; i++) {
+                log.append(batch(i));
+            }
+            long twoBatches = log.getSizeBytes() / 2;
+
+            assertThat(log.writeTo(new DataOutputStream(copy), twoBatches + 1)).isEqualTo(twoBatches);
+        }
+
+        try (SpillLog restored = new SpillLog(tempDir.resolve("restored"), 64, 4096)) {
+            restored.readFrom(new DataInputStream(new ByteArrayInputStream(copy.toByteArray())));
+
+            assertThat(drain(restored)).containsExactly(batch(0), batch(1));
+        }
+    }
+
+    @Test
+    void append_shouldFitBatchLargerThanSegment() {
+        try (SpillLog log = new SpillLog(tempDir.resolve("spill"), 64, 4096)) {
+            LineProtocolBatch large = new LineProtocolBatch("telemetry,deviceId=dev v=1 1\n".repeat(10), 10);
+
+            log.append(large);
+
+            assertThat(log.peek()).isEqualTo(large);
+        }
+    }
+
+    @Test
+    void append_shouldRejectBatchOverMaxBytes() {
+        try (SpillLog log = new SpillLog(tempDir.resolve("spill"), 64, 80)) {
+            log.append(batch(0));
+            log.append(batch(1));
+
+            assertThatThrownBy(() -> log.append(batch(2)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("full");
+            assertThat(log.getBatchCount()).isEqualTo(2);
+        }
+    }
+
+    private static List<LineProtocolBatch> drain(SpillLog log) {
+        List<LineProtocolBatch> batches = new ArrayList<>();
+        while (!log.isEmpty()) {
+            batches.add(log.peek());
+            log.remove();
+        }
+        return batches;
+    }
+
+    private static LineProtocolBatch batch(int i) {
+        return new LineProtocolBatch("telemetry,deviceId=dev-" + i + " v=" + i + " " + i, 1);
+    }
+
+    private static long segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
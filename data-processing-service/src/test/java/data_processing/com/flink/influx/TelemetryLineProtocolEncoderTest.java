@@ -0,0 +1,78 @@
+package data_processing.com.flink.influx;
+
+import com.influxdb.client.domain.WritePrecision;
+import com.influxdb.client.write.Point;
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryLineProtocolEncoderTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T12:00:00.123Z");
+
+    @Test
+    void encode_shouldMatchClientPoint_forFullReading() {
+        TelemetryEvent event = new TelemetryEvent("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b", TIMESTAMP,
+                new SensorData(21.75, 22.5, true));
+
+        assertThat(encode(event)).isEqualTo(toPoint(event));
+    }
+
+    @Test
+    void encode_shouldMatchClientPoint_withoutTargetTemperature() {
+        TelemetryEvent event = new TelemetryEvent("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b", TIMESTAMP,
+                new SensorData(-3.0, null, null));
+
+        assertThat(encode(event)).isEqualTo(toPoint(event));
+    }
+
+    @Test
+    void encode_shouldEscapeTagValueLikeClientPoint() {
+        TelemetryEvent event = new TelemetryEvent("a b,c=d\\e\"f\nx", TIMESTAMP,
+                new SensorData(20.0, 21.0, false));
+
+        assertThat(encode(event)).isEqualTo(toPoint(event));
+    }
+
+    @Test
+    void encode_shouldSkipNonFiniteFields() {
+        TelemetryEvent event = new TelemetryEvent("device-1", TIMESTAMP,
+                new SensorData(Double.NaN, Double.POSITIVE_INFINITY, true));
+
+        assertThat(encode(event)).isEqualTo("telemetry,deviceId=device-1 heatingStatus=1i 1714564800123");
+    }
+
+    @Test
+    void encode_shouldAppendToExistingBuffer() {
+        TelemetryEvent event = new TelemetryEvent("device-1", TIMESTAMP, new SensorData(20.5, null, false));
+        StringBuilder buffer = new StringBuilder("previous\n");
+
+        TelemetryLineProtocolEncoder.encode(event, buffer);
+
+        assertThat(buffer.toString())
+                .isEqualTo("previous\ntelemetry,deviceId=device-1 currentTemperature=20.5,heatingStatus=0i 1714564800123");
+    }
+
+    private static String encode(TelemetryEvent event) {
+        StringBuilder buffer = new StringBuilder();
+        TelemetryLineProtocolEncoder.encode(event, buffer);
+        return buffer.toString();
+    }
+
+    private static String toPoint(TelemetryEvent event) {
+        SensorData data = event.getData();
+        Point point = Point.measurement("telemetry")
+                .addTag("deviceId", event.getDeviceId())
+                .addField("currentTemperature", data.getCurrentTemperature())
+                .addField("heatingStatus", Boolean.TRUE.equals(data.getHeatingStatus()) ? 1 : 0)
+                .time(event.getTimestamp(), WritePrecision.MS);
+        if (data.getTargetTemperature() != null) {
+            point.addField("targetTemperature", data.getTargetTemperature());
+        }
+        return point.toLineProtocol();
+    }
+}
@@ -0,0 +1,41 @@
+package data_processing.com.flink.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    @Test
+    void shouldAdmitBurstThenRefillWithElapsedTime() {
+        TokenBucket bucket = TokenBucket.full(3, 0);
+
+        assertThat(bucket.tryAcquire(0, 1.0, 3)).isTrue();
+        assertThat(bucket.tryAcquire(1, 1.0, 3)).isTrue();
+        assertThat(bucket.tryAcquire(2, 1.0, 3)).isTrue();
+        assertThat(bucket.tryAcquire(3, 1.0, 3)).isFalse();
+
+        assertThat(bucket.tryAcquire(1_003, 1.0, 3)).isTrue();
+        assertThat(bucket.tryAcquire(1_004, 1.0, 3)).isFalse();
+        assertThat(bucket.getRejected()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotRefillWhenTheClockStandsStillOrGoesBack() {
+        TokenBucket bucket = TokenBucket.full(1, 10_000);
+
+        assertThat(bucket.tryAcquire(10_000, 10.0, 1)).isTrue();
+        assertThat(bucket.tryAcquire(10_000, 10.0, 1)).isFalse();
+        assertThat(bucket.tryAcquire(5_000, 10.0, 1)).isFalse();
+        assertThat(bucket.tryAcquire(10_100, 10.0, 1)).isTrue();
+    }
+
+    @Test
+    void shouldCapTokensAtLoweredBurst() {
+        TokenBucket bucket = TokenBucket.full(10, 0);
+
+        assertThat(bucket.tryAcquire(0, 1.0, 2)).isTrue();
+        assertThat(bucket.tryAcquire(0, 1.0, 2)).isTrue();
+        assertThat(bucket.tryAcquire(0, 1.0, 2)).isFalse();
+    }
+}
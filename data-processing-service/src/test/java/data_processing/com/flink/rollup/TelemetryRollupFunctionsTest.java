@@ -0,0 +1,77 @@
+package data_processing.com.flink.rollup;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRollup;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryRollupFunctionsTest {
+
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T12:00:00Z");
+
+    private final TelemetryRollupFunctions.EventAggregate eventAggregate = new TelemetryRollupFunctions.EventAggregate();
+    private final TelemetryRollupFunctions.RollupAggregate rollupAggregate = new TelemetryRollupFunctions.RollupAggregate();
+
+    @Test
+    void eventAggregate_shouldComputeCountMeanMinMax() {
+        TelemetryRollup rollup = aggregate(20.0, 23.0, 21.5);
+
+        assertThat(rollup.getCount()).isEqualTo(3);
+        assertThat(rollup.getMean()).isEqualTo(21.5);
+        assertThat(rollup.getMin()).isEqualTo(20.0);
+        assertThat(rollup.getMax()).isEqualTo(23.0);
+    }
+
+    @Test
+    void eventAggregate_shouldIgnoreMissingAndNonFiniteReadings() {
+        TelemetryRollup rollup = eventAggregate.createAccumulator();
+        rollup = eventAggregate.add(event(null), rollup);
+        rollup = eventAggregate.add(event(Double.NaN), rollup);
+        rollup = eventAggregate.add(event(19.0), rollup);
+
+        assertThat(rollup.getCount()).isEqualTo(1);
+        assertThat(rollup.getMean()).isEqualTo(19.0);
+    }
+
+    @Test
+    void rollupAggregate_shouldWeightMeanByCount_notAverageTheMeans() {
+        TelemetryRollup coarse = rollupAggregate.createAccumulator();
+        coarse = rollupAggregate.add(aggregate(10.0), coarse);
+        coarse = rollupAggregate.add(aggregate(20.0, 20.0, 20.0), coarse);
+
+        assertThat(coarse.getCount()).isEqualTo(4);
+        assertThat(coarse.getMean()).isEqualTo(17.5);
+        assertThat(coarse.getMin()).isEqualTo(10.0);
+        assertThat(coarse.getMax()).isEqualTo(20.0);
+    }
+
+    @Test
+    void merge_shouldMatchSingleAggregation() {
+        TelemetryRollup left = aggregate(1.0, 2.0);
+        TelemetryRollup right = aggregate(3.0, 10.0);
+
+        TelemetryRollup merged = eventAggregate.merge(left, right);
+
+        TelemetryRollup expected = aggregate(1.0, 2.0, 3.0, 10.0);
+        assertThat(merged.getCount()).isEqualTo(expected.getCount());
+        assertThat(merged.getSum()).isEqualTo(expected.getSum());
+        assertThat(merged.getMin()).isEqualTo(expected.getMin());
+        assertThat(merged.getMax()).isEqualTo(expected.getMax());
+    }
+
+    private TelemetryRollup aggregate(double... readings) {
+        TelemetryRollup accumulator = eventAggregate.createAccumulator();
+        for (double reading : readings) {
+            accumulator = eventAggregate.add(event(reading), accumulator);
+        }
+        return eventAggregate.getResult(accumulator);
+    }
+
+    private static TelemetryEvent event(Double currentTemperature) {
+        return new TelemetryEvent("device-1", TIMESTAMP, new SensorData(currentTemperature, null, null));
+    }
+}
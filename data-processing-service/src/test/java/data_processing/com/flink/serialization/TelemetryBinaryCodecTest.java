@@ -0,0 +1,78 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRejectReason;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryBinaryCodecTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T12:00:00.123Z");
+
+    @Test
+    void encode_thenDecode_shouldRoundTripFullReading() {
+        TelemetryEvent event = new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(21.37, 22.0, true));
+
+        byte[] encoded = TelemetryBinaryCodec.encode(event);
+        TelemetryEvent decoded = new TelemetryEvent();
+
+        assertThat(encoded).hasSize(43);
+        assertThat(TelemetryBinaryCodec.isBinary(encoded)).isTrue();
+        assertThat(TelemetryBinaryCodec.decode(encoded, decoded)).isNull();
+        assertThat(decoded).isEqualTo(event);
+    }
+
+    @Test
+    void encode_thenDecode_shouldKeepAbsentOptionalFieldsAbsent() {
+        TelemetryEvent event = new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(-4.5, null, null));
+
+        byte[] encoded = TelemetryBinaryCodec.encode(event);
+        TelemetryEvent decoded = new TelemetryEvent();
+
+        assertThat(encoded).hasSize(35);
+        assertThat(TelemetryBinaryCodec.decode(encoded, decoded)).isNull();
+        assertThat(decoded.getData().getTargetTemperature()).isNull();
+        assertThat(decoded.getData().getHeatingStatus()).isNull();
+    }
+
+    @Test
+    void decode_shouldRejectTruncatedUnknownVersionAndMissingTemperature() {
+        byte[] encoded = TelemetryBinaryCodec.encode(new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(20.0, 21.0, false)));
+
+        assertThat(TelemetryBinaryCodec.decode(Arrays.copyOf(encoded, encoded.length - 1), new TelemetryEvent()))
+                .isEqualTo(TelemetryRejectReason.MALFORMED_BINARY);
+
+        byte[] futureVersion = encoded.clone();
+        futureVersion[1] = 2;
+        assertThat(TelemetryBinaryCodec.decode(futureVersion, new TelemetryEvent()))
+                .isEqualTo(TelemetryRejectReason.UNSUPPORTED_VERSION);
+
+        byte[] noCurrent = TelemetryBinaryCodec.encode(new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(null, 21.0, false)));
+        assertThat(TelemetryBinaryCodec.decode(noCurrent, new TelemetryEvent()))
+                .isEqualTo(TelemetryRejectReason.MISSING_CURRENT_TEMPERATURE);
+    }
+
+    @Test
+    void canEncode_shouldRequireUuidDeviceId() {
+        assertThat(TelemetryBinaryCodec.canEncode(new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData()))).isTrue();
+        assertThat(TelemetryBinaryCodec.canEncode(new TelemetryEvent("sensor-1", TIMESTAMP, new SensorData()))).isFalse();
+    }
+
+    @Test
+    void processedSchema_shouldWriteBinaryAndFallBackToJsonForNonUuidIds() {
+        TelemetryEventSerializationSchema schema = new TelemetryEventSerializationSchema("processed", TelemetryFormat.BINARY);
+        schema.open(null, null);
+
+        byte[] uuidValue = schema.serialize(new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(20.0, null, true)), null, null).value();
+        byte[] legacyValue = schema.serialize(new TelemetryEvent("sensor-1", TIMESTAMP, new SensorData(20.0, null, true)), null, null).value();
+
+        assertThat(TelemetryBinaryCodec.isBinary(uuidValue)).isTrue();
+        assertThat(legacyValue[0]).isEqualTo((byte) '{');
+    }
+}
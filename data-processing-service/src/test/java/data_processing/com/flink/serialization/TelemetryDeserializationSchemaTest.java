@@ -0,0 +1,180 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import data_processing.com.flink.model.TelemetryRecord;
+import data_processing.com.flink.model.TelemetryRejectReason;
+import org.apache.flink.api.common.functions.util.ListCollector;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryDeserializationSchemaTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+
+    private TelemetryDeserializationSchema schema;
+
+    @BeforeEach
+    void setUp() {
+        schema = new TelemetryDeserializationSchema(1024, 60_000L);
+        schema.open(null);
+    }
+
+    @Test
+    void deserialize_shouldParseSimulatorPayload() {
+        TelemetryRecord telemetryRecord = deserialize("{\"deviceId\":\"" + DEVICE_ID + "\","
+                + "\"timestamp\":\"2024-05-01T12:00:00.123456Z\","
+                + "\"data\":{\"currentTemperature\":21.37,\"targetTemperature\":22.0,\"heatingStatus\":true}}");
+
+        assertThat(telemetryRecord.isValid()).isTrue();
+        TelemetryEvent event = telemetryRecord.getEvent();
+        assertThat(event.getDeviceId()).isEqualTo(DEVICE_ID);
+        assertThat(event.getTimestamp()).isEqualTo(Instant.parse("2024-05-01T12:00:00.123456Z"));
+        assertThat(event.getData().getCurrentTemperature()).isEqualTo(21.37);
+        assertThat(event.getData().getTargetTemperature()).isEqualTo(22.0);
+        assertThat(event.getData().getHeatingStatus()).isTrue();
+        assertThat(telemetryRecord.getPayload()).isNull();
+    }
+
+    @Test
+    void deserialize_shouldIgnoreUnknownFieldsAndAcceptOffsets() {
+        TelemetryRecord telemetryRecord = deserialize("{\"firmware\":{\"v\":[1,2]},\"deviceId\":\"" + DEVICE_ID + "\","
+                + "\"timestamp\":\"2024-05-01T14:00:00+02:00\",\"data\":{\"currentTemperature\":20,\"humidity\":40}}");
+
+        assertThat(telemetryRecord.isValid()).isTrue();
+        assertThat(telemetryRecord.getEvent().getTimestamp()).isEqualTo(Instant.parse("2024-05-01T12:00:00Z"));
+        assertThat(telemetryRecord.getEvent().getData().getTargetTemperature()).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "not json at all|MALFORMED_JSON",
+            "{\"deviceId\":\"x\"|MALFORMED_JSON",
+            "[1,2,3]|NOT_AN_OBJECT",
+            "{\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"currentTemperature\":1}}|MISSING_DEVICE_ID",
+            "{\"deviceId\":\"   \",\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"currentTemperature\":1}}|INVALID_DEVICE_ID",
+            "{\"deviceId\":42,\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"currentTemperature\":1}}|INVALID_DEVICE_ID",
+            "{\"deviceId\":\"d\\u0000\",\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"currentTemperature\":1}}|INVALID_DEVICE_ID",
+            "{\"deviceId\":\"d\",\"data\":{\"currentTemperature\":1}}|MISSING_TIMESTAMP",
+            "{\"deviceId\":\"d\",\"timestamp\":\"yesterday\",\"data\":{\"currentTemperature\":1}}|INVALID_TIMESTAMP",
+            "{\"deviceId\":\"d\",\"timestamp\":\"2024-13-01T12:00:00Z\",\"data\":{\"currentTemperature\":1}}|INVALID_TIMESTAMP",
+            "{\"deviceId\":\"d\",\"timestamp\":\"2024-05-01T12:00:00Z\"}|MISSING_DATA",
+            "{\"deviceId\":\"d\",\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":\"hot\"}|INVALID_FIELD_TYPE",
+            "{\"deviceId\":\"d\",\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"currentTemperature\":\"21\"}}|INVALID_FIELD_TYPE",
+            "{\"deviceId\":\"d\",\"timestamp\":\"2024-05-01T12:00:00Z\",\"data\":{\"targetTemperature\":21}}|MISSING_CURRENT_TEMPERATURE"
+    })
+    void deserialize_shouldRejectWithReason(String payload, TelemetryRejectReason expected) {
+        TelemetryRecord telemetryRecord = deserialize(payload);
+
+        assertThat(telemetryRecord.isValid()).isFalse();
+        assertThat(telemetryRecord.getRejectReason()).isEqualTo(expected);
+        assertThat(telemetryRecord.getPayload()).isEqualTo(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deserialize_shouldDetectBinaryPayloadPerRecord() {
+        TelemetryEvent event = new TelemetryEvent(DEVICE_ID, Instant.parse("2024-05-01T12:00:00.123Z"),
+                new SensorData(21.5, 22.0, false));
+
+        List<TelemetryRecord> out = new ArrayList<>();
+        schema.deserialize(new ConsumerRecord<>("iot-telemetry-raw", 0, 1L, null, TelemetryBinaryCodec.encode(event)),
+                new ListCollector<>(out));
+
+        assertThat(out).singleElement().satisfies(r -> assertThat(r.getEvent()).isEqualTo(event));
+    }
+
+    @Test
+    void deserialize_shouldRejectEmptyAndOversizedPayloadsWithoutParsing() {
+        assertThat(deserialize("").getRejectReason()).isEqualTo(TelemetryRejectReason.EMPTY_PAYLOAD);
+        assertThat(deserialize("{\"pad\":\"" + "x".repeat(2048) + "\"}").getRejectReason())
+                .isEqualTo(TelemetryRejectReason.PAYLOAD_TOO_LARGE);
+    }
+
+    @Test
+    void deadLetter_shouldKeepOriginalBytesAndDescribeFailureInHeaders() {
+        TelemetryRecord rejected = deserialize("{\"deviceId\":\"d\"}");
+
+        ProducerRecord<byte[], byte[]> dlqRecord = new DeadLetterSerializationSchema("iot-telemetry-dlq")
+                .serialize(rejected, null, 1000L);
+
+        assertThat(dlqRecord.topic()).isEqualTo("iot-telemetry-dlq");
+        assertThat(new String(dlqRecord.key(), StandardCharsets.UTF_8)).isEqualTo(DEVICE_ID);
+        assertThat(new String(dlqRecord.value(), StandardCharsets.UTF_8)).isEqualTo("{\"deviceId\":\"d\"}");
+        assertThat(header(dlqRecord, DeadLetterSerializationSchema.HEADER_REJECT_REASON)).isEqualTo("MISSING_TIMESTAMP");
+        assertThat(header(dlqRecord, DeadLetterSerializationSchema.HEADER_SOURCE_TOPIC)).isEqualTo("iot-telemetry-raw");
+        assertThat(header(dlqRecord, DeadLetterSerializationSchema.HEADER_SOURCE_PARTITION)).isEqualTo("3");
+        assertThat(header(dlqRecord, DeadLetterSerializationSchema.HEADER_SOURCE_OFFSET)).isEqualTo("42");
+    }
+
+    @Test
+    void deserialize_shouldRejectPayloadNamingAnotherDeviceThanTheKey() {
+        String payload = "{\"deviceId\":\"" + DEVICE_ID + "\",\"timestamp\":\"2024-05-01T12:00:00Z\","
+                + "\"data\":{\"currentTemperature\":21.0}}";
+
+        TelemetryRecord telemetryRecord = deserialize("9a4d3f2b-8c1e-4e6f-8b7a-1c2d3e4f5a6b", payload);
+
+        assertThat(telemetryRecord.isValid()).isFalse();
+        assertThat(telemetryRecord.getRejectReason()).isEqualTo(TelemetryRejectReason.DEVICE_ID_KEY_MISMATCH);
+        assertThat(telemetryRecord.getPayload()).isEqualTo(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void deserialize_shouldRejectReadingDatedFurtherAheadOfItsKafkaTimestampThanTheAllowedSkew() {
+        long ingestedAt = Instant.parse("2024-05-01T12:00:00Z").toEpochMilli();
+        String withinSkew = "{\"deviceId\":\"" + DEVICE_ID + "\",\"timestamp\":\"2024-05-01T12:01:00Z\","
+                + "\"data\":{\"currentTemperature\":21.0}}";
+        String tooFarAhead = "{\"deviceId\":\"" + DEVICE_ID + "\",\"timestamp\":\"2090-05-01T12:00:00Z\","
+                + "\"data\":{\"currentTemperature\":21.0}}";
+
+        assertThat(deserializeAt(ingestedAt, withinSkew).isValid()).isTrue();
+        TelemetryRecord telemetryRecord = deserializeAt(ingestedAt, tooFarAhead);
+
+        assertThat(telemetryRecord.isValid()).isFalse();
+        assertThat(telemetryRecord.getRejectReason()).isEqualTo(TelemetryRejectReason.FUTURE_TIMESTAMP);
+        assertThat(telemetryRecord.getPayload()).isEqualTo(tooFarAhead.getBytes(StandardCharsets.UTF_8));
+        // Records without a Kafka timestamp are measured against the wall clock
+        assertThat(deserialize(tooFarAhead).getRejectReason()).isEqualTo(TelemetryRejectReason.FUTURE_TIMESTAMP);
+    }
+
+    private TelemetryRecord deserializeAt(long kafkaTimestamp, String payload) {
+        byte[] value = payload.getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord<byte[], byte[]> consumerRecord = new ConsumerRecord<>("iot-telemetry-raw", 3, 42L,
+                kafkaTimestamp, TimestampType.CREATE_TIME, DEVICE_ID.length(), value.length,
+                DEVICE_ID.getBytes(StandardCharsets.UTF_8), value, new RecordHeaders(), Optional.empty());
+        List<TelemetryRecord> out = new ArrayList<>();
+        schema.deserialize(consumerRecord, new ListCollector<>(out));
+        assertThat(out).hasSize(1);
+        return out.get(0);
+    }
+
+    private TelemetryRecord deserialize(String payload) {
+        return deserialize(DEVICE_ID, payload);
+    }
+
+    private TelemetryRecord deserialize(String key, String payload) {
+        ConsumerRecord<byte[], byte[]> consumerRecord = new ConsumerRecord<>("iot-telemetry-raw", 3, 42L,
+                key.getBytes(StandardCharsets.UTF_8), payload.getBytes(StandardCharsets.UTF_8));
+        List<TelemetryRecord> out = new ArrayList<>();
+        schema.deserialize(consumerRecord, new ListCollector<>(out));
+        assertThat(out).hasSize(1);
+        return out.get(0);
+    }
+
+    private static String header(ProducerRecord<byte[], byte[]> producerRecord, String name) {
+        return new String(producerRecord.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+}
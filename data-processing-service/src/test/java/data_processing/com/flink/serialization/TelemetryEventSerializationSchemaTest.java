@@ -0,0 +1,40 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryEventSerializationSchemaTest {
+
+    private TelemetryEventSerializationSchema schema;
+
+    @BeforeEach
+    void setUp() {
+        schema = new TelemetryEventSerializationSchema("iot-telemetry-processed");
+        schema.open(null, null);
+    }
+
+    @Test
+    void serialize_shouldKeyByDeviceIdAndWriteIsoTimestamp() {
+        TelemetryEvent event = new TelemetryEvent("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b",
+                Instant.parse("2024-05-01T12:00:00.123Z"), new SensorData(21.5, 22.0, true));
+
+        ProducerRecord<byte[], byte[]> producerRecord = schema.serialize(event, null, 1714564800123L);
+
+        assertThat(producerRecord.topic()).isEqualTo("iot-telemetry-processed");
+        assertThat(producerRecord.timestamp()).isEqualTo(1714564800123L);
+        assertThat(new String(producerRecord.key(), StandardCharsets.UTF_8))
+                .isEqualTo("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b");
+        assertThat(new String(producerRecord.value(), StandardCharsets.UTF_8)).isEqualTo(
+                "{\"deviceId\":\"3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b\","
+                        + "\"timestamp\":\"2024-05-01T12:00:00.123Z\","
+                        + "\"data\":{\"currentTemperature\":21.5,\"targetTemperature\":22.0,\"heatingStatus\":true}}");
+    }
+}
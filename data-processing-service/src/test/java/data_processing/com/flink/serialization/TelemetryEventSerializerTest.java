@@ -0,0 +1,145 @@
+package data_processing.com.flink.serialization;
+
+import data_processing.com.flink.model.SensorData;
+import data_processing.com.flink.model.TelemetryEvent;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.api.common.typeutils.TypeSerializerSchemaCompatibility;
+import org.apache.flink.api.common.typeutils.TypeSerializerSnapshot;
+import org.apache.flink.api.java.typeutils.PojoField;
+import org.apache.flink.api.java.typeutils.PojoTypeInfo;
+import org.apache.flink.api.java.typeutils.TypeExtractor;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryEventSerializerTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+    private static final Instant TIMESTAMP = Instant.parse("2024-05-01T12:00:00.123Z");
+
+    private final TelemetryEventSerializer serializer = TelemetryEventSerializer.INSTANCE;
+
+    static Stream<TelemetryEvent> events() {
+        return Stream.of(
+                new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(21.37, 22.0, true)),
+                new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(-4.5, null, false)),
+                new TelemetryEvent(DEVICE_ID, Instant.parse("2024-05-01T12:00:00.123456789Z"), new SensorData(20.0, 20.5, null)),
+                new TelemetryEvent("sensor-1", TIMESTAMP, new SensorData(20.0, null, null)),
+                new TelemetryEvent(DEVICE_ID.toUpperCase(), TIMESTAMP, new SensorData(20.0, null, null)),
+                new TelemetryEvent(DEVICE_ID, Instant.parse("1969-12-31T23:59:59.999500Z"), new SensorData(1.0, 2.0, true)),
+                new TelemetryEvent(null, null, null),
+                new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void serialize_thenDeserialize_shouldRoundTrip(TelemetryEvent event) throws IOException {
+        assertThat(serializer.deserialize(new DataInputDeserializer(serialize(serializer, event)))).isEqualTo(event);
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void deserialize_intoReusedInstance_shouldOverwriteEveryField(TelemetryEvent event) throws IOException {
+        TelemetryEvent reuse = new TelemetryEvent("stale", Instant.EPOCH, new SensorData(1.0, 2.0, true));
+
+        TelemetryEvent result = serializer.deserialize(reuse, new DataInputDeserializer(serialize(serializer, event)));
+
+        assertThat(result).isSameAs(reuse).isEqualTo(event);
+    }
+
+    @ParameterizedTest
+    @MethodSource("events")
+    void copy_shouldBeDeep(TelemetryEvent event) {
+        TelemetryEvent copy = serializer.copy(event);
+
+        assertThat(copy).isEqualTo(event).isNotSameAs(event);
+        if (event.getData() != null) assertThat(copy.getData()).isNotSameAs(event.getData());
+    }
+
+    @Test
+    void serialize_shouldKeepVersionOneLayoutStable() throws IOException {
+        byte[] bytes = serialize(serializer, new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(21.5, 22.0, true)));
+
+        assertThat(HexFormat.of().formatHex(bytes)).isEqualTo(
+                "01f7" + "3f2b8c1e9a4d4e6f" + "8b7a1c2d3e4f5a6b" + "0000018f34069e7b"
+                        + "4035800000000000" + "4036000000000000");
+    }
+
+    @Test
+    void serialize_shouldBeSmallerThanPojoSerializer() throws IOException {
+        TelemetryEvent event = new TelemetryEvent(DEVICE_ID, Instant.parse("2024-05-01T12:00:00.123456Z"),
+                new SensorData(21.37, 22.0, true));
+
+        int custom = serialize(serializer, event).length;
+        int pojo = serialize(pojoSerializer(), event).length;
+
+        assertThat(custom).isEqualTo(46);
+        assertThat(custom).isLessThan(pojo * 2 / 3);
+    }
+
+    @Test
+    void typeExtraction_shouldPickCustomTypeInfo() {
+        assertThat(TypeInformation.of(TelemetryEvent.class)).isInstanceOf(TelemetryEventTypeInfo.class);
+        assertThat(TypeInformation.of(TelemetryEvent.class).createSerializer(new ExecutionConfig())).isSameAs(serializer);
+    }
+
+    @Test
+    void snapshot_shouldRestoreCompatibleSerializer() throws IOException {
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        TypeSerializerSnapshot.writeVersionedSnapshot(out, serializer.snapshotConfiguration());
+
+        TypeSerializerSnapshot<TelemetryEvent> restored = TypeSerializerSnapshot.readVersionedSnapshot(
+                new DataInputDeserializer(out.getCopyOfBuffer()), getClass().getClassLoader());
+
+        assertThat(restored.resolveSchemaCompatibility(serializer).isCompatibleAsIs()).isTrue();
+        assertThat(restored.restoreSerializer()).isEqualTo(serializer);
+
+        TelemetryEvent event = new TelemetryEvent(DEVICE_ID, TIMESTAMP, new SensorData(21.5, 22.0, true));
+        assertThat(restored.restoreSerializer().deserialize(new DataInputDeserializer(serialize(serializer, event))))
+                .isEqualTo(event);
+    }
+
+    @Test
+    void snapshot_fromNewerFormat_shouldBeIncompatible() {
+        TypeSerializerSchemaCompatibility<TelemetryEvent> compatibility =
+                new TelemetryEventSerializer.TelemetryEventSerializerSnapshot(TelemetryEventSerializer.FORMAT_VERSION + 1)
+                        .resolveSchemaCompatibility(serializer);
+
+        assertThat(compatibility.isIncompatible()).isTrue();
+    }
+
+    private static byte[] serialize(TypeSerializer<TelemetryEvent> serializer, TelemetryEvent event) throws IOException {
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        serializer.serialize(event, out);
+        return out.getCopyOfBuffer();
+    }
+
+    /**
+     * What Flink used before the custom type info: the reflective POJO serializer.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static TypeSerializer<TelemetryEvent> pojoSerializer() {
+        try {
+            List<PojoField> fields = List.of(
+                    new PojoField(TelemetryEvent.class.getDeclaredField("deviceId"), BasicTypeInfo.STRING_TYPE_INFO),
+                    new PojoField(TelemetryEvent.class.getDeclaredField("timestamp"), BasicTypeInfo.INSTANT_TYPE_INFO),
+                    new PojoField(TelemetryEvent.class.getDeclaredField("data"), TypeExtractor.createTypeInfo(SensorData.class)));
+            return new PojoTypeInfo(TelemetryEvent.class, fields).createSerializer(new ExecutionConfig());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+#!/bin/bash
+set -e
+
+# Rollups written by the Flink job (telemetry_1m / telemetry_5m / telemetry_15m) outlive raw points.
+# The job writes to <influxdb.bucket>-rollups unless influxdb.rollup.bucket says otherwise
+influx bucket create \
+  --name "${DOCKER_INFLUXDB_INIT_BUCKET}-rollups" \
+  --org "${DOCKER_INFLUXDB_INIT_ORG}" \
+  --retention 400d
@@ -20,6 +20,12 @@ $KAFKA_TOPIC --create --if-not-exists --topic iot-telemetry-processed --partitio
 $KAFKA_TOPIC --create --if-not-exists --topic iot-device-deletions --partitions 1 --replication-factor 1 # Reihenfolge wichtog, deswegen 1 fur logs
 $KAFKA_TOPIC --create --if-not-exists --topic iot-commands --partitions 1 --replication-factor 1
 $KAFKA_TOPIC --create --if-not-exists --topic iot-telemetry-dlq --partitions 1 --replication-factor 1
+$KAFKA_TOPIC --create --if-not-exists --topic iot-telemetry-late --partitions 1 --replication-factor 1
+$KAFKA_TOPIC --create --if-not-exists --topic iot-device-presence --partitions 3 --replication-factor 1 --config cleanup.policy=compact # latest status per device
+$KAFKA_TOPIC --create --if-not-exists --topic iot-device-lifecycle --partitions 1 --replication-factor 1 --config cleanup.policy=compact # latest lifecycle action per device
+$KAFKA_TOPIC --create --if-not-exists --topic iot-device-rate-limits --partitions 1 --replication-factor 1 --config cleanup.policy=compact # rate limit override per device
+$KAFKA_TOPIC --create --if-not-exists --topic iot-telemetry-rate-limited --partitions 1 --replication-factor 1
+$KAFKA_TOPIC --create --if-not-exists --topic iot-telemetry-misrouted --partitions 1 --replication-factor 1 # pre-keyed mode only
 
 echo "📝 Applying ACLs..."
 
@@ -31,17 +37,28 @@ $KAFKA_ACL --add --allow-principal User:mqtt_kafka_bridge_user --operation Write
 # Can write in the deletion and commands thread
 $KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Write --topic iot-device-deletions
 $KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Write --topic iot-commands
+$KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Write --topic iot-device-lifecycle
 # (Optional) Can read processed data for the UI
 $KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Read --topic iot-telemetry-processed --group backend-group
+$KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Read --topic iot-device-presence --group backend-group
+# Reads lifecycle events into the MQTT ACL index, one acl-index-<instance> group per instance
+$KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Read --topic iot-device-lifecycle
+$KAFKA_ACL --add --allow-principal User:user_device_service_user --operation Read --group acl-index- --resource-pattern-type prefixed
 
 # --- 3. FLINK USER (Device Data Processing) ---
 # Reads raw data and deletions
 $KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Read --topic iot-telemetry-raw --group flink-group
 $KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Read --topic iot-device-deletions --group flink-group
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Read --topic iot-device-lifecycle --group flink-group
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Read --topic iot-device-rate-limits --group flink-group
 
 # Writes processed data and commands
 $KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-telemetry-processed
 $KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-commands
 $KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-telemetry-dlq
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-telemetry-late
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-telemetry-rate-limited
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-telemetry-misrouted
+$KAFKA_ACL --add --allow-principal User:device_processing_service_user --operation Write --topic iot-device-presence
 
 echo "✅ Setup Complete!"
\ No newline at end of file
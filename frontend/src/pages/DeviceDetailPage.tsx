@@ -36,7 +36,8 @@ import { setStoredDeviceId } from '../utils/StorageLastDevice';
 const GLOBAL_MIN = -40;
 const GLOBAL_MAX = 100;
 const HISTORY_LIMIT = 300;
-const DATA_STALE_TIMEOUT = 10000; // 10 seconds
+// Unchanged readings are only pushed every keep-alive (60s); OFFLINE comes from presence events sooner
+const DATA_STALE_TIMEOUT = 90000; // 90 seconds
 const SLIDER_PADDING = 10;
 
 type SnackbarState = {
@@ -174,6 +175,9 @@ const DeviceDetailPage: React.FC = () => {
                         ? newData.slice(newData.length - HISTORY_LIMIT)
                         : newData;
                 });
+            },
+            (presence) => {
+                setIsDataStale(presence.status === 'OFFLINE');
             }
         );
 
@@ -198,7 +202,7 @@ const DeviceDetailPage: React.FC = () => {
         setIsDataStale(false);
 
         staleTimeoutRef.current = setTimeout(() => {
-            console.warn('Data not updated for 10 seconds');
+            console.warn(`Data not updated for ${DATA_STALE_TIMEOUT / 1000} seconds`);
             setIsDataStale(true);
         }, DATA_STALE_TIMEOUT);
 
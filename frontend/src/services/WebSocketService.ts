@@ -12,6 +12,12 @@ export interface TelemetryData {
     };
 }
 
+export interface PresenceData {
+    deviceId: string;
+    status: 'ONLINE' | 'OFFLINE';
+    changedAt: string;
+}
+
 export type ConnectionStatus = 'connected' | 'connecting' | 'disconnected' | 'error';
 
 class WebSocketService {
@@ -123,11 +129,13 @@ class WebSocketService {
 
     /**
      * Subscription to telemetry for a specific device
+     * Presence transitions arrive on the same topic and go to onPresence instead
      * Automatically activates the client if it is disabled
      */
     public subscribeToDevice(
         deviceId: string, 
-        callback: (data: TelemetryData) => void
+        callback: (data: TelemetryData) => void,
+        onPresence?: (presence: PresenceData) => void
     ): { unsubscribe: () => void } {
         
         if (!this.client.active) {
@@ -144,8 +152,12 @@ class WebSocketService {
                 subscription = this.client.subscribe(topic, (message: IMessage) => {
                     if (message.body) {
                         try {
-                            const data: TelemetryData = JSON.parse(message.body);
-                            callback(data);
+                            const data = JSON.parse(message.body);
+                            if ('status' in data && !('data' in data)) {
+                                onPresence?.(data as PresenceData);
+                            } else {
+                                callback(data as TelemetryData);
+                            }
                         } catch (e) {
                             console.error('❌ WS: JSON Parse error', e);
                         }
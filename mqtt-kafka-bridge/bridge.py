@@ -8,6 +8,7 @@ import time
 import signal
 import threading
 from datetime import datetime
+from functools import lru_cache
 from flask import Flask, jsonify
 from dotenv import load_dotenv
 
@@ -43,6 +44,11 @@ KAFKA_SASL_USERNAME = os.getenv("KAFKA_SASL_USERNAME", "bridge_user")
 KAFKA_SASL_PASSWORD = os.getenv("KAFKA_SASL_PASSWORD")
 KAFKA_SECURITY_PROTOCOL = os.getenv("KAFKA_SECURITY_PROTOCOL", "SASL_PLAINTEXT")
 KAFKA_SASL_MECHANISM = os.getenv("KAFKA_SASL_MECHANISM", "PLAIN")
+# "flink" places each device on the partition Flink reads on the subtask owning the device's key group,
+# which lets the job run with telemetry.source.prekeyed=true (no keyBy shuffle). Requires the Flink job
+# parallelism to equal the topic's partition count and FLINK_MAX_PARALLELISM to match the job's.
+KAFKA_PARTITIONER = os.getenv("KAFKA_PARTITIONER", "default").lower()
+FLINK_MAX_PARALLELISM = int(os.getenv("FLINK_MAX_PARALLELISM", "128"))
 
 # Performance Config
 MAX_QUEUE_SIZE = int(os.getenv("MAX_QUEUE_SIZE", "10000"))
@@ -102,6 +108,63 @@ except Exception as e:
     logger.error(f"Failed to initialize Kafka Producer: {e}")
     sys.exit(1)
 
+# --- 4b. Flink-aligned partitioning ---
+def _int32(value):
+    value &= 0xFFFFFFFF
+    return value - 0x100000000 if value & 0x80000000 else value
+
+def _java_string_hash(text):
+    """java.lang.String#hashCode over UTF-16 code units"""
+    h = 0
+    data = text.encode('utf-16-be')
+    for i in range(0, len(data), 2):
+        h = (31 * h + ((data[i] << 8) | data[i + 1])) & 0xFFFFFFFF
+    return _int32(h)
+
+def _rotl32(value, bits):
+    value &= 0xFFFFFFFF
+    return ((value << bits) | (value >> (32 - bits))) & 0xFFFFFFFF
+
+def _flink_murmur_hash(code):
+    """org.apache.flink.util.MathUtils#murmurHash(int)"""
+    code = (code * 0xCC9E2D51) & 0xFFFFFFFF
+    code = _rotl32(code, 15)
+    code = (code * 0x1B873593) & 0xFFFFFFFF
+    code = _rotl32(code, 13)
+    code = (code * 5 + 0xE6546B64) & 0xFFFFFFFF
+    code ^= 4
+    code ^= code >> 16
+    code = (code * 0x85EBCA6B) & 0xFFFFFFFF
+    code ^= code >> 13
+    code = (code * 0xC2B2AE35) & 0xFFFFFFFF
+    code ^= code >> 16
+    code = _int32(code)
+    if code >= 0:
+        return code
+    return -code if code != -0x80000000 else 0
+
+def flink_subtask(device_id, parallelism, max_parallelism=FLINK_MAX_PARALLELISM):
+    """KeyGroupRangeAssignment#assignKeyToParallelOperator for a String key"""
+    key_group = _flink_murmur_hash(_java_string_hash(device_id)) % max_parallelism
+    return key_group * parallelism // max_parallelism
+
+@lru_cache(maxsize=100_000)
+def flink_partition(device_id, topic, num_partitions):
+    """Partition the Flink KafkaSource assigns to the subtask that owns the device's key group"""
+    # KafkaSourceEnumerator#getSplitOwner: owner = (startIndex + partition) % numReaders
+    start_index = ((_java_string_hash(topic) * 31) & 0x7FFFFFFF) % num_partitions
+    return (flink_subtask(device_id, num_partitions) - start_index) % num_partitions
+
+topic_partitions = None
+if KAFKA_PARTITIONER == 'flink':
+    try:
+        topic_partitions = len(producer.list_topics(KAFKA_TOPIC_OUT, timeout=10).topics[KAFKA_TOPIC_OUT].partitions)
+        logger.info(f"Flink-aligned partitioning over {topic_partitions} partitions "
+                    f"(max parallelism {FLINK_MAX_PARALLELISM})")
+    except Exception as e:
+        logger.error(f"Failed to read partition count of {KAFKA_TOPIC_OUT}: {e}")
+        sys.exit(1)
+
 def delivery_report(err, msg):
     """Callback from Kafka thread"""
     if err is not None:
@@ -166,12 +229,21 @@ def on_message(client, userdata, msg):
 
         # 3. Produce (Async push to buffer)
         try:
-            producer.produce(
-                KAFKA_TOPIC_OUT,
-                key=device_id.encode('utf-8'),
-                value=msg.payload,
-                callback=delivery_report
-            )
+            if topic_partitions:
+                producer.produce(
+                    KAFKA_TOPIC_OUT,
+                    key=device_id.encode('utf-8'),
+                    value=msg.payload,
+                    partition=flink_partition(device_id, KAFKA_TOPIC_OUT, topic_partitions),
+                    callback=delivery_report
+                )
+            else:
+                producer.produce(
+                    KAFKA_TOPIC_OUT,
+                    key=device_id.encode('utf-8'),
+                    value=msg.payload,
+                    callback=delivery_report
+                )
         except BufferError:
             metrics.messages_dropped += 1
             logger.error("Buffer full caught in produce")
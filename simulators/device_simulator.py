@@ -17,6 +17,8 @@ from werkzeug.serving import make_server
 from cryptography.fernet import Fernet
 import base64
 import hashlib
+import struct
+import uuid
 
 if sys.stdout.encoding != 'utf-8':
     try:
@@ -53,6 +55,8 @@ TELEMETRY_TOPIC = os.getenv('TELEMETRY_TOPIC', "iot/telemetry")
 USER_DEVICE_SERVICE_URL = os.getenv(
     'USER_DEVICE_SERVICE_URL', "http://localhost:8088/api/v1/devices")
 PUBLISH_INTERVAL = int(os.getenv('PUBLISH_INTERVAL', "5"))
+# 'json' or 'binary' (compact format, see TelemetryBinaryCodec in data-processing-service)
+TELEMETRY_FORMAT = os.getenv('TELEMETRY_FORMAT', "json").lower()
 
 # Buffer settings
 MAX_BUFFER_SIZE = int(os.getenv('MAX_BUFFER_SIZE', "100"))
@@ -497,8 +501,22 @@ def simulate_climate_control():
     current_temp = round(current_temp, 2)
 
 
+# Binary layout: magic, version, flags, 16-byte UUID, epoch millis, current temp, target temp
+BINARY_MAGIC = 0xB1
+BINARY_VERSION = 1
+BINARY_FLAGS = 0b0011  # currentTemperature and targetTemperature present
+BINARY_HEATING_PRESENT = 0b0100
+BINARY_HEATING_ON = 0b1000
+
+
 def generate_telemetry_payload():
-    """Generate telemetry JSON"""
+    """Generate telemetry JSON, or the compact binary form when TELEMETRY_FORMAT=binary"""
+    if TELEMETRY_FORMAT == 'binary':
+        flags = BINARY_FLAGS | BINARY_HEATING_PRESENT | (BINARY_HEATING_ON if heating_on else 0)
+        return struct.pack('>BBB16sqdd', BINARY_MAGIC, BINARY_VERSION, flags,
+                           uuid.UUID(device_id).bytes, int(time.time() * 1000),
+                           float(current_temp), float(target_temp))
+
     return json.dumps({
         "deviceId": device_id,
         "timestamp": datetime.now(timezone.utc).isoformat().replace("+00:00", "Z"),
@@ -685,6 +703,7 @@ if __name__ == "__main__":
     logger.info(f"Backend: {USER_DEVICE_SERVICE_URL}")
     logger.info(f"Telemetry Topic: {TELEMETRY_TOPIC}")
     logger.info(f"Publish Interval: {PUBLISH_INTERVAL}s")
+    logger.info(f"Telemetry Format: {TELEMETRY_FORMAT}")
     logger.info(f"Buffer Size: {MAX_BUFFER_SIZE}")
     logger.info(f"Temp Range: {MIN_TEMP}°C - {MAX_TEMP}°C")
     logger.info("============================")
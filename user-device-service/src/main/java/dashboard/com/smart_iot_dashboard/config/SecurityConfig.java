@@ -1,6 +1,7 @@
 
 package dashboard.com.smart_iot_dashboard.config;
 
+import dashboard.com.smart_iot_dashboard.security.HmacTokenEncoder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -14,10 +15,14 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.util.Base64;
+import java.util.Map;
+
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
@@ -25,6 +30,8 @@ import static org.springframework.security.config.Customizer.withDefaults;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String DEVICE_TOKEN_ENCODER_ID = "hmac-sha256";
+
     @Value("${keycloak.webhook.auth.username}")
     private String webhookUsername;
 
@@ -85,4 +92,16 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoderInternal() {
         return new BCryptPasswordEncoder();
     }
+
+    // Device tokens: new hashes are stored as "{hmac-sha256}...", older unprefixed BCrypt
+    // hashes still match and are re-hashed by MqttAuthService on the next successful login
+    @Bean
+    public PasswordEncoder deviceTokenEncoder(@Value("${device.token.hash.key}") String base64Key) {
+        Map<String, PasswordEncoder> encoders = Map.of(
+                DEVICE_TOKEN_ENCODER_ID, new HmacTokenEncoder(Base64.getDecoder().decode(base64Key)),
+                "bcrypt", new BCryptPasswordEncoder());
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(DEVICE_TOKEN_ENCODER_ID, encoders);
+        encoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return encoder;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package dashboard.com.smart_iot_dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published to the lifecycle topic (keyed and compacted by deviceId) whenever a device stops being
+ * allowed to send telemetry. The processing job keeps the latest action per device and drops telemetry
+ * from devices in a revoked state.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeviceLifecycleEvent {
+
+    public static final String DEACTIVATED = "DEACTIVATED";
+    public static final String PURGED = "PURGED";
+
+    private String deviceId;
+    private String action;
+    private Long time;
+}
@@ -24,6 +24,10 @@ public class Device {
     @Column(nullable = false)
     private String hashedDeviceToken;
 
+    // go-auth PBKDF2 form of the token, projected to Redis; null until the token is next presented
+    @Column(name = "broker_password_hash")
+    private String brokerPasswordHash;
+
     @Column(nullable = false, length = 100)
     private String userId;
 
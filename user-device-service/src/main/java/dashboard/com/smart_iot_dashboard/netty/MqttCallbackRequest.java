@@ -0,0 +1,281 @@
+package dashboard.com.smart_iot_dashboard.netty;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The fields of a go-auth HTTP backend callback ({@code auth_opt_http_params_mode json}), read straight
+ * from the request buffer.
+ * <p>
+ * The body is a flat JSON object such as {@code {"username":"...","password":"...","clientid":"..."}} or
+ * {@code {"username":"...","topic":"...","clientid":"...","acc":1}}. Keys are matched against the bytes in
+ * place and only the values of known keys become Strings; nothing else is allocated for unescaped input.
+ * Unknown keys and nested values are skipped.
+ */
+public final class MqttCallbackRequest {
+
+    private static final byte[] USERNAME = ascii("username");
+    private static final byte[] PASSWORD = ascii("password");
+    private static final byte[] TOPIC = ascii("topic");
+    private static final byte[] ACC = ascii("acc");
+
+    private String username;
+    private String password;
+    private String topic;
+    private Integer acc;
+
+    private MqttCallbackRequest() {
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * The mosquitto access type, or {@code null} when the body has no {@code acc}.
+     */
+    public Integer getAcc() {
+        return acc;
+    }
+
+    /**
+     * Reads the readable bytes of {@code body} without moving its reader index.
+     *
+     * @return the parsed request, or {@code null} when the body is not a JSON object
+     */
+    public static MqttCallbackRequest parse(ByteBuf body) {
+        Cursor cursor = new Cursor(body);
+        MqttCallbackRequest request = new MqttCallbackRequest();
+        try {
+            cursor.skipWhitespace();
+            cursor.expect('{');
+            cursor.skipWhitespace();
+            if (cursor.peek() == '}') {
+                cursor.next();
+                return request;
+            }
+            while (true) {
+                cursor.skipWhitespace();
+                cursor.expect('"');
+                int keyStart = cursor.position;
+                int keyEnd = cursor.skipStringBody();
+                cursor.skipWhitespace();
+                cursor.expect(':');
+                cursor.skipWhitespace();
+                request.readValue(cursor, keyStart, keyEnd);
+                cursor.skipWhitespace();
+                byte separator = cursor.next();
+                if (separator == '}') return request;
+                if (separator != ',') return null;
+            }
+        } catch (MalformedException e) {
+            return null;
+        }
+    }
+
+    private void readValue(Cursor cursor, int keyStart, int keyEnd) {
+        if (cursor.matchesKey(keyStart, keyEnd, USERNAME)) {
+            username = cursor.readStringOrNull();
+        } else if (cursor.matchesKey(keyStart, keyEnd, PASSWORD)) {
+            password = cursor.readStringOrNull();
+        } else if (cursor.matchesKey(keyStart, keyEnd, TOPIC)) {
+            topic = cursor.readStringOrNull();
+        } else if (cursor.matchesKey(keyStart, keyEnd, ACC)) {
+            acc = cursor.readIntOrNull();
+        } else {
+            cursor.skipValue();
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class MalformedException extends RuntimeException {
+        private static final MalformedException INSTANCE = new MalformedException();
+
+        private MalformedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Cursor {
+        private final ByteBuf buf;
+        private final int end;
+        private int position;
+
+        private Cursor(ByteBuf buf) {
+            this.buf = buf;
+            this.position = buf.readerIndex();
+            this.end = buf.writerIndex();
+        }
+
+        private byte peek() {
+            if (position >= end) throw MalformedException.INSTANCE;
+            return buf.getByte(position);
+        }
+
+        private byte next() {
+            byte b = peek();
+            position++;
+            return b;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw MalformedException.INSTANCE;
+        }
+
+        private void skipWhitespace() {
+            while (position < end) {
+                byte b = buf.getByte(position);
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') return;
+                position++;
+            }
+        }
+
+        /**
+         * Moves past the closing quote of a string whose opening quote was consumed; returns the index
+         * of the closing quote.
+         */
+        private int skipStringBody() {
+            while (true) {
+                byte b = next();
+                if (b == '"') return position - 1;
+                if (b == '\\') next();
+            }
+        }
+
+        private boolean matchesKey(int start, int end, byte[] key) {
+            if (end - start != key.length) return false;
+            for (int i = 0; i < key.length; i++) {
+                if (buf.getByte(start + i) != key[i]) return false;
+            }
+            return true;
+        }
+
+        private String readStringOrNull() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            expect('"');
+            int start = position;
+            boolean escaped = false;
+            while (true) {
+                byte b = next();
+                if (b == '"') break;
+                if (b == '\\') {
+                    escaped = true;
+                    next();
+                }
+            }
+            int length = position - 1 - start;
+            return escaped ? unescape(start, length) : buf.toString(start, length, StandardCharsets.UTF_8);
+        }
+
+        // Rare path: go-auth only escapes quotes, backslashes and control characters
+        private String unescape(int start, int length) {
+            byte[] bytes = new byte[length];
+            int count = 0;
+            StringBuilder out = new StringBuilder(length);
+            for (int i = start; i < start + length; i++) {
+                byte b = buf.getByte(i);
+                if (b != '\\') {
+                    bytes[count++] = b;
+                    continue;
+                }
+                out.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+                count = 0;
+                byte escape = buf.getByte(++i);
+                switch (escape) {
+                    case '"', '\\', '/' -> out.append((char) escape);
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'u' -> {
+                        if (i + 4 >= start + length) throw MalformedException.INSTANCE;
+                        int code = 0;
+                        for (int k = 1; k <= 4; k++) {
+                            int digit = Character.digit(buf.getByte(i + k), 16);
+                            if (digit < 0) throw MalformedException.INSTANCE;
+                            code = code * 16 + digit;
+                        }
+                        out.append((char) code);
+                        i += 4;
+                    }
+                    default -> throw MalformedException.INSTANCE;
+                }
+            }
+            return out.append(new String(bytes, 0, count, StandardCharsets.UTF_8)).toString();
+        }
+
+        private Integer readIntOrNull() {
+            if (peek() == 'n') {
+                expectLiteral("null");
+                return null;
+            }
+            boolean quoted = peek() == '"';
+            if (quoted) next();
+            boolean negative = peek() == '-';
+            if (negative) next();
+            int value = 0;
+            int digits = 0;
+            while (position < end) {
+                byte b = buf.getByte(position);
+                if (b < '0' || b > '9') break;
+                if (++digits > 9) throw MalformedException.INSTANCE;
+                value = value * 10 + (b - '0');
+                position++;
+            }
+            if (digits == 0) throw MalformedException.INSTANCE;
+            if (quoted) expect('"');
+            return negative ? -value : value;
+        }
+
+        private void expectLiteral(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                expect(literal.charAt(i));
+            }
+        }
+
+        private void skipValue() {
+            byte b = peek();
+            if (b == '"') {
+                next();
+                skipStringBody();
+                return;
+            }
+            if (b == '{' || b == '[') {
+                int depth = 0;
+                do {
+                    byte c = next();
+                    if (c == '"') {
+                        skipStringBody();
+                    } else if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                } while (depth > 0);
+                return;
+            }
+            // Number, true, false or null: runs up to the next separator
+            while (position < end) {
+                byte c = buf.getByte(position);
+                if (c == ',' || c == '}' || c == ' ' || c == '\t' || c == '\n' || c == '\r') return;
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dashboard.com.smart_iot_dashboard.netty;
+
+import dashboard.com.smart_iot_dashboard.service.MqttAclService;
+import dashboard.com.smart_iot_dashboard.service.MqttAuthService;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * A separate HTTP listener for mosquitto-go-auth's HTTP backend, serving only
+ * {@code /api/internal/mqtt/auth} and {@code /api/internal/mqtt/acl} with the same status codes as
+ * {@code MqttAuthController} and {@code MqttAclController}.
+ * <p>
+ * Broker callbacks skip Tomcat, the security filter chains and Jackson, and no longer queue behind dashboard
+ * traffic for servlet threads. ACL checks and cached logins are answered on the event loop, since both are
+ * in-memory lookups; logins that need Postgres and the token hash run on a bounded scheduler.
+ * <p>
+ * Disabled unless {@code mqtt.callback-server.enabled=true}; point {@code auth_opt_http_port} at
+ * {@code mqtt.callback-server.port} when enabling it.
+ */
+@Component
+@ConditionalOnProperty(name = "mqtt.callback-server.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class MqttCallbackServer {
+
+    static final String AUTH_PATH = "/api/internal/mqtt/auth";
+    static final String ACL_PATH = "/api/internal/mqtt/acl";
+    // go-auth bodies are a few hundred bytes; anything larger is not a broker callback
+    private static final int MAX_BODY_BYTES = 4096;
+    private static final int AUTH_QUEUE_SIZE = 10_000;
+
+    private static final Mono<HttpResponseStatus> OK = Mono.just(HttpResponseStatus.OK);
+    private static final Mono<HttpResponseStatus> BAD_REQUEST = Mono.just(HttpResponseStatus.BAD_REQUEST);
+    private static final Mono<HttpResponseStatus> UNAUTHORIZED = Mono.just(HttpResponseStatus.UNAUTHORIZED);
+    private static final Mono<HttpResponseStatus> FORBIDDEN = Mono.just(HttpResponseStatus.FORBIDDEN);
+
+    private final MqttAuthService authService;
+    private final MqttAclService aclService;
+
+    @Value("${mqtt.callback-server.host:0.0.0.0}")
+    private String host;
+
+    @Value("${mqtt.callback-server.port:8089}")
+    private int port;
+
+    @Value("${mqtt.callback-server.event-loop-threads:2}")
+    private int eventLoopThreads;
+
+    @Value("${mqtt.callback-server.auth-threads:16}")
+    private int authThreads;
+
+    private LoopResources loops;
+    private Scheduler authScheduler;
+    private DisposableServer server;
+
+    @PostConstruct
+    public void start() {
+        loops = LoopResources.create("mqtt-callback", 1, eventLoopThreads, true);
+        authScheduler = Schedulers.newBoundedElastic(authThreads, AUTH_QUEUE_SIZE, "mqtt-callback-auth");
+        server = HttpServer.create()
+                .host(host)
+                .port(port)
+                .runOn(loops)
+                .route(routes -> routes
+                        .post(AUTH_PATH, (request, response) -> handle(request, response, this::authenticate))
+                        .post(ACL_PATH, (request, response) -> handle(request, response, this::checkAcl)))
+                .bindNow();
+        log.info("MQTT callback server listening on {}:{}", host, server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) server.disposeNow(Duration.ofSeconds(5));
+        if (authScheduler != null) authScheduler.dispose();
+        // Connections are already closed by disposeNow, so no quiet period is needed
+        if (loops != null) loops.disposeLater(Duration.ZERO, Duration.ofSeconds(5)).block();
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response,
+                                   Function<MqttCallbackRequest, Mono<HttpResponseStatus>> handler) {
+        return request.receive().aggregate()
+                .flatMap(body -> {
+                    // Parsed while the buffer is held; the request only keeps the decoded Strings
+                    MqttCallbackRequest callback = body.readableBytes() <= MAX_BODY_BYTES
+                            ? MqttCallbackRequest.parse(body) : null;
+                    return callback == null ? BAD_REQUEST : handler.apply(callback);
+                })
+                .switchIfEmpty(BAD_REQUEST)
+                .onErrorResume(e -> {
+                    log.error("MQTT callback {} failed: {}", request.uri(), e.getMessage());
+                    return Mono.just(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                })
+                .flatMap(status -> response.status(status).send().then());
+    }
+
+    private Mono<HttpResponseStatus> authenticate(MqttCallbackRequest callback) {
+        String username = callback.getUsername();
+        String password = callback.getPassword();
+        if (isBlank(username) || isBlank(password)) return BAD_REQUEST;
+
+        if (authService.authenticateFromMemory(username, password)) return OK;
+        // A cache miss reads Postgres and verifies the token hash, which must not block an event loop
+        return Mono.fromCallable(() -> authService.authenticateMqttClient(username, password))
+                .subscribeOn(authScheduler)
+                .flatMap(authenticated -> authenticated ? OK : UNAUTHORIZED);
+    }
+
+    private Mono<HttpResponseStatus> checkAcl(MqttCallbackRequest callback) {
+        String username = callback.getUsername();
+        String topic = callback.getTopic();
+        // Like the MVC endpoint, a callback without an access type is rejected rather than denied
+        if (isBlank(username) || isBlank(topic) || callback.getAcc() == null) return BAD_REQUEST;
+
+        return aclService.checkAcl(username, callback.getAcc(), topic) ? OK : FORBIDDEN;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
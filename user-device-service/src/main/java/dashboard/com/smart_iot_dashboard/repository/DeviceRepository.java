@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -25,11 +26,34 @@ public interface DeviceRepository extends JpaRepository<Device, Long> {
 
     boolean existsByDeviceIdAndUserIdAndIsActiveTrue(String deviceId, String userId);
 
-    boolean existsByDeviceIdAndIsActiveTrue(String deviceId);
+    @Query("SELECT d.deviceId FROM Device d WHERE d.isActive = true")
+    List<String> findActiveDeviceIds();
 
     @Modifying
     @Query("UPDATE Device d SET d.isActive = false, d.deactivatedAt = :deactivatedAt WHERE d.userId = :userId AND d.isActive = true")
     int deactivateDevicesByUserId(@Param("userId") String userId, @Param("deactivatedAt") Instant deactivatedAt);
 
+    // Compare-and-set on the old hash, so a concurrent deactivation or re-hash is never overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.hashedDeviceToken = :newHash WHERE d.deviceId = :deviceId AND d.hashedDeviceToken = :oldHash")
+    int replaceHashedDeviceToken(@Param("deviceId") String deviceId, @Param("oldHash") String oldHash,
+                                 @Param("newHash") String newHash);
+
+    // Only the first successful login after claim or migration fills it in
+    @Modifying
+    @Transactional
+    @Query("UPDATE Device d SET d.brokerPasswordHash = :hash WHERE d.deviceId = :deviceId AND d.isActive = true AND d.brokerPasswordHash IS NULL")
+    int setBrokerPasswordHashIfMissing(@Param("deviceId") String deviceId, @Param("hash") String hash);
+
+    @Query("SELECT d.deviceId AS deviceId, d.brokerPasswordHash AS brokerPasswordHash FROM Device d WHERE d.isActive = true AND d.brokerPasswordHash IS NOT NULL")
+    List<BrokerCredential> findActiveBrokerCredentials();
+
     List<Device> findByIsActiveFalseAndDeactivatedAtBefore(Instant cutoffTime);
+
+    interface BrokerCredential {
+        String getDeviceId();
+
+        String getBrokerPasswordHash();
+    }
 }
@@ -0,0 +1,70 @@
+package dashboard.com.smart_iot_dashboard.security;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Produces the {@code PBKDF2$sha256$<iterations>$<base64 salt>$<base64 hash>} strings that
+ * mosquitto-go-auth's pbkdf2 hasher verifies ({@code auth_opt_hasher pbkdf2}, base64 salt encoding).
+ * <p>
+ * Device tokens are 256 random bits, so a low iteration count is enough; the salt only keeps equal
+ * tokens from producing equal hashes.
+ */
+public class BrokerPasswordHasher {
+
+    private static final String PREFIX = "PBKDF2";
+    private static final String ALGORITHM = "sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final int iterations;
+
+    public BrokerPasswordHasher(int iterations) {
+        if (iterations <= 0) throw new IllegalArgumentException("iterations must be positive");
+        this.iterations = iterations;
+    }
+
+    public String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return format(iterations, salt, derive(password, salt, iterations, KEY_BYTES));
+    }
+
+    public boolean matches(String password, String encoded) {
+        if (password == null || password.isEmpty() || encoded == null) return false;
+
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 5 || !PREFIX.equals(parts[0]) || !ALGORITHM.equals(parts[1])) return false;
+        try {
+            int storedIterations = Integer.parseInt(parts[2]);
+            byte[] salt = Base64.getDecoder().decode(parts[3]);
+            byte[] expected = Base64.getDecoder().decode(parts[4]);
+            if (storedIterations <= 0 || expected.length == 0) return false;
+            return MessageDigest.isEqual(expected, derive(password, salt, storedIterations, expected.length));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static String format(int iterations, byte[] salt, byte[] key) {
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + "$" + ALGORITHM + "$" + iterations + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(key);
+    }
+
+    static byte[] derive(String password, byte[] salt, int iterations, int keyBytes) {
+        // SunJCE encodes the chars as UTF-8, the same bytes go-auth hashes
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, keyBytes * 8);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
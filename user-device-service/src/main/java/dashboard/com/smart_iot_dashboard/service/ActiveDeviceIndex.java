@@ -0,0 +1,293 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
+import dashboard.com.smart_iot_dashboard.util.UuidHashSet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory set of active deviceIds, so MQTT ACL checks never reach Postgres.
+ * <p>
+ * Loaded at startup and fully reloaded every {@code mqtt.acl.index.refresh-ms}. In between it is kept
+ * current by claims and successful logins handled by this instance, deletions and the lifecycle topic,
+ * which also carries the deactivations made by other instances. A lifecycle event also drops the device
+ * from this instance's {@link VerifiedCredentialCache}, so a token verified here before another instance
+ * revoked it is not accepted from memory any more. Canonical UUID deviceIds live in a {@link UuidHashSet};
+ * anything else falls back to a plain set.
+ * <p>
+ * Claims are not published on the lifecycle topic. A device claimed on another instance is denied here
+ * until it logs in through this instance or the next reload, up to {@code mqtt.acl.index.refresh-ms}
+ * (60 s by default), and go-auth caches that denial for its ACL cache TTL (300 s). This only affects the
+ * HTTP fallback: a claim also writes the device to the {@link MqttRedisProjection}, which the broker
+ * asks first.
+ * <p>
+ * Size, hit rate and the time since the last full reload are exposed over JMX as
+ * {@code dashboard.com.smart_iot_dashboard:type=ActiveDeviceIndex}.
+ */
+@Component
+@Slf4j
+public class ActiveDeviceIndex implements ActiveDeviceIndexMXBean {
+
+    private static final String MBEAN_NAME = "dashboard.com.smart_iot_dashboard:type=ActiveDeviceIndex";
+
+    private final DeviceRepository deviceRepository;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private UuidHashSet uuids = new UuidHashSet(0);
+    private Set<String> otherIds = new HashSet<>();
+    // Non-null while a reload is running: changes made meanwhile are replayed onto the new snapshot
+    private List<Change> pendingChanges;
+    private volatile long loadedAt;
+    private volatile long lastLoadDurationMs;
+
+    public ActiveDeviceIndex(DeviceRepository deviceRepository, VerifiedCredentialCache verifiedCredentialCache) {
+        this.deviceRepository = deviceRepository;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+        registerMBean();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+        } catch (Exception e) {
+            log.warn("Failed to unregister {}: {}", MBEAN_NAME, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mqtt.acl.index.refresh-ms:60000}",
+            initialDelayString = "${mqtt.acl.index.refresh-ms:60000}")
+    public void reload() {
+        long startedAt = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        UuidHashSet newUuids;
+        Set<String> newOtherIds = new HashSet<>();
+        try {
+            List<String> deviceIds = deviceRepository.findActiveDeviceIds();
+            newUuids = new UuidHashSet(deviceIds.size());
+            for (String deviceId : deviceIds) {
+                add(newUuids, newOtherIds, deviceId);
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Change change : pendingChanges) {
+                apply(newUuids, newOtherIds, change);
+            }
+            uuids = newUuids;
+            otherIds = newOtherIds;
+            pendingChanges = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        loadedAt = startedAt;
+        lastLoadDurationMs = System.currentTimeMillis() - startedAt;
+        log.info("Active device index loaded: {} devices in {} ms", getSize(), lastLoadDurationMs);
+    }
+
+    public boolean contains(String deviceId) {
+        if (deviceId == null) return false;
+
+        UUID uuid = parseCanonical(deviceId);
+        boolean found;
+        lock.readLock().lock();
+        try {
+            found = uuid != null
+                    ? uuids.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())
+                    : otherIds.contains(deviceId);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        (found ? hits : misses).increment();
+        return found;
+    }
+
+    /**
+     * Marks the device active; inside a transaction only once it commits.
+     */
+    public void add(String deviceId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change(new Change(deviceId, true));
+                }
+            });
+        } else {
+            change(new Change(deviceId, true));
+        }
+    }
+
+    /**
+     * Drops the device right away and, inside a transaction, again after completion, because a
+     * concurrent login can still read the device as active and re-add it until the commit.
+     */
+    public void remove(String deviceId) {
+        change(new Change(deviceId, false));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    change(new Change(deviceId, false));
+                }
+            });
+        }
+    }
+
+    // Every lifecycle action revokes the device and its cached token. Each instance needs every event, so each
+    // reads the topic with its own group; the id is stable across restarts so no group is orphaned on the broker
+    @KafkaListener(
+            topics = "${kafka.topic.lifecycle:iot-device-lifecycle}",
+            groupId = "acl-index-${mqtt.acl.index.instance-id:${HOSTNAME:${COMPUTERNAME:local}}}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onLifecycleEvent(ConsumerRecord<String, String> lifecycleRecord) {
+        String deviceId = lifecycleRecord.key();
+        if (deviceId == null || deviceId.isEmpty()) {
+            log.warn("Skipping lifecycle message without Key. Offset: {}", lifecycleRecord.offset());
+            return;
+        }
+        change(new Change(deviceId, false));
+        verifiedCredentialCache.invalidate(deviceId);
+    }
+
+    @Override
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return uuids.size() + otherIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long found = hits.sum();
+        long total = found + misses.sum();
+        return total == 0 ? 0.0 : (double) found / total;
+    }
+
+    @Override
+    public long getStalenessMs() {
+        return loadedAt == 0 ? -1 : System.currentTimeMillis() - loadedAt;
+    }
+
+    @Override
+    public long getLastLoadDurationMs() {
+        return lastLoadDurationMs;
+    }
+
+    private void change(Change change) {
+        if (change.deviceId() == null) return;
+        lock.writeLock().lock();
+        try {
+            apply(uuids, otherIds, change);
+            if (pendingChanges != null) pendingChanges.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(UuidHashSet uuids, Set<String> otherIds, Change change) {
+        if (change.active()) {
+            add(uuids, otherIds, change.deviceId());
+            return;
+        }
+        UUID uuid = parseCanonical(change.deviceId());
+        if (uuid != null) {
+            uuids.remove(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } else {
+            otherIds.remove(change.deviceId());
+        }
+    }
+
+    private static void add(UuidHashSet uuids, Set<String> otherIds, String deviceId) {
+        UUID uuid = parseCanonical(deviceId);
+        if (uuid != null) {
+            uuids.add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        } else {
+            otherIds.add(deviceId);
+        }
+    }
+
+    // UUID.fromString also accepts forms like "1-1-1-1-1"; only ids that round-trip may share the UUID set
+    private static UUID parseCanonical(String deviceId) {
+        if (deviceId.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(deviceId);
+            return uuid.toString().equals(deviceId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(this, name);
+        } catch (Exception e) {
+            log.warn("Failed to register {}: {}", MBEAN_NAME, e.getMessage());
+        }
+    }
+
+    private record Change(String deviceId, boolean active) {
+    }
+}
@@ -0,0 +1,20 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+/**
+ * JMX view of {@link ActiveDeviceIndex}. The hit rate is the share of ACL checks whose device was
+ * active; staleness is the time since the index was last reloaded from Postgres.
+ */
+public interface ActiveDeviceIndexMXBean {
+
+    int getSize();
+
+    long getHits();
+
+    long getMisses();
+
+    double getHitRate();
+
+    long getStalenessMs();
+
+    long getLastLoadDurationMs();
+}
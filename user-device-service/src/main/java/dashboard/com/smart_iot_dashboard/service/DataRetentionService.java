@@ -25,6 +25,7 @@ public class DataRetentionService {
     private final DashboardService dashboardService;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final DeviceLifecycleService deviceLifecycleService;
 
     @Value("${kafka.topic.deletions}")
     private String deleteTopic;
@@ -94,6 +95,10 @@ public class DataRetentionService {
 
                 log.info("[DataRetentionJob] PURGE event for {} sent to Kafka.", deviceId);
 
+                // Flink keeps dropping the device's telemetry for telemetry.purged.revocation.ttl.ms (7 days),
+                // so readings replayed from before the purge cannot re-create the deleted points
+                deviceLifecycleService.publishPurged(deviceId);
+
                 // 4. Permanently remove the device from PostgreSQL
                 deviceRepository.delete(device);
                 log.info("[DataRetentionJob] The device {} has been removed from PostgreSQL.", deviceId);
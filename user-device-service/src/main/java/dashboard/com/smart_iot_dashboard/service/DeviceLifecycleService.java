@@ -0,0 +1,70 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dashboard.com.smart_iot_dashboard.dto.DeviceLifecycleEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeviceLifecycleService {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.topic.lifecycle:iot-device-lifecycle}")
+    private String lifecycleTopic;
+
+    public void publishDeactivated(String deviceId) {
+        publish(deviceId, DeviceLifecycleEvent.DEACTIVATED);
+    }
+
+    public void publishPurged(String deviceId) {
+        publish(deviceId, DeviceLifecycleEvent.PURGED);
+    }
+
+    private void publish(String deviceId, String action) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(
+                    new DeviceLifecycleEvent(deviceId, action, Instant.now().toEpochMilli()));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} lifecycle event for device {}: {}", action, deviceId, e.getMessage());
+            return;
+        }
+
+        // Only announce the change once it is committed, a rolled back deactivation must not revoke the device
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(deviceId, action, payload);
+                }
+            });
+        } else {
+            send(deviceId, action, payload);
+        }
+    }
+
+    private void send(String deviceId, String action, String payload) {
+        // deviceId as key: the topic is compacted down to the latest action per device
+        kafkaTemplate.send(lifecycleTopic, deviceId, payload)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Failed to publish {} lifecycle event for device {}: {}",
+                                action, deviceId, error.getMessage());
+                    } else {
+                        log.info("{} lifecycle event for device {} sent to Kafka.", action, deviceId);
+                    }
+                });
+    }
+}
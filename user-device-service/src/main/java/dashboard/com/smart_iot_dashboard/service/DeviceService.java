@@ -23,6 +23,10 @@ public class DeviceService {
     private final DeviceRepository deviceRepository;
     private final MqttGateway mqttGateway;
     private final StringRedisTemplate redisTemplate;
+    private final DeviceLifecycleService deviceLifecycleService;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final ActiveDeviceIndex activeDeviceIndex;
+    private final MqttRedisProjection mqttRedisProjection;
 
     @Transactional
     public boolean deleteDeviceByUser(String deviceId, String userId) {
@@ -42,6 +46,10 @@ public class DeviceService {
                     deviceRepository.save(device);
 
                     clearAuthCache(device.getDeviceId());
+                    verifiedCredentialCache.invalidate(device.getDeviceId());
+                    activeDeviceIndex.remove(device.getDeviceId());
+                    mqttRedisProjection.remove(device.getDeviceId());
+                    deviceLifecycleService.publishDeactivated(device.getDeviceId());
 
                     log.info("Device {} marked for deletion by user {}", deviceId, userId);
                     return true;
@@ -1,6 +1,7 @@
 package dashboard.com.smart_iot_dashboard.service;
 
 import dashboard.com.smart_iot_dashboard.dto.KeycloakEvent;
+import dashboard.com.smart_iot_dashboard.entity.Device;
 import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +18,10 @@ import java.time.Instant;
 public class KeycloakWebhookService {
 
     private final DeviceRepository deviceRepository;
+    private final DeviceLifecycleService deviceLifecycleService;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final ActiveDeviceIndex activeDeviceIndex;
+    private final MqttRedisProjection mqttRedisProjection;
     // (Optional) private final MqttGateway mqttGateway; // If you want to forcefully terminate sessions
 
     @Transactional
@@ -32,8 +38,17 @@ public class KeycloakWebhookService {
 
             log.warn("DEACTIVATING all devices for deleted user: {}", userId);
 
+            List<Device> activeDevices = deviceRepository.findByUserIdAndIsActiveTrue(userId);
             int deactivatedCount = deviceRepository.deactivateDevicesByUserId(userId, Instant.now());
 
+            // Stops their telemetry in the processing job before go-auth's cache expires
+            activeDevices.forEach(device -> {
+                verifiedCredentialCache.invalidate(device.getDeviceId());
+                activeDeviceIndex.remove(device.getDeviceId());
+                mqttRedisProjection.remove(device.getDeviceId());
+                deviceLifecycleService.publishDeactivated(device.getDeviceId());
+            });
+
             log.info("Deactivated {} devices for user {}", deactivatedCount, userId);
 
             // (Optional) You can also send an MQTT command
@@ -1,11 +1,9 @@
 package dashboard.com.smart_iot_dashboard.service;
 
-import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -15,7 +13,7 @@ public class MqttAclService {
     @Value("${mqtt.bridge.username}")
     private String bridgeUsername;
 
-    private final DeviceRepository deviceRepository;
+    private final ActiveDeviceIndex activeDeviceIndex;
 
     private static final int MOSQ_ACL_READ = 1;
     private static final int MOSQ_ACL_WRITE = 2;
@@ -25,7 +23,6 @@ public class MqttAclService {
     private static final String DEVICES_PREFIX = "devices";
     private static final String COMMANDS_SUFFIX = "commands";
 
-    @Transactional(readOnly = true)
     public boolean checkAcl(String deviceId, Integer accessType, String topic) {
         if (checkSystemBridge(deviceId, accessType, topic)) {
             return true;
@@ -52,12 +49,12 @@ public class MqttAclService {
     }
 
     private boolean checkForRegularDevice(String deviceId, Integer accessType, String topic){
-        if (!deviceRepository.existsByDeviceIdAndIsActiveTrue(deviceId)) {
+        if (!activeDeviceIndex.contains(deviceId)) {
             log.warn("ACL Check: Device '{}' is not active or does not exist. Denying.", deviceId);
             return false;
         }
 
-        String allowedTelemetryTopic = TELEMETRY_PREFIX + "/" + deviceId;
+        String allowedTelemetryTopic = telemetryTopic(deviceId);
 
         if (accessType == MOSQ_ACL_WRITE) {
             if (allowedTelemetryTopic.equals(topic)) {
@@ -68,7 +65,7 @@ public class MqttAclService {
             }
         }
 
-        String allowedCommandTopic = String.format("%s/%s/%s", DEVICES_PREFIX, deviceId, COMMANDS_SUFFIX);
+        String allowedCommandTopic = commandsTopic(deviceId);
 
         if ((accessType == MOSQ_ACL_READ || accessType == MOSQ_ACL_SUBSCRIBE) && topic.equals(allowedCommandTopic)) {
             return true;
@@ -78,6 +75,14 @@ public class MqttAclService {
         return false;
     }
 
+    // Shared with MqttRedisProjection, which writes the same rules into go-auth's Redis layout
+    static String telemetryTopic(String deviceId) {
+        return TELEMETRY_PREFIX + "/" + deviceId;
+    }
+
+    static String commandsTopic(String deviceId) {
+        return String.format("%s/%s/%s", DEVICES_PREFIX, deviceId, COMMANDS_SUFFIX);
+    }
 
     private boolean isValidDeviceCommandsTopic(String topic) {
         if (topic == null) return false;
@@ -7,7 +7,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -16,7 +15,10 @@ import java.util.Optional;
 @Slf4j
 public class MqttAuthService {
     private final DeviceRepository deviceRepository;
-    private final PasswordEncoder passwordEncoderInternal;
+    private final PasswordEncoder deviceTokenEncoder;
+    private final VerifiedCredentialCache verifiedCredentialCache;
+    private final ActiveDeviceIndex activeDeviceIndex;
+    private final MqttRedisProjection mqttRedisProjection;
 
     @Value("${mqtt.bridge.username}")
     private String bridgeUsername;
@@ -24,7 +26,7 @@ public class MqttAuthService {
     @Value("${mqtt.bridge.password}")
     private String bridgePassword;
 
-    @Transactional(readOnly = true)
+    // Not @Transactional: a cache hit must not borrow a database connection
     public boolean authenticateMqttClient(String username, String password) {
         // 1. Check whether this is a system Bridge client
         if (isBridgeClient(username)) {
@@ -42,6 +44,17 @@ public class MqttAuthService {
         return authenticateDevice(username, password);
     }
 
+    /**
+     * Answers without touching the database: true for the bridge and for device tokens in the verified
+     * cache. {@code false} only means {@link #authenticateMqttClient} has to decide.
+     */
+    public boolean authenticateFromMemory(String username, String password) {
+        if (isBridgeClient(username)) {
+            return isValidBridgePassword(password);
+        }
+        return verifiedCredentialCache.isVerified(username, password);
+    }
+
     private boolean isBridgeClient(String username) {
         return bridgeUsername != null && bridgeUsername.equals(username);
     }
@@ -51,6 +64,13 @@ public class MqttAuthService {
     }
 
     private boolean authenticateDevice(String deviceId, String password) {
+        if (verifiedCredentialCache.isVerified(deviceId, password)) {
+            log.debug("MQTT Auth successful (cached) for deviceId: {}", deviceId);
+            return true;
+        }
+
+        long stamp = verifiedCredentialCache.stamp();
+        long projectionStamp = mqttRedisProjection.stamp();
         Optional<Device> deviceOptional = deviceRepository.findByDeviceIdAndIsActiveTrue(deviceId);
 
         if (deviceOptional.isPresent()) {
@@ -62,8 +82,14 @@ public class MqttAuthService {
                 return false;
             }
             try {
-                if (passwordEncoderInternal.matches(password, device.getHashedDeviceToken())) {
+                if (deviceTokenEncoder.matches(password, storedHash)) {
                     log.info("MQTT Auth successful for deviceId: {}", deviceId);
+                    upgradeTokenHash(deviceId, password, storedHash);
+                    // Covers devices claimed on another instance since the ACL index was last reloaded
+                    activeDeviceIndex.add(deviceId);
+                    // The broker fell back to HTTP, so Redis could not answer for this device
+                    mqttRedisProjection.onAuthenticated(device, password, projectionStamp);
+                    verifiedCredentialCache.put(deviceId, password, stamp);
                     return true;
                 } else {
                     log.warn("MQTT Auth failed (Invalid Token) for deviceId: {}", deviceId);
@@ -79,4 +105,17 @@ public class MqttAuthService {
         }
         return false;
     }
+
+    private void upgradeTokenHash(String deviceId, String password, String storedHash) {
+        if (!deviceTokenEncoder.upgradeEncoding(storedHash)) return;
+        try {
+            // Only this request knows the plaintext token, so legacy BCrypt hashes are migrated here
+            if (deviceRepository.replaceHashedDeviceToken(deviceId, storedHash, deviceTokenEncoder.encode(password)) > 0) {
+                log.info("Upgraded token hash for deviceId: {}", deviceId);
+            }
+        } catch (Exception e) {
+            // The login itself succeeded; the hash is upgraded on a later one
+            log.warn("Failed to upgrade token hash for device '{}': {}", deviceId, e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,284 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import dashboard.com.smart_iot_dashboard.entity.Device;
+import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
+import dashboard.com.smart_iot_dashboard.security.BrokerPasswordHasher;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps device credentials and ACLs in Redis in the layout of mosquitto-go-auth's Redis backend, so the
+ * broker can authorize devices without calling this service:
+ * <ul>
+ *     <li>{@code <username>}: the PBKDF2 hash from {@link BrokerPasswordHasher}</li>
+ *     <li>{@code <username>:racls}: topics the client may receive messages on</li>
+ *     <li>{@code <username>:sacls}: topics the client may subscribe to, the same as the read ones</li>
+ *     <li>{@code <username>:wacls}: topics the client may publish to</li>
+ * </ul>
+ * The rules are the ones {@link MqttAclService} applies. Devices are written when they are claimed or log
+ * in over HTTP (the only moments the plaintext token is known) and removed when they are deactivated.
+ * {@link #reconcile()} periodically repairs drift against Postgres. Devices without a broker hash yet
+ * stay on the HTTP backend, which remains configured as the fallback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MqttRedisProjection {
+
+    static final String PROJECTED_DEVICES_KEY = "mqtt:projected-devices";
+    private static final String READ_ACLS_SUFFIX = ":racls";
+    private static final String SUBSCRIBE_ACLS_SUFFIX = ":sacls";
+    private static final String WRITE_ACLS_SUFFIX = ":wacls";
+    private static final String BRIDGE_READ_ACL = "iot/telemetry/#";
+    private static final String BRIDGE_WRITE_ACL = "devices/+/commands";
+    private static final int RECONCILE_BATCH_SIZE = 500;
+    // Password hash, read, subscribe and write ACLs, as read by readProjections
+    private static final int PROJECTED_KEYS = 4;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DeviceRepository deviceRepository;
+
+    @Value("${mqtt.redis-projection.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mqtt.redis-projection.pbkdf2-iterations:1000}")
+    private int iterations;
+
+    @Value("${mqtt.bridge.username}")
+    private String bridgeUsername;
+
+    @Value("${mqtt.bridge.password}")
+    private String bridgePassword;
+
+    private BrokerPasswordHasher hasher;
+    // Bumped on every removal, so a write that raced with one is skipped until the next reconciliation
+    private final AtomicLong removals = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        hasher = new BrokerPasswordHasher(iterations);
+    }
+
+    public String hash(String token) {
+        return hasher.hash(token);
+    }
+
+    /**
+     * Taken before reading the device from the database and handed back to {@link #onAuthenticated}.
+     */
+    public long stamp() {
+        return removals.get();
+    }
+
+    /**
+     * Publishes a freshly claimed device once its transaction commits.
+     */
+    public void publishAfterCommit(String deviceId, String brokerPasswordHash) {
+        if (!enabled) return;
+        long stamp = stamp();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishDevice(deviceId, brokerPasswordHash, stamp);
+                }
+            });
+        } else {
+            publishDevice(deviceId, brokerPasswordHash, stamp);
+        }
+    }
+
+    /**
+     * Called after a successful HTTP login: the broker only asks us when Redis could not answer, so the
+     * device is (re-)published, and devices from before the projection get their broker hash here.
+     */
+    public void onAuthenticated(Device device, String token, long stamp) {
+        if (!enabled) return;
+        try {
+            String brokerPasswordHash = device.getBrokerPasswordHash();
+            if (brokerPasswordHash == null) {
+                brokerPasswordHash = hasher.hash(token);
+                if (deviceRepository.setBrokerPasswordHashIfMissing(device.getDeviceId(), brokerPasswordHash) == 0) {
+                    // Deactivated or filled in by a concurrent login; reconciliation publishes the stored one
+                    return;
+                }
+            }
+            publishDevice(device.getDeviceId(), brokerPasswordHash, stamp);
+        } catch (Exception e) {
+            log.warn("Failed to project MQTT credentials for device {}: {}", device.getDeviceId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Removes the device right away and, inside a transaction, again after completion, because a
+     * concurrent login can still read the device as active and re-publish it until the commit.
+     */
+    public void remove(String deviceId) {
+        if (!enabled) return;
+        removeDevice(deviceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeDevice(deviceId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mqtt.redis-projection.reconcile-ms:300000}",
+            initialDelayString = "${mqtt.redis-projection.reconcile-initial-delay-ms:30000}")
+    public void reconcile() {
+        if (!enabled) return;
+        long stamp = stamp();
+        try {
+            // Read before the devices, so one claimed in between is not taken for a stale entry
+            Set<String> projectedIds = redisTemplate.opsForSet().members(PROJECTED_DEVICES_KEY);
+            List<DeviceRepository.BrokerCredential> credentials = deviceRepository.findActiveBrokerCredentials();
+            Set<String> activeIds = new HashSet<>();
+            int repaired = 0;
+
+            for (int from = 0; from < credentials.size(); from += RECONCILE_BATCH_SIZE) {
+                List<DeviceRepository.BrokerCredential> batch =
+                        credentials.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, credentials.size()));
+                List<Object> projected = readProjections(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    DeviceRepository.BrokerCredential credential = batch.get(i);
+                    activeIds.add(credential.getDeviceId());
+                    if (!isCurrent(credential, projected, i)) {
+                        publishDevice(credential.getDeviceId(), credential.getBrokerPasswordHash(), stamp);
+                        repaired++;
+                    }
+                }
+            }
+
+            int removed = 0;
+            if (projectedIds != null) {
+                for (String deviceId : projectedIds) {
+                    if (!activeIds.contains(deviceId)) {
+                        removeDevice(deviceId);
+                        removed++;
+                    }
+                }
+            }
+
+            publishBridge();
+            log.info("MQTT Redis projection reconciled: {} devices, {} repaired, {} removed",
+                    activeIds.size(), repaired, removed);
+        } catch (DataAccessException e) {
+            log.error("MQTT Redis projection reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Object> readProjections(List<DeviceRepository.BrokerCredential> batch) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                for (DeviceRepository.BrokerCredential credential : batch) {
+                    String deviceId = credential.getDeviceId();
+                    ops.opsForValue().get(deviceId);
+                    ops.opsForSet().members(deviceId + READ_ACLS_SUFFIX);
+                    ops.opsForSet().members(deviceId + SUBSCRIBE_ACLS_SUFFIX);
+                    ops.opsForSet().members(deviceId + WRITE_ACLS_SUFFIX);
+                }
+                return null;
+            }
+        });
+    }
+
+    private static boolean isCurrent(DeviceRepository.BrokerCredential credential, List<Object> projected, int index) {
+        String deviceId = credential.getDeviceId();
+        int offset = index * PROJECTED_KEYS;
+        Set<String> commands = Set.of(MqttAclService.commandsTopic(deviceId));
+        return credential.getBrokerPasswordHash().equals(projected.get(offset))
+                && commands.equals(projected.get(offset + 1))
+                && commands.equals(projected.get(offset + 2))
+                && Set.of(MqttAclService.telemetryTopic(deviceId)).equals(projected.get(offset + 3));
+    }
+
+    private void publishBridge() {
+        if (bridgeUsername == null || bridgeUsername.isBlank() || bridgePassword == null || bridgePassword.isEmpty()) {
+            return;
+        }
+        // The hash is salted, so an existing entry is verified instead of compared
+        String current = redisTemplate.opsForValue().get(bridgeUsername);
+        String passwordHash = hasher.matches(bridgePassword, current) ? current : hasher.hash(bridgePassword);
+        write(bridgeUsername, passwordHash, BRIDGE_READ_ACL, BRIDGE_WRITE_ACL, false);
+    }
+
+    private void publishDevice(String deviceId, String brokerPasswordHash, long stamp) {
+        if (removals.get() != stamp) {
+            log.debug("Skipping MQTT projection of device {}: a removal happened meanwhile", deviceId);
+            return;
+        }
+        try {
+            write(deviceId, brokerPasswordHash,
+                    MqttAclService.commandsTopic(deviceId), MqttAclService.telemetryTopic(deviceId), true);
+        } catch (DataAccessException e) {
+            log.warn("Failed to project MQTT credentials for device {}: {}", deviceId, e.getMessage());
+        }
+    }
+
+    // One MULTI, so go-auth never sees a password without its ACLs or an ACL set half rewritten
+    private void write(String username, String passwordHash, String readAcl, String writeAcl, boolean device) {
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.delete(username + READ_ACLS_SUFFIX);
+                ops.opsForSet().add(username + READ_ACLS_SUFFIX, readAcl);
+                ops.delete(username + SUBSCRIBE_ACLS_SUFFIX);
+                ops.opsForSet().add(username + SUBSCRIBE_ACLS_SUFFIX, readAcl);
+                ops.delete(username + WRITE_ACLS_SUFFIX);
+                ops.opsForSet().add(username + WRITE_ACLS_SUFFIX, writeAcl);
+                ops.opsForValue().set(username, passwordHash);
+                if (device) {
+                    ops.opsForSet().add(PROJECTED_DEVICES_KEY, username);
+                }
+                return ops.exec();
+            }
+        });
+    }
+
+    private void removeDevice(String deviceId) {
+        removals.incrementAndGet();
+        try {
+            redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.multi();
+                    ops.delete(deviceId);
+                    ops.delete(deviceId + READ_ACLS_SUFFIX);
+                    ops.delete(deviceId + SUBSCRIBE_ACLS_SUFFIX);
+                    ops.delete(deviceId + WRITE_ACLS_SUFFIX);
+                    ops.opsForSet().remove(PROJECTED_DEVICES_KEY, deviceId);
+                    return ops.exec();
+                }
+            });
+        } catch (DataAccessException e) {
+            // Reconciliation removes it later; go-auth keeps answering from its own cache until then anyway
+            log.error("Failed to remove MQTT projection for device {}: {}", deviceId, e.getMessage());
+        }
+    }
+}
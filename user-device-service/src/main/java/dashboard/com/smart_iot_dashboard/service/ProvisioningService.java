@@ -22,7 +22,9 @@ public class ProvisioningService {
 
     private final StringRedisTemplate redisTemplate;
     private final DeviceRepository deviceRepository;
-    private final PasswordEncoder passwordEncoderInternal;
+    private final PasswordEncoder deviceTokenEncoder;
+    private final ActiveDeviceIndex activeDeviceIndex;
+    private final MqttRedisProjection mqttRedisProjection;
 
     // You can configure the TTL in application.properties, e.g., claimcode.ttl-minutes=5
     @Value("${claimcode.ttl-minutes:5}")
@@ -59,15 +61,19 @@ public class ProvisioningService {
 
         String deviceId = UUID.randomUUID().toString();
         String deviceToken = generateSecureToken(32);
-        String hashedToken = passwordEncoderInternal.encode(deviceToken);
+        String hashedToken = deviceTokenEncoder.encode(deviceToken);
+        String brokerPasswordHash = mqttRedisProjection.hash(deviceToken);
 
         Device device = new Device();
         device.setDeviceId(deviceId);
         device.setHashedDeviceToken(hashedToken);
+        device.setBrokerPasswordHash(brokerPasswordHash);
         device.setUserId(userId);
         device.setName("New Device " + deviceId.substring(0, 4));
         //device.setStatus("PROVISIONED"); // Example status
         deviceRepository.save(device);
+        activeDeviceIndex.add(deviceId);
+        mqttRedisProjection.publishAfterCommit(deviceId, brokerPasswordHash);
 
         redisTemplate.delete(redisKey);
 
@@ -13,21 +13,29 @@ import org.springframework.stereotype.Service;
 public class TelemetryBridgeService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final TelemetryPayloadConverter payloadConverter;
 
 
+    // Values are read as bytes: the processed topic may carry JSON or the compact binary format
     @KafkaListener(
             topics = "${kafka.topic.processed:iot-telemetry-processed}",
-            groupId = "${kafka.consumer.group-id:backend-group}"
+            groupId = "${kafka.consumer.group-id:backend-group}",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer"
     )
-    public void forwardToWebSocket(ConsumerRecord<String, String> recordProcessed) {
+    public void forwardToWebSocket(ConsumerRecord<String, byte[]> recordProcessed) {
         String deviceId = recordProcessed.key();
-        String payload = recordProcessed.value();
 
         if (deviceId == null || deviceId.isEmpty()) {
             log.warn("Skipping message without Key (deviceId). Offset: {}", recordProcessed.offset());
             return;
         }
 
+        String payload = payloadConverter.toJson(recordProcessed.value());
+        if (payload == null) {
+            log.warn("Skipping undecodable telemetry for device {}. Offset: {}", deviceId, recordProcessed.offset());
+            return;
+        }
+
         try {
             // Spring send it to RabbitMQ (Exchange: amq.topic, Routing Key: device.{id})
             String destination = "/topic/device." + deviceId;
@@ -37,4 +45,24 @@ public class TelemetryBridgeService {
             //TODO DLQ
         }
     }
+
+    // Presence transitions (ONLINE/OFFLINE) from the compacted presence topic; the value is already JSON
+    @KafkaListener(
+            topics = "${kafka.topic.presence:iot-device-presence}",
+            groupId = "${kafka.consumer.group-id:backend-group}"
+    )
+    public void forwardPresenceToWebSocket(ConsumerRecord<String, String> presenceRecord) {
+        String deviceId = presenceRecord.key();
+
+        if (deviceId == null || deviceId.isEmpty() || presenceRecord.value() == null) {
+            log.warn("Skipping presence message without Key or value. Offset: {}", presenceRecord.offset());
+            return;
+        }
+
+        try {
+            messagingTemplate.convertAndSend("/topic/device." + deviceId, presenceRecord.value());
+        } catch (Exception e) {
+            log.error("Failed to forward presence to WS for device {}: {}", deviceId, e.getMessage());
+        }
+    }
 }
@@ -28,6 +28,9 @@ public class TelemetryHistoryService {
     @Value("${spring.influxdb.bucket}")
     private String bucket;
 
+    @Value("${spring.influxdb.rollup-bucket:${spring.influxdb.bucket}-rollups}")
+    private String rollupBucket;
+
     private static final Pattern UUID_PATTERN = Pattern.compile("^[0-9a-fA-F-]{36}$");
 
     public TelemetryHistoryService(InfluxDBClient influxDBClient) {
@@ -57,7 +60,35 @@ public class TelemetryHistoryService {
             default -> "1m";
         };
 
-        String query = String.format(
+        List<TelemetryHistoryPoint> points = new ArrayList<>();
+
+        try {
+            // Pre-aggregated tier written by the Flink rollup stage; its window matches the chart resolution
+            String rollupQuery = String.format(
+                    "from(bucket: \"%s\") " +
+                            "|> range(start: %s) " +
+                            "|> filter(fn: (r) => r[\"_measurement\"] == \"telemetry_%s\") " +
+                            "|> filter(fn: (r) => r[\"deviceId\"] == \"%s\") " +
+                            "|> filter(fn: (r) => r[\"_field\"] == \"mean\") " +
+                            "|> yield(name: \"mean\")",
+                    rollupBucket, range, window, deviceId
+            );
+            readPoints(rollupQuery, points);
+
+            // Windows that are still open (or not yet emitted by the rollup stage) come from raw points,
+            // starting at the end of the last rollup so the scan covers at most a few windows
+            String rawStart = points.isEmpty() ? range : points.get(points.size() - 1).getTimestamp().toString();
+            readPoints(rawQuery(rawStart, deviceId, window), points);
+        } catch (Exception e) {
+            log.error("Error querying InfluxDB for {}: {}", deviceId, e.getMessage());
+            // We do not throw an exception so as not to break the front end with a 500 error
+        }
+
+        return points;
+    }
+
+    private String rawQuery(String start, String deviceId, String window) {
+        return String.format(
                 "from(bucket: \"%s\") " +
                         "|> range(start: %s) " +
                         "|> filter(fn: (r) => r[\"_measurement\"] == \"telemetry\") " +
@@ -65,31 +96,24 @@ public class TelemetryHistoryService {
                         "|> filter(fn: (r) => r[\"_field\"] == \"currentTemperature\") " +
                         "|> aggregateWindow(every: %s, fn: mean, createEmpty: false) " +
                         "|> yield(name: \"mean\")",
-                bucket, range, deviceId, window
+                bucket, start, deviceId, window
         );
+    }
 
-        List<TelemetryHistoryPoint> points = new ArrayList<>();
-
-        try {
-            List<FluxTable> tables = influxDBClient.getQueryApi().query(query, organization);
-
-            for (FluxTable table : tables) {
-                for (FluxRecord fluxRecord : table.getRecords()) {
-                    TelemetryHistoryPoint point = new TelemetryHistoryPoint();
-                    point.setTimestamp(fluxRecord.getTime());
-                    if (fluxRecord.getValue() instanceof Number numberFluxRecord) {
-                        double val = numberFluxRecord.doubleValue();
-                        point.setTemperature(Math.round(val * 100.0) / 100.0);
-                        points.add(point);
-                    }
+    private void readPoints(String query, List<TelemetryHistoryPoint> points) {
+        List<FluxTable> tables = influxDBClient.getQueryApi().query(query, organization);
+
+        for (FluxTable table : tables) {
+            for (FluxRecord fluxRecord : table.getRecords()) {
+                TelemetryHistoryPoint point = new TelemetryHistoryPoint();
+                point.setTimestamp(fluxRecord.getTime());
+                if (fluxRecord.getValue() instanceof Number numberFluxRecord) {
+                    double val = numberFluxRecord.doubleValue();
+                    point.setTemperature(Math.round(val * 100.0) / 100.0);
+                    points.add(point);
                 }
             }
-        } catch (Exception e) {
-            log.error("Error querying InfluxDB for {}: {}", deviceId, e.getMessage());
-            // We do not throw an exception so as not to break the front end with a 500 error
         }
-
-        return points;
     }
 
     private boolean isValidDeviceId(String id) {
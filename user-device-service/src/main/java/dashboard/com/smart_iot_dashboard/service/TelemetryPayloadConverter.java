@@ -0,0 +1,70 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Turns a processed-topic payload into the JSON the dashboard expects.
+ * JSON payloads pass through unchanged; compact binary payloads (first byte {@code 0xB1}, written by
+ * the Flink job's {@code TelemetryBinaryCodec}) are rendered to the same JSON shape.
+ */
+@Component
+public class TelemetryPayloadConverter {
+
+    static final byte MAGIC = (byte) 0xB1;
+    static final byte VERSION_1 = 1;
+
+    private static final int FLAG_CURRENT_TEMPERATURE = 1;
+    private static final int FLAG_TARGET_TEMPERATURE = 1 << 1;
+    private static final int FLAG_HEATING_PRESENT = 1 << 2;
+    private static final int FLAG_HEATING_ON = 1 << 3;
+    private static final int HEADER_SIZE = 3 + 16 + 8;
+
+    /**
+     * @return the JSON payload, or {@code null} if a binary payload is malformed or of an unknown version
+     */
+    public String toJson(byte[] payload) {
+        if (payload == null || payload.length == 0 || payload[0] != MAGIC) {
+            return payload == null ? null : new String(payload, StandardCharsets.UTF_8);
+        }
+        if (payload.length < HEADER_SIZE || payload[1] != VERSION_1) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 2, payload.length - 2);
+        int flags = buffer.get() & 0xFF;
+        if (payload.length != HEADER_SIZE + 8 * Integer.bitCount(flags & 0b11)) {
+            return null;
+        }
+
+        UUID deviceId = new UUID(buffer.getLong(), buffer.getLong());
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+
+        StringBuilder json = new StringBuilder(160)
+                .append("{\"deviceId\":\"").append(deviceId)
+                .append("\",\"timestamp\":\"").append(timestamp)
+                .append("\",\"data\":{\"currentTemperature\":");
+        appendNumber(json, (flags & FLAG_CURRENT_TEMPERATURE) != 0 ? buffer.getDouble() : null);
+        json.append(",\"targetTemperature\":");
+        appendNumber(json, (flags & FLAG_TARGET_TEMPERATURE) != 0 ? buffer.getDouble() : null);
+        json.append(",\"heatingStatus\":");
+        if ((flags & FLAG_HEATING_PRESENT) == 0) {
+            json.append("null");
+        } else {
+            json.append((flags & FLAG_HEATING_ON) != 0);
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendNumber(StringBuilder json, Double value) {
+        if (value == null || !Double.isFinite(value)) {
+            json.append("null");
+        } else {
+            json.append(value.doubleValue());
+        }
+    }
+}
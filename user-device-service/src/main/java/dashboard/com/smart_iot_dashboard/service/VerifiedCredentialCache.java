@@ -0,0 +1,160 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers device tokens that recently passed the device-token check, so a reconnecting device is not
+ * looked up in Postgres and verified against its stored hash again on every go-auth call.
+ * <p>
+ * Entries are keyed by deviceId and hold an HMAC-SHA256 digest of the token under a random key that
+ * never leaves this process; the plaintext token is never stored. The cache is LRU-bounded to
+ * {@code mqtt.auth.cache.max-entries} and an entry expires {@code mqtt.auth.cache.ttl-seconds} after it
+ * was verified, so a missed invalidation is bounded the same way as go-auth's own cache.
+ */
+@Component
+@Slf4j
+public class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Entry> entries;
+    // Bumped on every invalidation, so a verification that raced with one is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public VerifiedCredentialCache(@Value("${mqtt.auth.cache.max-entries:100000}") int maxEntries,
+                                   @Value("${mqtt.auth.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), System::nanoTime);
+    }
+
+    VerifiedCredentialCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > VerifiedCredentialCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns true when this exact token was verified for the device within the TTL.
+     */
+    public boolean isVerified(String deviceId, String token) {
+        if (deviceId == null || token == null) return false;
+
+        byte[] digest = digest(deviceId, token);
+        long now = nanoClock.getAsLong();
+        synchronized (entries) {
+            Entry entry = entries.get(deviceId);
+            if (entry == null) return false;
+            if (now - entry.verifiedAt >= ttlNanos) {
+                entries.remove(deviceId);
+                return false;
+            }
+            return MessageDigest.isEqual(entry.digest, digest);
+        }
+    }
+
+    /**
+     * Marks the token as verified, unless an invalidation happened since {@code stamp} was taken.
+     */
+    public void put(String deviceId, String token, long stamp) {
+        if (deviceId == null || token == null) return;
+
+        Entry entry = new Entry(digest(deviceId, token), nanoClock.getAsLong());
+        synchronized (entries) {
+            if (invalidations.get() != stamp) return;
+            entries.put(deviceId, entry);
+        }
+    }
+
+    /**
+     * Taken before reading the device from the database and handed back to {@link #put}.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Forgets the device's verified token. Inside a transaction the entry is dropped again after
+     * completion, because a concurrent login can still read the device as active until the commit.
+     */
+    public void invalidate(String deviceId) {
+        evict(deviceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(deviceId);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void evict(String deviceId) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(deviceId);
+        }
+        log.debug("Evicted verified MQTT credentials for device {}", deviceId);
+    }
+
+    private byte[] digest(String deviceId, String token) {
+        Mac mac = macs.get();
+        mac.update(deviceId.getBytes(StandardCharsets.UTF_8));
+        // Separator keeps ("ab", "c") and ("a", "bc") apart; deviceIds never contain NUL
+        mac.update((byte) 0);
+        return mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    private record Entry(byte[] digest, long verifiedAt) {
+    }
+}
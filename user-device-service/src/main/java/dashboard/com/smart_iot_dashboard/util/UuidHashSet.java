@@ -0,0 +1,136 @@
+package dashboard.com.smart_iot_dashboard.util;
+
+/**
+ * Open-addressing set of 128-bit UUIDs stored as two parallel {@code long} arrays, so a million
+ * entries take about 32 MB instead of the ~150 MB of a {@code HashSet<String>}.
+ * Uses linear probing with backward-shift deletion; the all-zero UUID marks an empty slot and is
+ * tracked separately. Not thread-safe.
+ */
+public class UuidHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] high;
+    private long[] low;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public UuidHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public boolean add(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            if (added) size++;
+            return added;
+        }
+
+        int slot = slot(msb, lsb);
+        while (high[slot] != 0 || low[slot] != 0) {
+            if (high[slot] == msb && low[slot] == lsb) return false;
+            slot = (slot + 1) & mask;
+        }
+        high[slot] = msb;
+        low[slot] = lsb;
+        size++;
+
+        // Keeps the load factor at or below 1/2, so probe sequences stay short
+        if (size * 2 > high.length) {
+            rehash(high.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) return containsZero;
+
+        int slot = slot(msb, lsb);
+        while (high[slot] != 0 || low[slot] != 0) {
+            if (high[slot] == msb && low[slot] == lsb) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long msb, long lsb) {
+        if (msb == 0 && lsb == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            if (removed) size--;
+            return removed;
+        }
+
+        int slot = slot(msb, lsb);
+        while (high[slot] != 0 || low[slot] != 0) {
+            if (high[slot] == msb && low[slot] == lsb) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Moves later entries of the probe run into the freed slot, so no tombstones are needed
+    private void shiftBack(int free) {
+        int next = free;
+        while (true) {
+            next = (next + 1) & mask;
+            if (high[next] == 0 && low[next] == 0) break;
+
+            int home = slot(high[next], low[next]);
+            boolean stays = free <= next
+                    ? free < home && home <= next
+                    : free < home || home <= next;
+            if (stays) continue;
+
+            high[free] = high[next];
+            low[free] = low[next];
+            free = next;
+        }
+        high[free] = 0;
+        low[free] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHigh = high;
+        long[] oldLow = low;
+        allocate(capacity);
+        for (int i = 0; i < oldHigh.length; i++) {
+            if (oldHigh[i] == 0 && oldLow[i] == 0) continue;
+            int slot = slot(oldHigh[i], oldLow[i]);
+            while (high[slot] != 0 || low[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            high[slot] = oldHigh[i];
+            low[slot] = oldLow[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        high = new long[capacity];
+        low = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long msb, long lsb) {
+        long h = (msb ^ Long.rotateLeft(lsb, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
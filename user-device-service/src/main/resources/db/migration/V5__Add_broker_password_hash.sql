@@ -0,0 +1,2 @@
+ALTER TABLE devices
+    ADD COLUMN broker_password_hash VARCHAR(255);
\ No newline at end of file
@@ -0,0 +1,70 @@
+package dashboard.com.smart_iot_dashboard.benchmark;
+
+import dashboard.com.smart_iot_dashboard.security.HmacTokenEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Device token verification on one thread, i.e. MQTT logins per second per core:
+ * the legacy BCrypt hash vs the {@code {hmac-sha256}} hash new devices get.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class DeviceTokenEncoderBenchmark {
+
+    private DelegatingPasswordEncoder encoder;
+    private String token;
+    private String bcryptHash;
+    private String hmacHash;
+
+    @Setup
+    public void setUp() {
+        SecureRandom random = new SecureRandom();
+        byte[] key = new byte[32];
+        random.nextBytes(key);
+        byte[] tokenBytes = new byte[32];
+        random.nextBytes(tokenBytes);
+        token = Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+
+        // Same wiring as SecurityConfig.deviceTokenEncoder
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        encoder = new DelegatingPasswordEncoder("hmac-sha256",
+                Map.<String, PasswordEncoder>of("hmac-sha256", new HmacTokenEncoder(key), "bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        bcryptHash = bcrypt.encode(token);
+        hmacHash = encoder.encode(token);
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return encoder.matches(token, bcryptHash);
+    }
+
+    @Benchmark
+    public boolean hmacSha256() {
+        return encoder.matches(token, hmacHash);
+    }
+}
@@ -0,0 +1,172 @@
+package dashboard.com.smart_iot_dashboard.benchmark;
+
+import dashboard.com.smart_iot_dashboard.config.SecurityConfig;
+import dashboard.com.smart_iot_dashboard.controller.MqttAclController;
+import dashboard.com.smart_iot_dashboard.controller.MqttAuthController;
+import dashboard.com.smart_iot_dashboard.netty.MqttCallbackServer;
+import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
+import dashboard.com.smart_iot_dashboard.service.ActiveDeviceIndex;
+import dashboard.com.smart_iot_dashboard.service.MqttAclService;
+import dashboard.com.smart_iot_dashboard.service.MqttAuthService;
+import dashboard.com.smart_iot_dashboard.service.MqttRedisProjection;
+import dashboard.com.smart_iot_dashboard.service.VerifiedCredentialCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Broker callbacks per second over real HTTP: the Tomcat/Spring MVC endpoints behind the security filter
+ * chain vs {@link MqttCallbackServer}, both calling the same service instances. Auth requests hit the
+ * verified-credential cache and ACL requests the active-device index, i.e. the steady state go-auth sees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MqttCallbackBenchmark {
+
+    private static final String DEVICE_ID = UUID.randomUUID().toString();
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    private ConfigurableApplicationContext mvcContext;
+    private MqttCallbackServer nettyServer;
+    private HttpClient client;
+    private HttpRequest mvcAuth;
+    private HttpRequest mvcAcl;
+    private HttpRequest nettyAuth;
+    private HttpRequest nettyAcl;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            FlywayAutoConfiguration.class, KafkaAutoConfiguration.class, RedisAutoConfiguration.class,
+            RedisRepositoriesAutoConfiguration.class})
+    @Import({SecurityConfig.class, MqttAuthController.class, MqttAclController.class})
+    static class MvcApplication {
+    }
+
+    @Setup
+    public void setUp() {
+        DeviceRepository deviceRepository = mock(DeviceRepository.class);
+        when(deviceRepository.findActiveDeviceIds()).thenReturn(List.of(DEVICE_ID));
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(1000, 3600);
+        ActiveDeviceIndex activeDeviceIndex = new ActiveDeviceIndex(deviceRepository, cache);
+        activeDeviceIndex.reload();
+        cache.put(DEVICE_ID, DEVICE_TOKEN, cache.stamp());
+
+        MqttAclService aclService = new MqttAclService(activeDeviceIndex);
+        MqttAuthService authService = new MqttAuthService(deviceRepository, mock(PasswordEncoder.class), cache,
+                activeDeviceIndex, mock(MqttRedisProjection.class));
+        ReflectionTestUtils.setField(aclService, "bridgeUsername", "bridge");
+        ReflectionTestUtils.setField(authService, "bridgeUsername", "bridge");
+        ReflectionTestUtils.setField(authService, "bridgePassword", "bridge-pass");
+
+        mvcContext = new SpringApplicationBuilder(MvcApplication.class)
+                .initializers(context -> {
+                    context.getBeanFactory().registerSingleton("mqttAuthService", authService);
+                    context.getBeanFactory().registerSingleton("mqttAclService", aclService);
+                })
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                        // Only needed to build the user API chain; never contacted
+                        "spring.security.oauth2.resourceserver.jwt.issuer-uri=http://127.0.0.1:1/realms/benchmark")
+                .run();
+        int mvcPort = ((WebServerApplicationContext) mvcContext).getWebServer().getPort();
+
+        nettyServer = new MqttCallbackServer(authService, aclService);
+        ReflectionTestUtils.setField(nettyServer, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(nettyServer, "port", 0);
+        ReflectionTestUtils.setField(nettyServer, "eventLoopThreads", 2);
+        ReflectionTestUtils.setField(nettyServer, "authThreads", 16);
+        nettyServer.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        String authBody = "{\"username\":\"" + DEVICE_ID + "\",\"password\":\"" + DEVICE_TOKEN + "\",\"clientid\":\"c1\"}";
+        String aclBody = "{\"username\":\"" + DEVICE_ID + "\",\"topic\":\"iot/telemetry/" + DEVICE_ID
+                + "\",\"clientid\":\"c1\",\"acc\":2}";
+        mvcAuth = post(mvcPort, "/api/internal/mqtt/auth", authBody);
+        mvcAcl = post(mvcPort, "/api/internal/mqtt/acl", aclBody);
+        nettyAuth = post(nettyServer.port(), "/api/internal/mqtt/auth", authBody);
+        nettyAcl = post(nettyServer.port(), "/api/internal/mqtt/acl", aclBody);
+
+        for (HttpRequest request : List.of(mvcAuth, mvcAcl, nettyAuth, nettyAcl)) {
+            if (send(request) != 200) throw new IllegalStateException("Unexpected status for " + request.uri());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        nettyServer.stop();
+        mvcContext.close();
+    }
+
+    @Benchmark
+    public int mvcAuth() {
+        return send(mvcAuth);
+    }
+
+    @Benchmark
+    public int nettyAuth() {
+        return send(nettyAuth);
+    }
+
+    @Benchmark
+    public int mvcAcl() {
+        return send(mvcAcl);
+    }
+
+    @Benchmark
+    public int nettyAcl() {
+        return send(nettyAcl);
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest post(int port, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+package dashboard.com.smart_iot_dashboard.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MQTT Callback Request Parser Tests")
+class MqttCallbackRequestTest {
+
+    @Test
+    @DisplayName("Reads go-auth auth and ACL bodies, skipping unknown keys")
+    void testParsesCallbacks() {
+        MqttCallbackRequest auth = parse("{\"username\":\"sensor-123\",\"password\":\"raw-token-abc\",\"clientid\":\"c1\"}");
+        assertEquals("sensor-123", auth.getUsername());
+        assertEquals("raw-token-abc", auth.getPassword());
+        assertNull(auth.getTopic());
+
+        MqttCallbackRequest acl = parse(" { \"clientid\" : \"c1\", \"extra\": {\"a\": [1, \"}\"]}, \"flag\": true,"
+                + " \"username\": \"sensor-123\", \"topic\": \"iot/telemetry/sensor-123\", \"acc\": 2 } ");
+        assertEquals("sensor-123", acl.getUsername());
+        assertEquals("iot/telemetry/sensor-123", acl.getTopic());
+        assertEquals(2, (int) acl.getAcc());
+        assertNull(acl.getPassword());
+    }
+
+    @Test
+    @DisplayName("Decodes escapes and UTF-8, and tells a missing acc from a quoted one")
+    void testEscapesAndAcc() {
+        MqttCallbackRequest request = parse("{\"username\":\"d\\\"ev\\\\1\\u00e9\",\"topic\":\"caf\u00e9/\\/x\",\"acc\":\"4\"}");
+        assertEquals("d\"ev\\1\u00e9", request.getUsername());
+        assertEquals("caf\u00e9//x", request.getTopic());
+        assertEquals(4, (int) request.getAcc());
+
+        MqttCallbackRequest noAcc = parse("{\"username\":null,\"topic\":\"t\"}");
+        assertNull(noAcc.getUsername());
+        assertNull(noAcc.getAcc());
+        assertNull(parse("{\"topic\":\"t\",\"acc\":null}").getAcc());
+    }
+
+    @Test
+    @DisplayName("Rejects bodies that are not a complete JSON object")
+    void testMalformed() {
+        assertNull(parse(""));
+        assertNull(parse("[]"));
+        assertNull(parse("{\"username\":\"sensor-123\""));
+        assertNull(parse("{\"username\":\"sensor-123\" \"topic\":\"t\"}"));
+        assertNull(parse("{\"acc\":\"x\"}"));
+        assertNull(parse("{\"username\":\"\\q\"}"));
+        assertNotNull(parse("{}"));
+    }
+
+    @Test
+    @DisplayName("Leaves the buffer's reader index untouched")
+    void testReaderIndex() {
+        ByteBuf body = Unpooled.copiedBuffer("xx{\"username\":\"u\"}", StandardCharsets.UTF_8);
+        body.readerIndex(2);
+
+        assertEquals("u", MqttCallbackRequest.parse(body).getUsername());
+        assertEquals(2, body.readerIndex());
+    }
+
+    private static MqttCallbackRequest parse(String json) {
+        return MqttCallbackRequest.parse(Unpooled.copiedBuffer(json, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,115 @@
+package dashboard.com.smart_iot_dashboard.netty;
+
+import dashboard.com.smart_iot_dashboard.service.MqttAclService;
+import dashboard.com.smart_iot_dashboard.service.MqttAuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MQTT Callback Server Tests")
+class MqttCallbackServerTest {
+
+    private static final String DEVICE_ID = "sensor-123";
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    @Mock
+    private MqttAuthService authService;
+
+    @Mock
+    private MqttAclService aclService;
+
+    private MqttCallbackServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        server = new MqttCallbackServer(authService, aclService);
+        ReflectionTestUtils.setField(server, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(server, "port", 0);
+        ReflectionTestUtils.setField(server, "eventLoopThreads", 1);
+        ReflectionTestUtils.setField(server, "authThreads", 2);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Cached logins are answered without the blocking check")
+    void testCachedAuth() throws Exception {
+        when(authService.authenticateFromMemory(DEVICE_ID, DEVICE_TOKEN)).thenReturn(true);
+
+        assertEquals(200, post(MqttCallbackServer.AUTH_PATH, authBody(DEVICE_TOKEN)));
+        verify(authService, never()).authenticateMqttClient(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Cache misses run the full check off the event loop")
+    void testUncachedAuth() throws Exception {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(authService.authenticateMqttClient(DEVICE_ID, "wrong-token")).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return false;
+        });
+
+        assertEquals(401, post(MqttCallbackServer.AUTH_PATH, authBody("wrong-token")));
+        assertTrue(thread.get().startsWith("mqtt-callback-auth"), thread.get());
+    }
+
+    @Test
+    @DisplayName("ACL checks map to 200 and 403")
+    void testAcl() throws Exception {
+        when(aclService.checkAcl(DEVICE_ID, 2, "iot/telemetry/" + DEVICE_ID)).thenReturn(true);
+
+        assertEquals(200, post(MqttCallbackServer.ACL_PATH, aclBody("iot/telemetry/" + DEVICE_ID)));
+        assertEquals(403, post(MqttCallbackServer.ACL_PATH, aclBody("iot/telemetry/other")));
+    }
+
+    @Test
+    @DisplayName("Invalid bodies get 400 and other paths 404")
+    void testRejects() throws Exception {
+        assertEquals(400, post(MqttCallbackServer.AUTH_PATH, "not json"));
+        assertEquals(400, post(MqttCallbackServer.AUTH_PATH, ""));
+        assertEquals(400, post(MqttCallbackServer.AUTH_PATH, "{\"username\":\"" + DEVICE_ID + "\",\"password\":\" \"}"));
+        assertEquals(400, post(MqttCallbackServer.ACL_PATH, "{\"username\":\"" + DEVICE_ID + "\",\"acc\":1}"));
+        assertEquals(400, post(MqttCallbackServer.ACL_PATH, "{\"username\":\"" + DEVICE_ID + "\",\"topic\":\"t\"}"));
+        assertEquals(400, post(MqttCallbackServer.ACL_PATH, "{\"username\":\"" + DEVICE_ID + "\",\"topic\":\"t\",\"acc\":\"w\"}"));
+        assertEquals(400, post(MqttCallbackServer.ACL_PATH, "{\"username\":\"" + "x".repeat(5000) + "\"}"));
+        assertEquals(404, post("/api/devices", "{}"));
+        verifyNoInteractions(authService, aclService);
+    }
+
+    private int post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.port() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String authBody(String password) {
+        return "{\"username\":\"" + DEVICE_ID + "\",\"password\":\"" + password + "\",\"clientid\":\"c1\"}";
+    }
+
+    private static String aclBody(String topic) {
+        return "{\"username\":\"" + DEVICE_ID + "\",\"topic\":\"" + topic + "\",\"clientid\":\"c1\",\"acc\":2}";
+    }
+}
@@ -0,0 +1,43 @@
+package dashboard.com.smart_iot_dashboard.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("go-auth PBKDF2 Hasher Tests")
+class BrokerPasswordHasherTest {
+
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    @Test
+    @DisplayName("Output matches the PBKDF2 string go-auth builds for the same salt")
+    void testGoldenVector() {
+        byte[] salt = new byte[16];
+        for (int i = 0; i < salt.length; i++) salt[i] = (byte) i;
+
+        // hashlib.pbkdf2_hmac('sha256', b'raw-token-abc', bytes(range(16)), 1000, 32)
+        String expected = "PBKDF2$sha256$1000$AAECAwQFBgcICQoLDA0ODw==$mO/o/ujEtlei8npFxEAECnnUA2l0xJakM97shx9WDK8=";
+        String encoded = BrokerPasswordHasher.format(1000, salt,
+                BrokerPasswordHasher.derive(DEVICE_TOKEN, salt, 1000, 32));
+
+        assertEquals(expected, encoded);
+        assertTrue(new BrokerPasswordHasher(1).matches(DEVICE_TOKEN, expected));
+    }
+
+    @Test
+    @DisplayName("Hashes are salted and verify only the same token")
+    void testHashAndMatch() {
+        BrokerPasswordHasher hasher = new BrokerPasswordHasher(10);
+        String first = hasher.hash(DEVICE_TOKEN);
+
+        assertNotEquals(first, hasher.hash(DEVICE_TOKEN));
+        assertTrue(first.startsWith("PBKDF2$sha256$10$"));
+        assertTrue(hasher.matches(DEVICE_TOKEN, first));
+        assertFalse(hasher.matches(DEVICE_TOKEN + " ", first));
+        assertFalse(hasher.matches("", first));
+        assertFalse(hasher.matches(DEVICE_TOKEN, null));
+        assertFalse(hasher.matches(DEVICE_TOKEN, "PBKDF2$sha512$10$AAAA$AAAA"));
+        assertFalse(hasher.matches(DEVICE_TOKEN, "$2a$10$legacybcrypt"));
+    }
+}
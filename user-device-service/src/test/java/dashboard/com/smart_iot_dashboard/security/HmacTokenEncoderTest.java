@@ -0,0 +1,61 @@
+package dashboard.com.smart_iot_dashboard.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HMAC Device Token Encoder Tests")
+class HmacTokenEncoderTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    private final HmacTokenEncoder encoder = new HmacTokenEncoder(KEY);
+
+    @Test
+    @DisplayName("Hash matches only the same token under the same key")
+    void testMatches() {
+        String hash = encoder.encode(DEVICE_TOKEN);
+
+        assertEquals(hash, encoder.encode(DEVICE_TOKEN));
+        assertTrue(encoder.matches(DEVICE_TOKEN, hash));
+        assertFalse(encoder.matches(DEVICE_TOKEN + " ", hash));
+        assertFalse(encoder.matches(null, hash));
+        assertFalse(encoder.matches(DEVICE_TOKEN, "not base64!"));
+
+        byte[] otherKey = KEY.clone();
+        otherKey[0] ^= 1;
+        assertFalse(new HmacTokenEncoder(otherKey).matches(DEVICE_TOKEN, hash));
+    }
+
+    @Test
+    @DisplayName("Short keys are rejected")
+    void testShortKeyRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new HmacTokenEncoder(new byte[16]));
+    }
+
+    @Test
+    @DisplayName("Delegating setup verifies legacy BCrypt hashes and asks for their upgrade")
+    void testLegacyBcryptHashes() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("hmac-sha256",
+                Map.<String, PasswordEncoder>of("hmac-sha256", encoder, "bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        String legacyHash = bcrypt.encode(DEVICE_TOKEN);
+        assertTrue(delegating.matches(DEVICE_TOKEN, legacyHash));
+        assertTrue(delegating.upgradeEncoding(legacyHash));
+
+        String currentHash = delegating.encode(DEVICE_TOKEN);
+        assertTrue(currentHash.startsWith("{hmac-sha256}"));
+        assertTrue(delegating.matches(DEVICE_TOKEN, currentHash));
+        assertFalse(delegating.upgradeEncoding(currentHash));
+    }
+}
@@ -0,0 +1,97 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Active Device Index Tests")
+class ActiveDeviceIndexTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+    private static final String OTHER_DEVICE_ID = "sensor-456";
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @InjectMocks
+    private ActiveDeviceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(deviceRepository.findActiveDeviceIds()).thenReturn(List.of(DEVICE_ID, OTHER_DEVICE_ID));
+        index.reload();
+    }
+
+    @Test
+    @DisplayName("Loaded UUID and non-UUID deviceIds are found")
+    void testLoadedDevicesAreFound() {
+        assertEquals(2, index.getSize());
+        assertTrue(index.contains(DEVICE_ID));
+        assertTrue(index.contains(OTHER_DEVICE_ID));
+        // Same UUID value, but not the stored deviceId
+        assertFalse(index.contains(DEVICE_ID.toUpperCase()));
+        assertFalse(index.contains(null));
+
+        assertEquals(2, index.getHits());
+        assertEquals(1, index.getMisses());
+        assertEquals(2.0 / 3, index.getHitRate(), 1e-9);
+        assertTrue(index.getStalenessMs() >= 0);
+    }
+
+    @Test
+    @DisplayName("Claims, deletions and lifecycle events update the index")
+    void testChanges() {
+        String claimed = "0c8f1d2e-3b4a-4c5d-9e6f-7a8b9c0d1e2f";
+        index.add(claimed);
+        assertTrue(index.contains(claimed));
+
+        index.remove(DEVICE_ID);
+        assertFalse(index.contains(DEVICE_ID));
+
+        index.onLifecycleEvent(new ConsumerRecord<>("iot-device-lifecycle", 0, 0L, OTHER_DEVICE_ID, "{}"));
+        assertFalse(index.contains(OTHER_DEVICE_ID));
+        assertEquals(1, index.getSize());
+    }
+
+    @Test
+    @DisplayName("A lifecycle event from another instance evicts the cached token")
+    void testLifecycleEventEvictsVerifiedCredentials() {
+        index.onLifecycleEvent(new ConsumerRecord<>("iot-device-lifecycle", 0, 0L, DEVICE_ID, "{}"));
+        verify(verifiedCredentialCache).invalidate(DEVICE_ID);
+
+        index.onLifecycleEvent(new ConsumerRecord<>("iot-device-lifecycle", 0, 1L, null, "{}"));
+        verify(verifiedCredentialCache, never()).invalidate(null);
+    }
+
+    @Test
+    @DisplayName("A change made while reloading survives the new snapshot")
+    void testChangeDuringReloadIsKept() {
+        when(deviceRepository.findActiveDeviceIds()).thenAnswer(invocation -> {
+            // Deleted after the query read it as active
+            index.remove(DEVICE_ID);
+            return List.of(DEVICE_ID, OTHER_DEVICE_ID);
+        });
+
+        index.reload();
+
+        assertFalse(index.contains(DEVICE_ID));
+        assertTrue(index.contains(OTHER_DEVICE_ID));
+    }
+}
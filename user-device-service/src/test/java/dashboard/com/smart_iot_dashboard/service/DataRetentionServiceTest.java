@@ -17,6 +17,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +36,9 @@ class DataRetentionServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private DeviceLifecycleService deviceLifecycleService;
+
     @InjectMocks
     private DataRetentionService dataRetentionService;
 
@@ -69,7 +73,9 @@ class DataRetentionServiceTest {
                 eq(expectedKafkaPayload)
         );
 
+        verify(objectMapper).writeValueAsString(Map.of("deviceId", expiredDevice1_Id, "action", "PURGE"));
         verify(deviceRepository).delete(eq(expiredDevice1));
+        verify(deviceLifecycleService).publishPurged(expiredDevice1_Id);
     }
 
     @Test
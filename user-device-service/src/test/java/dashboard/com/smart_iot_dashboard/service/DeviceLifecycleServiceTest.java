@@ -0,0 +1,81 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dashboard.com.smart_iot_dashboard.dto.DeviceLifecycleEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceLifecycleServiceTest {
+
+    private static final String TOPIC = "iot-device-lifecycle";
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private DeviceLifecycleService deviceLifecycleService;
+
+    @BeforeEach
+    void setUp() {
+        deviceLifecycleService = new DeviceLifecycleService(kafkaTemplate, objectMapper);
+        ReflectionTestUtils.setField(deviceLifecycleService, "lifecycleTopic", TOPIC);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publishDeactivated_shouldSendKeyedEvent_whenNoTransaction() throws Exception {
+        CompletableFuture<SendResult<String, String>> sent = CompletableFuture.completedFuture(null);
+        when(kafkaTemplate.send(eq(TOPIC), eq("device-1"), anyString())).thenReturn(sent);
+
+        deviceLifecycleService.publishDeactivated("device-1");
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq(TOPIC), eq("device-1"), payload.capture());
+        DeviceLifecycleEvent event = objectMapper.readValue(payload.getValue(), DeviceLifecycleEvent.class);
+        assertThat(event.getDeviceId()).isEqualTo("device-1");
+        assertThat(event.getAction()).isEqualTo(DeviceLifecycleEvent.DEACTIVATED);
+        assertThat(event.getTime()).isPositive();
+    }
+
+    @Test
+    void publishPurged_shouldWaitForCommit_whenInTransaction() {
+        when(kafkaTemplate.send(eq(TOPIC), eq("device-1"), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        TransactionSynchronizationManager.initSynchronization();
+
+        deviceLifecycleService.publishPurged("device-1");
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(kafkaTemplate).send(eq(TOPIC), eq("device-1"), anyString());
+    }
+}
@@ -20,6 +20,18 @@ class DeviceServiceTest {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private DeviceLifecycleService deviceLifecycleService;
+
+    @Mock
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Mock
+    private ActiveDeviceIndex activeDeviceIndex;
+
+    @Mock
+    private MqttRedisProjection mqttRedisProjection;
+
     @InjectMocks
     private DeviceService deviceService;
 
@@ -56,6 +68,12 @@ class DeviceServiceTest {
         // 3. Check that the saved object has the flag isActive = false and the date is set
         assertThat(savedDevice.isActive()).isFalse();
         assertThat(savedDevice.getDeactivatedAt()).isNotNull();
+
+        // 4. Check that the processing job is told to stop accepting its telemetry
+        verify(deviceLifecycleService).publishDeactivated(deviceId);
+        verify(verifiedCredentialCache).invalidate(deviceId);
+        verify(activeDeviceIndex).remove(deviceId);
+        verify(mqttRedisProjection).remove(deviceId);
     }
 
     @Test
@@ -74,5 +92,8 @@ class DeviceServiceTest {
         // Assert
         assertThat(result).isFalse(); // Method should return false
         verify(deviceRepository, never()).save(any(Device.class));
+        verify(deviceLifecycleService, never()).publishDeactivated(any());
+        verify(verifiedCredentialCache, never()).invalidate(any());
+        verify(activeDeviceIndex, never()).remove(any());
     }
 }
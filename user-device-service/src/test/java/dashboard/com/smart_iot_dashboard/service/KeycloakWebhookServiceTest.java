@@ -1,6 +1,7 @@
 package dashboard.com.smart_iot_dashboard.service;
 
 import dashboard.com.smart_iot_dashboard.dto.KeycloakEvent;
+import dashboard.com.smart_iot_dashboard.entity.Device;
 import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,12 +12,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Instant;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class KeycloakWebhookServiceTest {
@@ -24,6 +27,18 @@ class KeycloakWebhookServiceTest {
     @Mock
     private DeviceRepository deviceRepository;
 
+    @Mock
+    private DeviceLifecycleService deviceLifecycleService;
+
+    @Mock
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Mock
+    private ActiveDeviceIndex activeDeviceIndex;
+
+    @Mock
+    private MqttRedisProjection mqttRedisProjection;
+
     @InjectMocks
     private KeycloakWebhookService keycloakWebhookService;
 
@@ -38,11 +53,25 @@ class KeycloakWebhookServiceTest {
         deleteEvent.setType("DELETE_ACCOUNT");
         deleteEvent.setUserId(testUserId);
 
+        Device device1 = new Device();
+        device1.setDeviceId("device-1");
+        Device device2 = new Device();
+        device2.setDeviceId("device-2");
+        when(deviceRepository.findByUserIdAndIsActiveTrue(testUserId)).thenReturn(List.of(device1, device2));
+
         // Act
         keycloakWebhookService.processEvent(deleteEvent);
 
         // Assert
         verify(deviceRepository).deactivateDevicesByUserId(eq(testUserId), any(Instant.class));
+        verify(deviceLifecycleService).publishDeactivated("device-1");
+        verify(deviceLifecycleService).publishDeactivated("device-2");
+        verify(verifiedCredentialCache).invalidate("device-1");
+        verify(verifiedCredentialCache).invalidate("device-2");
+        verify(activeDeviceIndex).remove("device-1");
+        verify(activeDeviceIndex).remove("device-2");
+        verify(mqttRedisProjection).remove("device-1");
+        verify(mqttRedisProjection).remove("device-2");
 
         // (Optional) More stringent verification:
         // verify(deviceRepository).deactivateDevicesByUserId(eq(testUserId), instantCaptor.capture());
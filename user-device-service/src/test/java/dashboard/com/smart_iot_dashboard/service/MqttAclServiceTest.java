@@ -1,7 +1,6 @@
 package dashboard.com.smart_iot_dashboard.service;
 
 import dashboard.com.smart_iot_dashboard.entity.Device;
-import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,8 +11,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Optional;
-
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -23,7 +20,7 @@ import static org.mockito.Mockito.*;
 class MqttAclServiceTest {
 
     @Mock
-    private DeviceRepository deviceRepository;
+    private ActiveDeviceIndex activeDeviceIndex;
 
     @InjectMocks
     private MqttAclService aclService;
@@ -39,8 +36,8 @@ class MqttAclServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(aclService, "bridgeUsername", BRIDGE_USERNAME);
 
-        lenient().when(deviceRepository.findByDeviceIdAndIsActiveTrue(anyString()))
-                .thenReturn(Optional.empty());
+        lenient().when(activeDeviceIndex.contains(anyString()))
+                .thenReturn(false);
     }
 
     @Nested
@@ -168,17 +165,24 @@ class MqttAclServiceTest {
             activeDevice.setDeviceId(DEVICE_ID);
             activeDevice.setActive(true);
 
-            lenient().when(deviceRepository.findByDeviceIdAndIsActiveTrue(DEVICE_ID))
-                    .thenReturn(Optional.of(activeDevice));
+            lenient().when(activeDeviceIndex.contains(DEVICE_ID))
+                    .thenReturn(true);
         }
 
         @Test
-        @DisplayName("Device: Write to telemetry ingress - TRUE")
+        @DisplayName("Device: Write to own telemetry - TRUE")
         void testDeviceWriteTelemetrySuccess() {
-            boolean result = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
             assertTrue(result);
         }
 
+        @Test
+        @DisplayName("Device: Write to other device telemetry - FALSE")
+        void testDeviceWriteOtherTelemetryFail() {
+            boolean result = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-456");
+            assertFalse(result);
+        }
+
         @Test
         @DisplayName("Device: Subscribe to own commands - TRUE")
         void testDeviceSubscribeOwnCommandsSuccess() {
@@ -208,16 +212,16 @@ class MqttAclServiceTest {
         }
 
         @Test
-        @DisplayName("Device: Read from telemetry ingress - FALSE")
+        @DisplayName("Device: Read from own telemetry - FALSE")
         void testDeviceReadTelemetryFail() {
-            boolean result = aclService.checkAcl(DEVICE_ID, ACL_READ, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(DEVICE_ID, ACL_READ, "iot/telemetry/sensor-123");
             assertFalse(result);
         }
 
         @Test
-        @DisplayName("Device: Subscribe to telemetry ingress - FALSE")
+        @DisplayName("Device: Subscribe to own telemetry - FALSE")
         void testDeviceSubscribeTelemetryFail() {
-            boolean result = aclService.checkAcl(DEVICE_ID, ACL_SUBSCRIBE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(DEVICE_ID, ACL_SUBSCRIBE, "iot/telemetry/sensor-123");
             assertFalse(result);
         }
 
@@ -238,7 +242,7 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Device: Case-sensitive device ID - FALSE")
         void testDeviceCaseSensitiveIdFail() {
-            boolean result = aclService.checkAcl("SENSOR-123", ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl("SENSOR-123", ACL_WRITE, "iot/telemetry/SENSOR-123");
             assertFalse(result);
         }
 
@@ -259,7 +263,7 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Device: Null device ID - FALSE")
         void testDeviceNullIdFail() {
-            boolean result = aclService.checkAcl(null, ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(null, ACL_WRITE, "iot/telemetry/sensor-123");
             assertFalse(result);
         }
 
@@ -273,14 +277,14 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Device: Verify repository is queried")
         void testDeviceRepositoryQueried() {
-            aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
-            verify(deviceRepository, times(1)).findByDeviceIdAndIsActiveTrue(DEVICE_ID);
+            aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
+            verify(activeDeviceIndex, times(1)).contains(DEVICE_ID);
         }
 
         @Test
         @DisplayName("Device: Multiple successful calls")
         void testMultipleDeviceCallsSuccess() {
-            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
+            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
             boolean result2 = aclService.checkAcl(DEVICE_ID, ACL_READ, "devices/sensor-123/commands");
             boolean result3 = aclService.checkAcl(DEVICE_ID, ACL_SUBSCRIBE, "devices/sensor-123/commands");
 
@@ -297,17 +301,17 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Inactive Device: Write to telemetry - FALSE")
         void testInactiveDeviceWriteFail() {
-            when(deviceRepository.findByDeviceIdAndIsActiveTrue("inactive-device"))
-                    .thenReturn(Optional.empty());
+            when(activeDeviceIndex.contains("inactive-device"))
+                    .thenReturn(false);
 
-            boolean result = aclService.checkAcl("inactive-device", ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl("inactive-device", ACL_WRITE, "iot/telemetry/inactive-device");
             assertFalse(result);
         }
 
         @Test
         @DisplayName("Non-existent Device: Any operation - FALSE")
         void testNonExistentDeviceFail() {
-            boolean result = aclService.checkAcl("unknown-device", ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl("unknown-device", ACL_WRITE, "iot/telemetry/unknown-device");
             assertFalse(result);
         }
 
@@ -331,21 +335,21 @@ class MqttAclServiceTest {
             activeDevice.setDeviceId(DEVICE_ID);
             activeDevice.setActive(true);
 
-            lenient().when(deviceRepository.findByDeviceIdAndIsActiveTrue(DEVICE_ID))
-                    .thenReturn(Optional.of(activeDevice));
+            lenient().when(activeDeviceIndex.contains(DEVICE_ID))
+                    .thenReturn(true);
         }
 
         @Test
         @DisplayName("Invalid accessType - FALSE")
         void testInvalidAccessTypeFail() {
-            boolean result = aclService.checkAcl(DEVICE_ID, 99, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(DEVICE_ID, 99, "iot/telemetry/sensor-123");
             assertFalse(result);
         }
 
         @Test
         @DisplayName("Empty string username - FALSE")
         void testEmptyUsernameFail() {
-            boolean result = aclService.checkAcl("", ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl("", ACL_WRITE, "iot/telemetry/");
             assertFalse(result);
         }
 
@@ -359,17 +363,17 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Topic with special characters")
         void testTopicWithSpecialCharacters() {
-            boolean result = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress@evil");
+            boolean result = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123@evil");
             assertFalse(result);
         }
 
         @Test
         @DisplayName("Device ID with numbers")
         void testDeviceIdWithNumbers() {
-            when(deviceRepository.findByDeviceIdAndIsActiveTrue("12345"))
-                    .thenReturn(Optional.of(activeDevice));
+            when(activeDeviceIndex.contains("12345"))
+                    .thenReturn(true);
 
-            boolean result = aclService.checkAcl("12345", ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl("12345", ACL_WRITE, "iot/telemetry/12345");
             assertTrue(result);
         }
 
@@ -381,10 +385,10 @@ class MqttAclServiceTest {
             device.setDeviceId(specialId);
             device.setActive(true);
 
-            when(deviceRepository.findByDeviceIdAndIsActiveTrue(specialId))
-                    .thenReturn(Optional.of(device));
+            when(activeDeviceIndex.contains(specialId))
+                    .thenReturn(true);
 
-            boolean result = aclService.checkAcl(specialId, ACL_WRITE, "iot/telemetry/ingress");
+            boolean result = aclService.checkAcl(specialId, ACL_WRITE, "iot/telemetry/" + specialId);
             assertTrue(result);
         }
 
@@ -397,10 +401,10 @@ class MqttAclServiceTest {
         }
 
         @Test
-        @DisplayName("Transactional read-only is called")
+        @DisplayName("Active device index is queried once")
         void testCheckAclIsReadOnly() {
-            aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
-            verify(deviceRepository, times(1)).findByDeviceIdAndIsActiveTrue(DEVICE_ID);
+            aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
+            verify(activeDeviceIndex, times(1)).contains(DEVICE_ID);
         }
 
         @Test
@@ -410,11 +414,11 @@ class MqttAclServiceTest {
             device2.setDeviceId(OTHER_DEVICE_ID);
             device2.setActive(true);
 
-            when(deviceRepository.findByDeviceIdAndIsActiveTrue(OTHER_DEVICE_ID))
-                    .thenReturn(Optional.of(device2));
+            when(activeDeviceIndex.contains(OTHER_DEVICE_ID))
+                    .thenReturn(true);
 
-            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
-            boolean result2 = aclService.checkAcl(OTHER_DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
+            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
+            boolean result2 = aclService.checkAcl(OTHER_DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-456");
 
             assertTrue(result1);
             assertTrue(result2);
@@ -430,8 +434,8 @@ class MqttAclServiceTest {
                 device.setDeviceId(deviceId);
                 device.setActive(true);
 
-                when(deviceRepository.findByDeviceIdAndIsActiveTrue(deviceId))
-                        .thenReturn(Optional.of(device));
+                when(activeDeviceIndex.contains(deviceId))
+                        .thenReturn(true);
 
                 String topic = "devices/" + deviceId + "/commands";
                 boolean result = aclService.checkAcl(deviceId, ACL_SUBSCRIBE, topic);
@@ -452,10 +456,10 @@ class MqttAclServiceTest {
             activeDevice.setDeviceId(DEVICE_ID);
             activeDevice.setActive(true);
 
-            lenient().when(deviceRepository.findByDeviceIdAndIsActiveTrue(anyString()))
-                    .thenReturn(Optional.empty());
-            lenient().when(deviceRepository.findByDeviceIdAndIsActiveTrue(DEVICE_ID))
-                    .thenReturn(Optional.of(activeDevice));
+            lenient().when(activeDeviceIndex.contains(anyString()))
+                    .thenReturn(false);
+            lenient().when(activeDeviceIndex.contains(DEVICE_ID))
+                    .thenReturn(true);
         }
 
         @Test
@@ -481,11 +485,11 @@ class MqttAclServiceTest {
         }
 
         @Test
-        @DisplayName("Telemetry ingress exact match required")
-        void testTelemetryIngressExactMatch() {
-            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
-            boolean result2 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress/");
-            boolean result3 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress/extra");
+        @DisplayName("Telemetry topic exact match required")
+        void testTelemetryTopicExactMatch() {
+            boolean result1 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
+            boolean result2 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123/");
+            boolean result3 = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123/extra");
 
             assertTrue(result1);
             assertFalse(result2);
@@ -504,8 +508,8 @@ class MqttAclServiceTest {
         @Test
         @DisplayName("Device cannot have same permission for different access types")
         void testDifferentAccessTypesProduceExpectedResults() {
-            boolean readResult = aclService.checkAcl(DEVICE_ID, ACL_READ, "iot/telemetry/ingress");
-            boolean writeResult = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/ingress");
+            boolean readResult = aclService.checkAcl(DEVICE_ID, ACL_READ, "iot/telemetry/sensor-123");
+            boolean writeResult = aclService.checkAcl(DEVICE_ID, ACL_WRITE, "iot/telemetry/sensor-123");
 
             assertFalse(readResult);
             assertTrue(writeResult);
@@ -16,6 +16,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -29,6 +30,15 @@ class MqttAuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoderInternal;
 
+    @Mock
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Mock
+    private ActiveDeviceIndex activeDeviceIndex;
+
+    @Mock
+    private MqttRedisProjection mqttRedisProjection;
+
     @InjectMocks
     private MqttAuthService authService;
 
@@ -277,6 +287,98 @@ class MqttAuthServiceTest {
             verify(passwordEncoderInternal, times(5)).matches(DEVICE_TOKEN, activeDevice.getHashedDeviceToken());
         }
 
+        @Test
+        @DisplayName("Device: Verified token is cached with the stamp taken before the lookup")
+        void testVerifiedTokenIsCached() {
+            when(verifiedCredentialCache.stamp()).thenReturn(7L);
+            when(passwordEncoderInternal.matches(DEVICE_TOKEN, activeDevice.getHashedDeviceToken()))
+                    .thenReturn(true);
+
+            assertTrue(authService.authenticateMqttClient(DEVICE_ID, DEVICE_TOKEN));
+
+            verify(verifiedCredentialCache).put(DEVICE_ID, DEVICE_TOKEN, 7L);
+            verify(activeDeviceIndex).add(DEVICE_ID);
+            verify(mqttRedisProjection).onAuthenticated(activeDevice, DEVICE_TOKEN, 0L);
+        }
+
+        @Test
+        @DisplayName("Device: Wrong token is not cached")
+        void testWrongTokenIsNotCached() {
+            when(passwordEncoderInternal.matches("wrong-token", activeDevice.getHashedDeviceToken()))
+                    .thenReturn(false);
+
+            assertFalse(authService.authenticateMqttClient(DEVICE_ID, "wrong-token"));
+
+            verify(verifiedCredentialCache, never()).put(anyString(), anyString(), anyLong());
+            verify(activeDeviceIndex, never()).add(anyString());
+            verify(mqttRedisProjection, never()).onAuthenticated(any(), anyString(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Device: Cached token skips repository and BCrypt")
+        void testCachedTokenSkipsRepositoryAndBcrypt() {
+            when(verifiedCredentialCache.isVerified(DEVICE_ID, DEVICE_TOKEN)).thenReturn(true);
+
+            assertTrue(authService.authenticateMqttClient(DEVICE_ID, DEVICE_TOKEN));
+
+            verify(deviceRepository, never()).findByDeviceIdAndIsActiveTrue(anyString());
+            verify(passwordEncoderInternal, never()).matches(anyString(), anyString());
+        }
+
+        @Test
+        @DisplayName("Memory-only auth answers for the bridge and cached tokens without the repository")
+        void testAuthenticateFromMemory() {
+            when(verifiedCredentialCache.isVerified(DEVICE_ID, DEVICE_TOKEN)).thenReturn(true);
+
+            assertTrue(authService.authenticateFromMemory(BRIDGE_USERNAME, BRIDGE_PASSWORD));
+            assertFalse(authService.authenticateFromMemory(BRIDGE_USERNAME, "wrong"));
+            assertTrue(authService.authenticateFromMemory(DEVICE_ID, DEVICE_TOKEN));
+            assertFalse(authService.authenticateFromMemory(DEVICE_ID, "uncached-token"));
+
+            verifyNoInteractions(deviceRepository, passwordEncoderInternal);
+        }
+
+        @Test
+        @DisplayName("Device: Legacy hash is upgraded after a successful login")
+        void testLegacyHashIsUpgraded() {
+            String storedHash = activeDevice.getHashedDeviceToken();
+            when(passwordEncoderInternal.matches(DEVICE_TOKEN, storedHash)).thenReturn(true);
+            when(passwordEncoderInternal.upgradeEncoding(storedHash)).thenReturn(true);
+            when(passwordEncoderInternal.encode(DEVICE_TOKEN)).thenReturn("{hmac-sha256}new-hash");
+
+            assertTrue(authService.authenticateMqttClient(DEVICE_ID, DEVICE_TOKEN));
+
+            verify(deviceRepository).replaceHashedDeviceToken(DEVICE_ID, storedHash, "{hmac-sha256}new-hash");
+        }
+
+        @Test
+        @DisplayName("Device: Failed hash upgrade does not fail the login")
+        void testFailedUpgradeStillAuthenticates() {
+            String storedHash = activeDevice.getHashedDeviceToken();
+            when(passwordEncoderInternal.matches(DEVICE_TOKEN, storedHash)).thenReturn(true);
+            when(passwordEncoderInternal.upgradeEncoding(storedHash)).thenReturn(true);
+            when(passwordEncoderInternal.encode(DEVICE_TOKEN)).thenReturn("{hmac-sha256}new-hash");
+            when(deviceRepository.replaceHashedDeviceToken(anyString(), anyString(), anyString()))
+                    .thenThrow(new RuntimeException("connection reset"));
+
+            assertTrue(authService.authenticateMqttClient(DEVICE_ID, DEVICE_TOKEN));
+        }
+
+        @Test
+        @DisplayName("Device: Current hash and wrong token are never re-hashed")
+        void testNoUpgradeWithoutNeedOrSuccess() {
+            String storedHash = activeDevice.getHashedDeviceToken();
+            when(passwordEncoderInternal.matches(DEVICE_TOKEN, storedHash)).thenReturn(true);
+            when(passwordEncoderInternal.matches("wrong-token", storedHash)).thenReturn(false);
+            lenient().when(passwordEncoderInternal.upgradeEncoding(storedHash)).thenReturn(false);
+
+            assertTrue(authService.authenticateMqttClient(DEVICE_ID, DEVICE_TOKEN));
+            assertFalse(authService.authenticateMqttClient(DEVICE_ID, "wrong-token"));
+
+            verify(passwordEncoderInternal, never()).encode(anyString());
+            verify(deviceRepository, never()).replaceHashedDeviceToken(anyString(), anyString(), anyString());
+        }
+
         @Test
         @DisplayName("Device: Repository is queried exactly once")
         void testDeviceRepositoryQueriedOnce() {
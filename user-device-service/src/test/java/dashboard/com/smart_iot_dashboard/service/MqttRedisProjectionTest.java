@@ -0,0 +1,159 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import dashboard.com.smart_iot_dashboard.entity.Device;
+import dashboard.com.smart_iot_dashboard.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MQTT Redis Projection Tests")
+class MqttRedisProjectionTest {
+
+    private static final String DEVICE_ID = "sensor-123";
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    @InjectMocks
+    private MqttRedisProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(projection, "enabled", true);
+        ReflectionTestUtils.setField(projection, "iterations", 1);
+        projection.init();
+
+        lenient().when(operations.opsForValue()).thenReturn(valueOperations);
+        lenient().when(operations.opsForSet()).thenReturn(setOperations);
+    }
+
+    @Test
+    @DisplayName("First HTTP login stores the broker hash and publishes hash and ACLs in one MULTI")
+    void testFirstLoginPublishes() {
+        Device device = device(null);
+        when(deviceRepository.setBrokerPasswordHashIfMissing(eq(DEVICE_ID), anyString())).thenReturn(1);
+
+        projection.onAuthenticated(device, DEVICE_TOKEN, projection.stamp());
+
+        runRedisCallbacks(1);
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(deviceRepository).setBrokerPasswordHashIfMissing(eq(DEVICE_ID), hash.capture());
+        verify(operations).multi();
+        verify(setOperations).add(DEVICE_ID + ":racls", "devices/" + DEVICE_ID + "/commands");
+        verify(setOperations).add(DEVICE_ID + ":sacls", "devices/" + DEVICE_ID + "/commands");
+        verify(setOperations).add(DEVICE_ID + ":wacls", "iot/telemetry/" + DEVICE_ID);
+        verify(valueOperations).set(DEVICE_ID, hash.getValue());
+        verify(setOperations).add(MqttRedisProjection.PROJECTED_DEVICES_KEY, DEVICE_ID);
+        verify(operations).exec();
+    }
+
+    @Test
+    @DisplayName("Nothing is published when the device lost the race or was removed meanwhile")
+    void testRacesSkipPublishing() {
+        when(deviceRepository.setBrokerPasswordHashIfMissing(eq(DEVICE_ID), anyString())).thenReturn(0);
+        projection.onAuthenticated(device(null), DEVICE_TOKEN, projection.stamp());
+
+        long stamp = projection.stamp();
+        projection.remove("other-device");
+        projection.onAuthenticated(device("PBKDF2$sha256$1$AAAA$AAAA"), DEVICE_TOKEN, stamp);
+
+        // Only the removal reached Redis
+        runRedisCallbacks(1);
+        verify(operations).delete("other-device");
+        verify(operations).delete("other-device:racls");
+        verify(operations).delete("other-device:sacls");
+        verify(operations).delete("other-device:wacls");
+        verify(valueOperations, never()).set(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Reconciliation repairs drifted devices and removes inactive ones")
+    void testReconcile() {
+        String brokerHash = "PBKDF2$sha256$1$AAAA$AAAA";
+        String currentId = "sensor-current";
+        DeviceRepository.BrokerCredential current = credential(currentId, brokerHash);
+        DeviceRepository.BrokerCredential drifted = credential(DEVICE_ID, brokerHash);
+
+        SetOperations<String, String> templateSets = mock();
+        when(redisTemplate.opsForSet()).thenReturn(templateSets);
+        when(templateSets.members(MqttRedisProjection.PROJECTED_DEVICES_KEY))
+                .thenReturn(Set.of(currentId, DEVICE_ID, "sensor-deleted"));
+        when(deviceRepository.findActiveBrokerCredentials()).thenReturn(List.of(current, drifted));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(
+                brokerHash, Set.of("devices/" + currentId + "/commands"), Set.of("devices/" + currentId + "/commands"),
+                Set.of("iot/telemetry/" + currentId),
+                // Written before subscribe ACLs were projected
+                brokerHash, Set.of("devices/" + DEVICE_ID + "/commands"), Set.of(), Set.of("iot/telemetry/" + DEVICE_ID)));
+
+        projection.reconcile();
+
+        // One repair, one removal; the bridge is not configured here
+        runRedisCallbacks(2);
+        verify(valueOperations).set(DEVICE_ID, brokerHash);
+        verify(valueOperations, never()).set(eq(currentId), anyString());
+        verify(operations).delete("sensor-deleted");
+        verify(operations, never()).delete(currentId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runRedisCallbacks(int expected) {
+        ArgumentCaptor<SessionCallback<List<Object>>> callbacks = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate, times(expected)).execute(callbacks.capture());
+        callbacks.getAllValues().forEach(callback -> callback.execute(operations));
+    }
+
+    private static Device device(String brokerPasswordHash) {
+        Device device = new Device();
+        device.setDeviceId(DEVICE_ID);
+        device.setActive(true);
+        device.setBrokerPasswordHash(brokerPasswordHash);
+        return device;
+    }
+
+    private static DeviceRepository.BrokerCredential credential(String deviceId, String brokerPasswordHash) {
+        return new DeviceRepository.BrokerCredential() {
+            @Override
+            public String getDeviceId() {
+                return deviceId;
+            }
+
+            @Override
+            public String getBrokerPasswordHash() {
+                return brokerPasswordHash;
+            }
+        };
+    }
+}
@@ -40,6 +40,12 @@ class ProvisioningServiceTest {
     @Mock
     private ValueOperations<String, String> valueOperations;
 
+    @Mock
+    private ActiveDeviceIndex activeDeviceIndex;
+
+    @Mock
+    private MqttRedisProjection mqttRedisProjection;
+
     // Test-Objekt: Die Klasse, die wir testen.
     // Mockito injiziert die @Mock-Objekte automatisch hier hinein.
     @InjectMocks
@@ -123,6 +129,8 @@ class ProvisioningServiceTest {
         assertThat(savedDevice.getDeviceId()).isEqualTo(response.getDeviceId());
         assertThat(savedDevice.getUserId()).isEqualTo(testUserId);
         assertThat(savedDevice.getHashedDeviceToken()).isEqualTo(dummyHash); // Der Hash muss gespeichert werden!
+        verify(activeDeviceIndex).add(response.getDeviceId());
+        verify(mqttRedisProjection).publishAfterCommit(eq(response.getDeviceId()), any());
 
         // 3. Wurde der Code aus Redis gelöscht?
         verify(redisTemplate).delete(redisKey);
@@ -147,6 +155,7 @@ class ProvisioningServiceTest {
 
         // Stelle sicher, dass *keine* Speicherung oder Löschung versucht wurde
         verify(deviceRepository, never()).save(any());
+        verify(activeDeviceIndex, never()).add(anyString());
         verify(redisTemplate, never()).delete(anyString());
     }
 }
@@ -0,0 +1,55 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryBridgeServiceTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private TelemetryPayloadConverter payloadConverter;
+
+    @InjectMocks
+    private TelemetryBridgeService telemetryBridgeService;
+
+    @Test
+    void forwardPresenceToWebSocket_shouldSendTransitionToDeviceTopic() {
+        String presence = "{\"deviceId\":\"" + DEVICE_ID + "\",\"status\":\"OFFLINE\",\"changedAt\":\"2024-05-01T12:00:30Z\"}";
+
+        telemetryBridgeService.forwardPresenceToWebSocket(
+                new ConsumerRecord<>("iot-device-presence", 0, 7L, DEVICE_ID, presence));
+
+        verify(messagingTemplate).convertAndSend("/topic/device." + DEVICE_ID, (Object) presence);
+        verifyNoInteractions(payloadConverter);
+    }
+
+    @Test
+    void forwardPresenceToWebSocket_shouldSkipRecordsWithoutKey() {
+        telemetryBridgeService.forwardPresenceToWebSocket(
+                new ConsumerRecord<>("iot-device-presence", 0, 8L, null, "{\"status\":\"ONLINE\"}"));
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void forwardPresenceToWebSocket_shouldSkipTombstones() {
+        telemetryBridgeService.forwardPresenceToWebSocket(
+                new ConsumerRecord<>("iot-device-presence", 0, 9L, DEVICE_ID, null));
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+    }
+}
@@ -0,0 +1,134 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import com.influxdb.client.InfluxDBClient;
+import com.influxdb.client.QueryApi;
+import com.influxdb.query.FluxRecord;
+import com.influxdb.query.FluxTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryHistoryServiceTest {
+
+    private static final String DEVICE_ID = "3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b";
+
+    @Mock
+    private InfluxDBClient influxDBClient;
+
+    @Mock
+    private QueryApi queryApi;
+
+    @InjectMocks
+    private TelemetryHistoryService telemetryHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(telemetryHistoryService, "organization", "smart-iot-dashboard");
+        ReflectionTestUtils.setField(telemetryHistoryService, "bucket", "iot-data");
+        ReflectionTestUtils.setField(telemetryHistoryService, "rollupBucket", "iot-data-rollups");
+        when(influxDBClient.getQueryApi()).thenReturn(queryApi);
+    }
+
+    @Test
+    void getTelemetryHistory_shouldReadRollupTier_andOnlyScanRawPointsAfterLastRollup() {
+        Instant lastRollup = Instant.parse("2024-05-01T12:15:00Z");
+        Instant openWindow = Instant.parse("2024-05-01T12:30:00Z");
+        when(queryApi.query(anyString(), eq("smart-iot-dashboard")))
+                .thenReturn(tables(record(Instant.parse("2024-05-01T12:00:00Z"), 21.004), record(lastRollup, 21.5)))
+                .thenReturn(tables(record(openWindow, 22.0)));
+
+        List<TelemetryHistoryService.TelemetryHistoryPoint> points =
+                telemetryHistoryService.getTelemetryHistory(DEVICE_ID, "-24h");
+
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(queryApi, times(2)).query(queries.capture(), eq("smart-iot-dashboard"));
+
+        String rollupQuery = queries.getAllValues().get(0);
+        assertThat(rollupQuery)
+                .contains("from(bucket: \"iot-data-rollups\")")
+                .contains("range(start: -24h)")
+                .contains("== \"telemetry_15m\"")
+                .contains("== \"mean\"")
+                .doesNotContain("aggregateWindow");
+
+        String rawQuery = queries.getAllValues().get(1);
+        assertThat(rawQuery)
+                .contains("from(bucket: \"iot-data\")")
+                .contains("range(start: 2024-05-01T12:15:00Z)")
+                .contains("aggregateWindow(every: 15m");
+
+        assertThat(points).extracting(TelemetryHistoryService.TelemetryHistoryPoint::getTemperature)
+                .containsExactly(21.0, 21.5, 22.0);
+    }
+
+    @Test
+    void getTelemetryHistory_shouldFallBackToRawPoints_whenNoRollupsExist() {
+        when(queryApi.query(anyString(), eq("smart-iot-dashboard")))
+                .thenReturn(Collections.emptyList())
+                .thenReturn(tables(record(Instant.parse("2024-05-01T12:01:00Z"), 20.0)));
+
+        List<TelemetryHistoryService.TelemetryHistoryPoint> points =
+                telemetryHistoryService.getTelemetryHistory(DEVICE_ID, "-1h");
+
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(queryApi, times(2)).query(queries.capture(), eq("smart-iot-dashboard"));
+        assertThat(queries.getAllValues().get(0)).contains("== \"telemetry_1m\"");
+        assertThat(queries.getAllValues().get(1))
+                .contains("range(start: -1h)")
+                .contains("aggregateWindow(every: 1m");
+        assertThat(points).hasSize(1);
+    }
+
+    @Test
+    void rollupBucket_shouldDefaultToTheBucketTheFlinkJobWritesRollupsTo() throws NoSuchFieldException {
+        reset(influxDBClient);
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(
+                new MapPropertySource("test", Map.of("spring.influxdb.bucket", "iot-data")));
+        String placeholder = TelemetryHistoryService.class.getDeclaredField("rollupBucket")
+                .getAnnotation(Value.class).value();
+
+        assertThat(environment.resolveRequiredPlaceholders(placeholder)).isEqualTo("iot-data-rollups");
+    }
+
+    @Test
+    void getTelemetryHistory_shouldNotQuery_forInvalidDeviceId() {
+        reset(influxDBClient);
+
+        assertThat(telemetryHistoryService.getTelemetryHistory("\") |> drop()", "-1h")).isEmpty();
+
+        verifyNoInteractions(influxDBClient);
+    }
+
+    private static List<FluxTable> tables(FluxRecord... records) {
+        FluxTable table = new FluxTable();
+        table.getRecords().addAll(List.of(records));
+        return List.of(table);
+    }
+
+    private static FluxRecord record(Instant time, double value) {
+        FluxRecord fluxRecord = new FluxRecord(0);
+        fluxRecord.getValues().put("_time", time);
+        fluxRecord.getValues().put("_value", value);
+        return fluxRecord;
+    }
+}
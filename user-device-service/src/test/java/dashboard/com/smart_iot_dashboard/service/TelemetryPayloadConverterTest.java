@@ -0,0 +1,63 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TelemetryPayloadConverterTest {
+
+    private static final UUID DEVICE_ID = UUID.fromString("3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b");
+    private static final long TIMESTAMP = Instant.parse("2024-05-01T12:00:00.123Z").toEpochMilli();
+
+    private final TelemetryPayloadConverter converter = new TelemetryPayloadConverter();
+
+    @Test
+    void toJson_shouldPassJsonThrough() {
+        String json = "{\"deviceId\":\"abc\",\"data\":{\"currentTemperature\":21.5}}";
+
+        assertThat(converter.toJson(json.getBytes(StandardCharsets.UTF_8))).isEqualTo(json);
+    }
+
+    @Test
+    void toJson_shouldRenderFullBinaryReading() {
+        byte[] payload = ByteBuffer.allocate(43)
+                .put(TelemetryPayloadConverter.MAGIC).put(TelemetryPayloadConverter.VERSION_1).put((byte) 0b1111)
+                .putLong(DEVICE_ID.getMostSignificantBits()).putLong(DEVICE_ID.getLeastSignificantBits())
+                .putLong(TIMESTAMP)
+                .putDouble(21.37).putDouble(22.0)
+                .array();
+
+        assertThat(converter.toJson(payload)).isEqualTo(
+                "{\"deviceId\":\"3f2b8c1e-9a4d-4e6f-8b7a-1c2d3e4f5a6b\",\"timestamp\":\"2024-05-01T12:00:00.123Z\","
+                        + "\"data\":{\"currentTemperature\":21.37,\"targetTemperature\":22.0,\"heatingStatus\":true}}");
+    }
+
+    @Test
+    void toJson_shouldRenderAbsentOptionalFieldsAsNull() {
+        byte[] payload = ByteBuffer.allocate(35)
+                .put(TelemetryPayloadConverter.MAGIC).put(TelemetryPayloadConverter.VERSION_1).put((byte) 0b0001)
+                .putLong(DEVICE_ID.getMostSignificantBits()).putLong(DEVICE_ID.getLeastSignificantBits())
+                .putLong(TIMESTAMP)
+                .putDouble(19.0)
+                .array();
+
+        assertThat(converter.toJson(payload))
+                .endsWith("\"data\":{\"currentTemperature\":19.0,\"targetTemperature\":null,\"heatingStatus\":null}}");
+    }
+
+    @Test
+    void toJson_shouldReturnNull_forTruncatedOrUnknownVersionBinary() {
+        byte[] truncated = {TelemetryPayloadConverter.MAGIC, TelemetryPayloadConverter.VERSION_1, 1, 0, 0};
+        byte[] futureVersion = ByteBuffer.allocate(35)
+                .put(TelemetryPayloadConverter.MAGIC).put((byte) 2).put((byte) 1)
+                .array();
+
+        assertThat(converter.toJson(truncated)).isNull();
+        assertThat(converter.toJson(futureVersion)).isNull();
+    }
+}
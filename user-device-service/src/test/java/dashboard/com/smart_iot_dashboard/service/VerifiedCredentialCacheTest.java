@@ -0,0 +1,80 @@
+package dashboard.com.smart_iot_dashboard.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Verified Credential Cache Tests")
+class VerifiedCredentialCacheTest {
+
+    private static final String DEVICE_ID = "sensor-123";
+    private static final String DEVICE_TOKEN = "raw-token-abc";
+
+    private final AtomicLong clock = new AtomicLong();
+    private VerifiedCredentialCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedCredentialCache(2, Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    @DisplayName("Only the exact verified token matches")
+    void testOnlyVerifiedTokenMatches() {
+        cache.put(DEVICE_ID, DEVICE_TOKEN, cache.stamp());
+
+        assertTrue(cache.isVerified(DEVICE_ID, DEVICE_TOKEN));
+        assertFalse(cache.isVerified(DEVICE_ID, DEVICE_TOKEN + " "));
+        assertFalse(cache.isVerified(DEVICE_ID, null));
+        assertFalse(cache.isVerified("sensor-456", DEVICE_TOKEN));
+        // The deviceId/token boundary is part of the digest
+        assertFalse(cache.isVerified("sensor-12", "3" + DEVICE_TOKEN));
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL")
+    void testEntriesExpire() {
+        cache.put(DEVICE_ID, DEVICE_TOKEN, cache.stamp());
+
+        clock.set(Duration.ofSeconds(10).toNanos() - 1);
+        assertTrue(cache.isVerified(DEVICE_ID, DEVICE_TOKEN));
+
+        clock.set(Duration.ofSeconds(10).toNanos());
+        assertFalse(cache.isVerified(DEVICE_ID, DEVICE_TOKEN));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Least recently used entry is evicted at capacity")
+    void testLeastRecentlyUsedIsEvicted() {
+        cache.put("device-1", "token-1", cache.stamp());
+        cache.put("device-2", "token-2", cache.stamp());
+        assertTrue(cache.isVerified("device-1", "token-1"));
+
+        cache.put("device-3", "token-3", cache.stamp());
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isVerified("device-1", "token-1"));
+        assertFalse(cache.isVerified("device-2", "token-2"));
+        assertTrue(cache.isVerified("device-3", "token-3"));
+    }
+
+    @Test
+    @DisplayName("Invalidation drops the entry and rejects a verification that raced with it")
+    void testInvalidation() {
+        cache.put(DEVICE_ID, DEVICE_TOKEN, cache.stamp());
+        long stamp = cache.stamp();
+
+        cache.invalidate(DEVICE_ID);
+        assertFalse(cache.isVerified(DEVICE_ID, DEVICE_TOKEN));
+
+        // A login that read the device as active before the invalidation must not re-populate it
+        cache.put(DEVICE_ID, DEVICE_TOKEN, stamp);
+        assertFalse(cache.isVerified(DEVICE_ID, DEVICE_TOKEN));
+    }
+}
@@ -0,0 +1,64 @@
+package dashboard.com.smart_iot_dashboard.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("UuidHashSet Tests")
+class UuidHashSetTest {
+
+    @Test
+    @DisplayName("Random adds and removes agree with HashSet")
+    void testAgreesWithHashSet() {
+        Random random = new Random(42);
+        UuidHashSet set = new UuidHashSet(0);
+        Set<UUID> expected = new HashSet<>();
+        List<UUID> pool = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            pool.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        // Forces long probe runs, so backward-shift deletion is exercised across the wrap-around
+        for (int i = 0; i < 200; i++) {
+            pool.add(new UUID(i, 0));
+        }
+        pool.add(new UUID(0, 0));
+
+        for (int i = 0; i < 50_000; i++) {
+            UUID uuid = pool.get(random.nextInt(pool.size()));
+            long msb = uuid.getMostSignificantBits();
+            long lsb = uuid.getLeastSignificantBits();
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(uuid), set.remove(msb, lsb));
+            } else {
+                assertEquals(expected.add(uuid), set.add(msb, lsb));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+
+        for (UUID uuid : pool) {
+            assertEquals(expected.contains(uuid),
+                    set.contains(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()), uuid.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Nil UUID is stored apart from the empty-slot marker")
+    void testNilUuid() {
+        UuidHashSet set = new UuidHashSet(4);
+        assertFalse(set.contains(0, 0));
+        assertTrue(set.add(0, 0));
+        assertFalse(set.add(0, 0));
+        assertTrue(set.contains(0, 0));
+        assertEquals(1, set.size());
+        assertTrue(set.remove(0, 0));
+        assertEquals(0, set.size());
+    }
+}